@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.pulsar.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.pulsar.listener.adapter.DelegatingInvocableHandler;
+import org.springframework.pulsar.listener.adapter.HandlerAdapter;
+import org.springframework.pulsar.listener.adapter.PulsarRecordMessagingMessageListenerAdapter;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Measures the invocation of listener methods through {@link HandlerAdapter}, either for a
+ * single method or dispatched on the payload type by a {@link DelegatingInvocableHandler},
+ * and the full record listener adapter path including the message conversion.
+ *
+ * @author agent (agent@local)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HandlerAdapterBenchmark {
+
+	private final Message<String> message = new GenericMessage<>("hello");
+
+	private final org.apache.pulsar.client.api.Message<String> record = InMemoryPulsar
+			.newMessage("benchmark-topic", 0, "hello");
+
+	private HandlerAdapter methodAdapter;
+
+	private HandlerAdapter delegatingAdapter;
+
+	private PulsarRecordMessagingMessageListenerAdapter<String> listenerAdapter;
+
+	@Setup
+	public void setup() {
+		Listener bean = new Listener();
+		Method stringMethod = ReflectionUtils.findMethod(Listener.class, "handleString", String.class);
+		Method longMethod = ReflectionUtils.findMethod(Listener.class, "handleLong", Long.class);
+		DefaultMessageHandlerMethodFactory handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+		handlerMethodFactory.afterPropertiesSet();
+
+		this.methodAdapter = new HandlerAdapter(handlerMethodFactory.createInvocableHandlerMethod(bean, stringMethod));
+		this.delegatingAdapter = new HandlerAdapter(new DelegatingInvocableHandler(List.of(
+				handlerMethodFactory.createInvocableHandlerMethod(bean, longMethod),
+				handlerMethodFactory.createInvocableHandlerMethod(bean, stringMethod)),
+				null, bean, null, null, null, null));
+		this.listenerAdapter = new PulsarRecordMessagingMessageListenerAdapter<>(bean, stringMethod);
+		this.listenerAdapter.setHandlerMethod(
+				new HandlerAdapter(handlerMethodFactory.createInvocableHandlerMethod(bean, stringMethod)));
+	}
+
+	@Benchmark
+	public Object invokeMethod() throws Exception {
+		return this.methodAdapter.invoke(this.message);
+	}
+
+	@Benchmark
+	public Object invokeDelegating() throws Exception {
+		return this.delegatingAdapter.invoke(this.message);
+	}
+
+	@Benchmark
+	public CompletableFuture<?> invokeListenerAdapter() {
+		return this.listenerAdapter.receivedAsync(null, this.record, null);
+	}
+
+	public static class Listener {
+
+		public String handleString(String value) {
+			return value;
+		}
+
+		public Long handleLong(Long value) {
+			return value;
+		}
+
+	}
+}
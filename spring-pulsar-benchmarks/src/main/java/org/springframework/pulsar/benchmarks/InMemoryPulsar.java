@@ -0,0 +1,242 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.pulsar.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.ConsumerBuilder;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.Messages;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.ProducerBuilder;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.TypedMessageBuilder;
+import org.apache.pulsar.client.impl.MessageIdImpl;
+
+/**
+ * In-memory stand-ins for the Pulsar client API, so that the benchmarks measure the
+ * Spring Pulsar code paths without a broker.
+ * <p>
+ * The stubs are JDK proxies that only implement the calls made on the measured paths:
+ * builder methods return the builder, sends complete immediately and consumers hand out
+ * the batches offered to them. Any other call returns {@code null}, zero, {@code false}
+ * or a completed future.
+ *
+ * @author agent (agent@local)
+ */
+final class InMemoryPulsar {
+
+	private static final long RECEIVE_TIMEOUT_MILLIS = 10;
+
+	private InMemoryPulsar() {
+
+	}
+
+	/**
+	 * Create a client whose producers complete every send immediately and whose consumers
+	 * all delegate to the given consumer.
+	 * @param consumer the consumer returned when subscribing, may be {@code null}
+	 * @return the client
+	 */
+	static PulsarClient newClient(Consumer<?> consumer) {
+		return newClient(consumer, Duration.ZERO);
+	}
+
+	/**
+	 * Create a client whose producers complete every send immediately and whose consumers
+	 * all delegate to the given consumer once the subscribe latency has elapsed.
+	 * @param consumer the consumer returned when subscribing, may be {@code null}
+	 * @param subscribeLatency the time taken by an asynchronous subscribe
+	 * @return the client
+	 */
+	static PulsarClient newClient(Consumer<?> consumer, Duration subscribeLatency) {
+		return stub(PulsarClient.class, (proxy, method, args) -> switch (method.getName()) {
+			case "newProducer" -> newProducerBuilder();
+			case "newConsumer" -> newConsumerBuilder(consumer, subscribeLatency);
+			default -> defaultValue(proxy, method.getReturnType());
+		});
+	}
+
+	static <T> Message<T> newMessage(String topic, long sequenceId, T value) {
+		MessageId messageId = new MessageIdImpl(0, sequenceId, -1);
+		Map<String, String> properties = Collections.emptyMap();
+		return stub(Message.class, (proxy, method, args) -> switch (method.getName()) {
+			case "getValue" -> value;
+			case "getMessageId" -> messageId;
+			case "getTopicName" -> topic;
+			case "getSequenceId" -> sequenceId;
+			case "getProperties" -> properties;
+			case "size" -> 1;
+			default -> defaultValue(proxy, method.getReturnType());
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> Messages<T> newMessages(List<Message<T>> messages) {
+		return stub(Messages.class, (proxy, method, args) -> switch (method.getName()) {
+			case "size" -> messages.size();
+			case "iterator" -> messages.iterator();
+			case "forEach" -> {
+				messages.forEach((java.util.function.Consumer<Message<T>>) args[0]);
+				yield null;
+			}
+			default -> defaultValue(proxy, method.getReturnType());
+		});
+	}
+
+	private static ProducerBuilder<?> newProducerBuilder() {
+		AtomicReference<String> topic = new AtomicReference<>();
+		return stub(ProducerBuilder.class, (proxy, method, args) -> switch (method.getName()) {
+			case "topic" -> {
+				topic.set((String) args[0]);
+				yield proxy;
+			}
+			case "create" -> newProducer(topic.get());
+			case "createAsync" -> CompletableFuture.completedFuture(newProducer(topic.get()));
+			default -> defaultValue(proxy, method.getReturnType());
+		});
+	}
+
+	private static Producer<?> newProducer(String topic) {
+		return stub(Producer.class, (proxy, method, args) -> switch (method.getName()) {
+			case "getTopic" -> topic;
+			case "getProducerName" -> "in-memory";
+			case "newMessage" -> newTypedMessageBuilder();
+			default -> defaultValue(proxy, method.getReturnType());
+		});
+	}
+
+	private static TypedMessageBuilder<?> newTypedMessageBuilder() {
+		CompletableFuture<MessageId> sent = CompletableFuture.completedFuture(MessageId.latest);
+		return stub(TypedMessageBuilder.class, (proxy, method, args) -> switch (method.getName()) {
+			case "send" -> MessageId.latest;
+			case "sendAsync" -> sent;
+			default -> defaultValue(proxy, method.getReturnType());
+		});
+	}
+
+	private static ConsumerBuilder<?> newConsumerBuilder(Consumer<?> consumer, Duration subscribeLatency) {
+		return stub(ConsumerBuilder.class, (proxy, method, args) -> switch (method.getName()) {
+			case "subscribe" -> consumer;
+			case "subscribeAsync" -> subscribeLatency.isZero() ? CompletableFuture.completedFuture(consumer)
+					: CompletableFuture.supplyAsync(() -> consumer, CompletableFuture.delayedExecutor(
+							subscribeLatency.toMillis(), TimeUnit.MILLISECONDS));
+			default -> defaultValue(proxy, method.getReturnType());
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <S> S stub(Class<?> type, InvocationHandler handler) {
+		return (S) Proxy.newProxyInstance(InMemoryPulsar.class.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> switch (method.getName()) {
+					case "equals" -> proxy == args[0];
+					case "hashCode" -> System.identityHashCode(proxy);
+					case "toString" -> "InMemory" + type.getSimpleName();
+					default -> handler.invoke(proxy, method, args);
+				});
+	}
+
+	private static Object defaultValue(Object proxy, Class<?> returnType) {
+		if (returnType.isInstance(proxy)) {
+			return proxy;
+		}
+		if (returnType == CompletableFuture.class) {
+			return CompletableFuture.completedFuture(null);
+		}
+		if (returnType == boolean.class) {
+			return false;
+		}
+		if (returnType == int.class) {
+			return 0;
+		}
+		if (returnType == long.class) {
+			return 0L;
+		}
+		return null;
+	}
+
+	/**
+	 * A consumer that hands out the batches offered by the benchmark thread and signals
+	 * the acknowledged messages back to it.
+	 */
+	static final class BatchConsumer {
+
+		private final BlockingQueue<Messages<?>> batches = new LinkedBlockingQueue<>();
+
+		private final Semaphore acknowledged = new Semaphore(0);
+
+		private final Consumer<?> consumer = stub(Consumer.class, (proxy, method, args) -> {
+			String name = method.getName();
+			if (name.equals("batchReceive")) {
+				return receive();
+			}
+			if (name.startsWith("acknowledge")) {
+				this.acknowledged.release(count(args[0]));
+			}
+			return defaultValue(proxy, method.getReturnType());
+		});
+
+		Consumer<?> getConsumer() {
+			return this.consumer;
+		}
+
+		/**
+		 * Offer a batch to the container and wait until all its messages are acknowledged.
+		 * @param messages the batch
+		 * @throws InterruptedException if interrupted while waiting
+		 */
+		void deliverAndAwaitAcks(Messages<?> messages) throws InterruptedException {
+			this.batches.add(messages);
+			this.acknowledged.acquire(messages.size());
+		}
+
+		private Messages<?> receive() {
+			Messages<?> messages = null;
+			try {
+				messages = this.batches.poll(RECEIVE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return messages != null ? messages : newMessages(Collections.emptyList());
+		}
+
+		private static int count(Object acknowledged) {
+			if (acknowledged instanceof Messages<?> messages) {
+				return messages.size();
+			}
+			if (acknowledged instanceof List<?> messageIds) {
+				return messageIds.size();
+			}
+			return 1;
+		}
+	}
+}
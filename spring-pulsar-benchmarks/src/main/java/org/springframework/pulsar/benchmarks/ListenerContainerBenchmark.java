@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.pulsar.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.Messages;
+import org.apache.pulsar.client.api.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.pulsar.core.DefaultPulsarConsumerFactory;
+import org.springframework.pulsar.listener.DefaultPulsarMessageListenerContainer;
+import org.springframework.pulsar.listener.PulsarBatchMessageListener;
+import org.springframework.pulsar.listener.PulsarContainerProperties;
+import org.springframework.pulsar.listener.PulsarRecordMessageListener;
+
+/**
+ * Measures the receive, dispatch and acknowledge loop of
+ * {@link DefaultPulsarMessageListenerContainer}. Each invocation hands a batch to the
+ * consumer thread and waits until all its messages are acknowledged; the results are
+ * reported per message.
+ *
+ * @author agent (agent@local)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListenerContainerBenchmark {
+
+	private static final int BATCH_SIZE = 100;
+
+	@Param({ "record-batch-ack", "record-record-ack", "batch" })
+	String listenerMode;
+
+	private final LongAdder received = new LongAdder();
+
+	private InMemoryPulsar.BatchConsumer batchConsumer;
+
+	private DefaultPulsarMessageListenerContainer<String> container;
+
+	private Messages<String> messages;
+
+	@Setup
+	public void setup() {
+		List<Message<String>> batch = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			batch.add(InMemoryPulsar.newMessage("benchmark-topic", i, "hello-" + i));
+		}
+		this.messages = InMemoryPulsar.newMessages(batch);
+		this.batchConsumer = new InMemoryPulsar.BatchConsumer();
+
+		PulsarContainerProperties containerProperties = new PulsarContainerProperties("benchmark-topic");
+		containerProperties.setSubscriptionName("benchmark-subscription");
+		containerProperties.setSchema(Schema.STRING);
+		switch (this.listenerMode) {
+			case "batch" -> {
+				containerProperties.setBatchListener(true);
+				containerProperties.setMessageListener((PulsarBatchMessageListener<String>) (consumer, msgs) ->
+						this.received.add(msgs.size()));
+			}
+			case "record-record-ack" -> {
+				containerProperties.setAckMode(PulsarContainerProperties.AckMode.RECORD);
+				containerProperties.setMessageListener(recordListener());
+			}
+			default -> containerProperties.setMessageListener(recordListener());
+		}
+		this.container = new DefaultPulsarMessageListenerContainer<>(new DefaultPulsarConsumerFactory<>(
+				InMemoryPulsar.newClient(this.batchConsumer.getConsumer()), Collections.emptyMap()),
+				containerProperties);
+		this.container.start();
+	}
+
+	private PulsarRecordMessageListener<String> recordListener() {
+		return (consumer, msg) -> this.received.increment();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.container.stop();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void consumeAndAcknowledge() throws InterruptedException {
+		this.batchConsumer.deliverAndAwaitAcks(this.messages);
+	}
+}
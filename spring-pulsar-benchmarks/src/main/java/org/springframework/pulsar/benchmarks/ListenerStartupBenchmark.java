@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.pulsar.benchmarks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.pulsar.config.DefaultPulsarListenerContainerFactory;
+import org.springframework.pulsar.config.PulsarListenerEndpointAdapter;
+import org.springframework.pulsar.config.PulsarListenerEndpointRegistry;
+import org.springframework.pulsar.core.DefaultPulsarConsumerFactory;
+import org.springframework.pulsar.listener.AbstractPulsarMessageListenerContainer;
+import org.springframework.pulsar.listener.PulsarMessageListenerContainer;
+import org.springframework.pulsar.listener.PulsarRecordMessageListener;
+import org.springframework.pulsar.support.MessageConverter;
+
+/**
+ * Measures the time {@link PulsarListenerEndpointRegistry#start()} takes to start the
+ * containers of N listeners, sequentially or concurrently, when each subscription takes
+ * the given latency to be established.
+ *
+ * @author agent (agent@local)
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListenerStartupBenchmark {
+
+	@Param({ "10", "100" })
+	int listenerCount;
+
+	@Param({ "1", "16" })
+	int startupConcurrency;
+
+	@Param({ "0", "20" })
+	long subscribeLatencyMillis;
+
+	private PulsarListenerEndpointRegistry registry;
+
+	@Setup(Level.Invocation)
+	public void setup() {
+		InMemoryPulsar.BatchConsumer batchConsumer = new InMemoryPulsar.BatchConsumer();
+		DefaultPulsarListenerContainerFactory<?, String> containerFactory = new DefaultPulsarListenerContainerFactory<>();
+		containerFactory.setPulsarConsumerFactory(new DefaultPulsarConsumerFactory<>(InMemoryPulsar.newClient(
+				batchConsumer.getConsumer(), Duration.ofMillis(this.subscribeLatencyMillis)), null));
+		this.registry = new PulsarListenerEndpointRegistry();
+		this.registry.setStartupConcurrency(this.startupConcurrency);
+		for (int i = 0; i < this.listenerCount; i++) {
+			this.registry.registerListenerContainer(new BenchmarkEndpoint("listener-" + i), containerFactory);
+		}
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown() {
+		this.registry.stop();
+		this.registry.destroy();
+	}
+
+	@Benchmark
+	public void startListeners() {
+		this.registry.start();
+	}
+
+	private static final class BenchmarkEndpoint extends PulsarListenerEndpointAdapter {
+
+		private final String id;
+
+		BenchmarkEndpoint(String id) {
+			this.id = id;
+		}
+
+		@Override
+		public String getId() {
+			return this.id;
+		}
+
+		@Override
+		public String getSubscriptionName() {
+			return this.id;
+		}
+
+		@Override
+		public Collection<String> getTopics() {
+			return List.of("benchmark-topic");
+		}
+
+		@Override
+		public void setupListenerContainer(PulsarMessageListenerContainer listenerContainer,
+				MessageConverter messageConverter) {
+			((AbstractPulsarMessageListenerContainer<?>) listenerContainer).getPulsarContainerProperties()
+					.setMessageListener((PulsarRecordMessageListener<String>) (consumer, msg) -> {
+					});
+		}
+
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.pulsar.benchmarks;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.Messages;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.pulsar.support.converter.PulsarBatchMessagingMessageConverter;
+import org.springframework.pulsar.support.converter.PulsarMessagingMessageConverter;
+
+/**
+ * Measures the conversion of received Pulsar messages to Spring messages by
+ * {@link PulsarMessagingMessageConverter} for record listeners and
+ * {@link PulsarBatchMessagingMessageConverter} for batch listeners. The batch results
+ * are reported per message.
+ *
+ * @author agent (agent@local)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageConverterBenchmark {
+
+	private static final int BATCH_SIZE = 100;
+
+	private static final Type BATCH_TYPE = ResolvableType.forClassWithGenerics(List.class, String.class).getType();
+
+	private final PulsarMessagingMessageConverter<String> recordConverter = new PulsarMessagingMessageConverter<>();
+
+	private final PulsarBatchMessagingMessageConverter<String> batchConverter =
+			new PulsarBatchMessagingMessageConverter<>(this.recordConverter);
+
+	private Message<String> message;
+
+	private Messages<String> messages;
+
+	@Setup
+	public void setup() {
+		List<Message<String>> batch = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			batch.add(InMemoryPulsar.newMessage("benchmark-topic", i, "hello-" + i));
+		}
+		this.message = batch.get(0);
+		this.messages = InMemoryPulsar.newMessages(batch);
+	}
+
+	@Benchmark
+	public org.springframework.messaging.Message<?> recordToMessage() {
+		return this.recordConverter.toMessage(this.message, null, String.class);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public org.springframework.messaging.Message<?> batchToMessage() {
+		return this.batchConverter.toMessage(this.messages, null, BATCH_TYPE);
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.pulsar.benchmarks;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.pulsar.core.CachingPulsarProducerFactory;
+import org.springframework.pulsar.core.DefaultPulsarProducerFactory;
+import org.springframework.pulsar.core.PulsarTemplate;
+
+/**
+ * Measures {@link PulsarTemplate#sendAsync} with a caching and a non-caching producer
+ * factory. Sends complete immediately, so the numbers reflect the producer lookup,
+ * schema inference and message building done by the template.
+ *
+ * @author agent (agent@local)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PulsarTemplateBenchmark {
+
+	private static final String TOPIC = "benchmark-topic";
+
+	@Param({ "caching", "non-caching" })
+	String producerFactory;
+
+	private CachingPulsarProducerFactory<String> cachingProducerFactory;
+
+	private PulsarTemplate<String> template;
+
+	@Setup
+	public void setup() {
+		PulsarClient client = InMemoryPulsar.newClient(null);
+		if (this.producerFactory.equals("caching")) {
+			this.cachingProducerFactory = new CachingPulsarProducerFactory<>(client, Collections.emptyMap(),
+					Duration.ofMinutes(1), 1000L, 10);
+			this.template = new PulsarTemplate<>(this.cachingProducerFactory);
+		}
+		else {
+			this.template = new PulsarTemplate<>(new DefaultPulsarProducerFactory<>(client, Collections.emptyMap()));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (this.cachingProducerFactory != null) {
+			this.cachingProducerFactory.destroy();
+		}
+	}
+
+	@Benchmark
+	public CompletableFuture<MessageId> sendAsync() throws PulsarClientException {
+		return this.template.sendAsync(TOPIC, "hello");
+	}
+
+	@Benchmark
+	public CompletableFuture<MessageId> sendAsyncWithKey() throws PulsarClientException {
+		return this.template.newMessage("hello")
+				.withTopic(TOPIC)
+				.withKey("key")
+				.sendAsync();
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.pulsar.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pulsar.client.api.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.pulsar.core.SchemaUtils;
+
+/**
+ * Measures the schema inference done by {@link SchemaUtils#getSchema(Object)} on every
+ * send, for a primitive payload and for a payload that maps to a JSON schema.
+ *
+ * @author agent (agent@local)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaUtilsBenchmark {
+
+	private final String stringPayload = "hello";
+
+	private final Long longPayload = 42L;
+
+	private final Foo fooPayload = new Foo("foo", 42);
+
+	@Benchmark
+	public Schema<String> stringSchema() {
+		return SchemaUtils.getSchema(this.stringPayload);
+	}
+
+	@Benchmark
+	public Schema<Long> longSchema() {
+		return SchemaUtils.getSchema(this.longPayload);
+	}
+
+	@Benchmark
+	public Schema<Foo> jsonSchema() {
+		return SchemaUtils.getSchema(this.fooPayload);
+	}
+
+	public static class Foo {
+
+		private String name;
+
+		private int value;
+
+		public Foo() {
+
+		}
+
+		Foo(String name, int value) {
+			this.name = name;
+			this.value = value;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getValue() {
+			return this.value;
+		}
+
+		public void setValue(int value) {
+			this.value = value;
+		}
+	}
+}
@@ -25,6 +25,7 @@ import org.springframework.pulsar.annotation.EnablePulsar;
 import org.springframework.pulsar.config.DefaultPulsarListenerContainerFactory;
 import org.springframework.pulsar.config.PulsarListenerBeanNames;
 import org.springframework.pulsar.core.PulsarConsumerFactory;
+import org.springframework.pulsar.core.PulsarTemplate;
 import org.springframework.pulsar.listener.PulsarContainerProperties;
 
 /**
@@ -46,11 +47,13 @@ public class PulsarAnnotationDrivenConfiguration {
 	@Bean
 	@ConditionalOnMissingBean(name = "pulsarListenerContainerFactory")
 	DefaultPulsarListenerContainerFactory<?, ?> pulsarListenerContainerFactory(
-			ObjectProvider<PulsarConsumerFactory<Object>> pulsarConsumerFactory) {
+			ObjectProvider<PulsarConsumerFactory<Object>> pulsarConsumerFactory,
+			ObjectProvider<PulsarTemplate<?>> pulsarTemplate) {
 		DefaultPulsarListenerContainerFactory<Object, Object> factory = new DefaultPulsarListenerContainerFactory<>();
 
 		final PulsarConsumerFactory<Object> pulsarConsumerFactory1 = pulsarConsumerFactory.getIfAvailable();
 		factory.setPulsarConsumerFactory(pulsarConsumerFactory1);
+		pulsarTemplate.ifUnique(factory::setReplyTemplate);
 
 		final PulsarContainerProperties containerProperties = factory.getContainerProperties();
 
@@ -16,6 +16,7 @@
 
 package org.springframework.pulsar.autoconfigure;
 
+import org.apache.pulsar.client.api.BatcherBuilder;
 import org.apache.pulsar.client.api.PulsarClient;
 
 import org.springframework.boot.autoconfigure.AutoConfiguration;
@@ -31,8 +32,10 @@ import org.springframework.pulsar.config.PulsarClientFactoryBean;
 import org.springframework.pulsar.core.CachingPulsarProducerFactory;
 import org.springframework.pulsar.core.DefaultPulsarConsumerFactory;
 import org.springframework.pulsar.core.DefaultPulsarProducerFactory;
+import org.springframework.pulsar.core.DefaultPulsarReaderFactory;
 import org.springframework.pulsar.core.PulsarConsumerFactory;
 import org.springframework.pulsar.core.PulsarProducerFactory;
+import org.springframework.pulsar.core.PulsarReaderFactory;
 import org.springframework.pulsar.core.PulsarTemplate;
 
 /**
@@ -69,17 +72,23 @@ public class PulsarAutoConfiguration {
 	@ConditionalOnMissingBean(PulsarProducerFactory.class)
 	@ConditionalOnProperty(name = "spring.pulsar.producer.cache.enabled", havingValue = "false")
 	public PulsarProducerFactory<?> pulsarProducerFactory(PulsarClient pulsarClient) {
-		return new DefaultPulsarProducerFactory<>(pulsarClient, this.properties.buildProducerProperties());
+		DefaultPulsarProducerFactory<?> producerFactory = new DefaultPulsarProducerFactory<>(pulsarClient,
+				this.properties.buildProducerProperties());
+		configureBatcher(producerFactory);
+		return producerFactory;
 	}
 
 	@Bean
 	@ConditionalOnMissingBean(PulsarProducerFactory.class)
 	@ConditionalOnProperty(name = "spring.pulsar.producer.cache.enabled", havingValue = "true", matchIfMissing = true)
 	public PulsarProducerFactory<?> cachingPulsarProducerFactory(PulsarClient pulsarClient) {
-		return new CachingPulsarProducerFactory<>(pulsarClient, this.properties.buildProducerProperties(),
+		CachingPulsarProducerFactory<?> producerFactory = new CachingPulsarProducerFactory<>(pulsarClient,
+				this.properties.buildProducerProperties(),
 				this.properties.getProducer().getCache().getExpireAfterAccess(),
 				this.properties.getProducer().getCache().getMaximumSize(),
 				this.properties.getProducer().getCache().getInitialCapacity());
+		configureBatcher(producerFactory);
+		return producerFactory;
 	}
 
 	@Bean
@@ -93,4 +102,16 @@ public class PulsarAutoConfiguration {
 	public PulsarConsumerFactory<?> pulsarConsumerFactory(PulsarClient pulsarClient) {
 		return new DefaultPulsarConsumerFactory<>(pulsarClient, this.properties.buildConsumerProperties());
 	}
+
+	@Bean
+	@ConditionalOnMissingBean(PulsarReaderFactory.class)
+	public PulsarReaderFactory<?> pulsarReaderFactory(PulsarClient pulsarClient) {
+		return new DefaultPulsarReaderFactory<>(pulsarClient, this.properties.buildReaderProperties());
+	}
+
+	private void configureBatcher(DefaultPulsarProducerFactory<?> producerFactory) {
+		if (this.properties.getProducer().isKeyBasedBatching()) {
+			producerFactory.setBatcherBuilder(BatcherBuilder.KEY_BASED);
+		}
+	}
 }
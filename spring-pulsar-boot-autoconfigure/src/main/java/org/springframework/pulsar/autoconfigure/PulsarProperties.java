@@ -56,6 +56,8 @@ public class PulsarProperties {
 
 	private final Producer producer = new Producer();
 
+	private final Reader reader = new Reader();
+
 	public Map<String, Object> buildConsumerProperties() {
 		return new HashMap<>(this.consumer.buildProperties());
 	}
@@ -64,6 +66,10 @@ public class PulsarProperties {
 		return new HashMap<>(this.producer.buildProperties());
 	}
 
+	public Map<String, Object> buildReaderProperties() {
+		return new HashMap<>(this.reader.buildProperties());
+	}
+
 	public Consumer getConsumer() {
 		return this.consumer;
 	}
@@ -80,6 +86,10 @@ public class PulsarProperties {
 		return this.producer;
 	}
 
+	public Reader getReader() {
+		return this.reader;
+	}
+
 	public Map<String, Object> buildClientProperties() {
 		return new HashMap<>(this.client.buildProperties());
 	}
@@ -132,6 +142,8 @@ public class PulsarProperties {
 
 		private long expireTimeOfIncompleteChunkedMessageMillis = 60000;
 
+		private boolean batchIndexAckEnabled = false;
+
 		public String[] getTopics() {
 			return this.topics;
 		}
@@ -316,6 +328,14 @@ public class PulsarProperties {
 			this.expireTimeOfIncompleteChunkedMessageMillis = expireTimeOfIncompleteChunkedMessageMillis;
 		}
 
+		public boolean isBatchIndexAckEnabled() {
+			return this.batchIndexAckEnabled;
+		}
+
+		public void setBatchIndexAckEnabled(boolean batchIndexAckEnabled) {
+			this.batchIndexAckEnabled = batchIndexAckEnabled;
+		}
+
 		public Map<String, Object> buildProperties() {
 			PulsarProperties.Properties properties = new Properties();
 
@@ -345,6 +365,7 @@ public class PulsarProperties {
 			map.from(this::isAutoAckOldestChunkedMessageOnQueueFull).to(properties.in("autoAckOldestChunkedMessageOnQueueFull"));
 			map.from(this::getMaxPendingChunkedMessage).to(properties.in("maxPendingChunkedMessage"));
 			map.from(this::getExpireTimeOfIncompleteChunkedMessageMillis).to(properties.in("expireTimeOfIncompleteChunkedMessageMillis"));
+			map.from(this::isBatchIndexAckEnabled).to(properties.in("batchIndexAckEnabled"));
 			return properties;
 		}
 
@@ -378,6 +399,8 @@ public class PulsarProperties {
 
 		private boolean chunkingEnabled = false;
 
+		private boolean keyBasedBatching = false;
+
 		private CompressionType compressionType;
 
 		private String initialSubscriptionName;
@@ -490,6 +513,19 @@ public class PulsarProperties {
 			this.chunkingEnabled = chunkingEnabled;
 		}
 
+		/**
+		 * Whether batches should only group messages with the same key, which is needed
+		 * to batch messages consumed with a Key_Shared subscription.
+		 * @return whether key based batching is used
+		 */
+		public boolean isKeyBasedBatching() {
+			return this.keyBasedBatching;
+		}
+
+		public void setKeyBasedBatching(boolean keyBasedBatching) {
+			this.keyBasedBatching = keyBasedBatching;
+		}
+
 		public CompressionType getCompressionType() {
 			return this.compressionType;
 		}
@@ -802,6 +838,50 @@ public class PulsarProperties {
 		}
 	}
 
+	public static class Reader {
+
+		private String readerName;
+
+		private int receiverQueueSize = 1000;
+
+		private boolean readCompacted = false;
+
+		public String getReaderName() {
+			return this.readerName;
+		}
+
+		public void setReaderName(String readerName) {
+			this.readerName = readerName;
+		}
+
+		public int getReceiverQueueSize() {
+			return this.receiverQueueSize;
+		}
+
+		public void setReceiverQueueSize(int receiverQueueSize) {
+			this.receiverQueueSize = receiverQueueSize;
+		}
+
+		public boolean isReadCompacted() {
+			return this.readCompacted;
+		}
+
+		public void setReadCompacted(boolean readCompacted) {
+			this.readCompacted = readCompacted;
+		}
+
+		public Map<String, Object> buildProperties() {
+			PulsarProperties.Properties properties = new Properties();
+
+			PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+
+			map.from(this::getReaderName).to(properties.in("readerName"));
+			map.from(this::getReceiverQueueSize).to(properties.in("receiverQueueSize"));
+			map.from(this::isReadCompacted).to(properties.in("readCompacted"));
+			return properties;
+		}
+	}
+
 	public static class Listener {
 
 
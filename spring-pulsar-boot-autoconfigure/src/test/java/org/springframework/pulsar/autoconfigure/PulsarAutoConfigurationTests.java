@@ -21,6 +21,7 @@ import static org.mockito.Mockito.mock;
 
 import java.util.concurrent.TimeUnit;
 
+import org.apache.pulsar.client.api.BatcherBuilder;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -40,6 +41,7 @@ import org.springframework.pulsar.core.CachingPulsarProducerFactory;
 import org.springframework.pulsar.core.DefaultPulsarProducerFactory;
 import org.springframework.pulsar.core.PulsarConsumerFactory;
 import org.springframework.pulsar.core.PulsarProducerFactory;
+import org.springframework.pulsar.core.PulsarReaderFactory;
 import org.springframework.pulsar.core.PulsarTemplate;
 import org.springframework.pulsar.listener.DefaultPulsarMessageListenerContainer;
 
@@ -85,6 +87,7 @@ class PulsarAutoConfigurationTests {
 				.hasSingleBean(PulsarProducerFactory.class)
 				.hasSingleBean(PulsarTemplate.class)
 				.hasSingleBean(PulsarConsumerFactory.class)
+				.hasSingleBean(PulsarReaderFactory.class)
 				.hasSingleBean(DefaultPulsarListenerContainerFactory.class)
 				.hasSingleBean(PulsarListenerAnnotationBeanPostProcessor.class)
 				.hasSingleBean(PulsarListenerEndpointRegistry.class));
@@ -137,6 +140,23 @@ class PulsarAutoConfigurationTests {
 						.getBean(PulsarConsumerFactory.class).isSameAs(consumerFactory));
 	}
 
+	@Test
+	void customPulsarReaderFactoryIsRespected() {
+		PulsarReaderFactory<String> readerFactory = mock(PulsarReaderFactory.class);
+		this.contextRunner
+				.withBean("customPulsarReaderFactory", PulsarReaderFactory.class, () -> readerFactory)
+				.run((context) -> assertThat(context).hasNotFailed()
+						.getBean(PulsarReaderFactory.class).isSameAs(readerFactory));
+	}
+
+	@Test
+	void pulsarTemplateIsUsedForListenerReplies() {
+		this.contextRunner.run((context) -> assertThat(context).hasNotFailed()
+				.getBean(DefaultPulsarListenerContainerFactory.class)
+				.extracting("replyTemplate")
+				.isSameAs(context.getBean(PulsarTemplate.class)));
+	}
+
 	@Test
 	void customPulsarListenerContainerFactoryIsRespected() {
 		PulsarListenerContainerFactory<DefaultPulsarMessageListenerContainer<String>> listenerContainerFactory = mock(PulsarListenerContainerFactory.class);
@@ -191,6 +211,16 @@ class PulsarAutoConfigurationTests {
 							.hasFieldOrPropertyWithValue("expiresAfterAccessNanos", TimeUnit.SECONDS.toNanos(100))));
 		}
 
+		@Test
+		void keyBasedBatchingCanBeEnabled() {
+			contextRunner.withPropertyValues("spring.pulsar.producer.key-based-batching=true")
+					.run((context -> assertThat(context)
+							.hasNotFailed()
+							.getBean(PulsarProducerFactory.class)
+							.extracting("batcherBuilder")
+							.isSameAs(BatcherBuilder.KEY_BASED)));
+		}
+
 		private void assertHasProducerFactoryOfType(Class<?> producerFactoryType, AssertableApplicationContext context) {
 			assertThat(context).hasNotFailed()
 					.hasSingleBean(PulsarProducerFactory.class).getBean(PulsarProducerFactory.class)
@@ -26,7 +26,8 @@ import org.springframework.pulsar.config.PulsarListenerEndpointRegistry;
 /**
  * An {@link ImportBeanDefinitionRegistrar} class that registers a {@link PulsarListenerAnnotationBeanPostProcessor}
  * bean capable of processing Spring's @{@link PulsarListener} annotation. Also register
- * a default {@link PulsarListenerEndpointRegistry}.
+ * a default {@link PulsarListenerEndpointRegistry} and a {@link PulsarReaderAnnotationBeanPostProcessor}
+ * for @{@link PulsarReader} methods.
  *
  * <p>This configuration class is automatically imported when using the @{@link EnablePulsar}
  * annotation.
@@ -51,6 +52,11 @@ public class PulsarBootstrapConfiguration implements ImportBeanDefinitionRegistr
 			registry.registerBeanDefinition(PulsarListenerBeanNames.PULSAR_LISTENER_ENDPOINT_REGISTRY_BEAN_NAME,
 					new RootBeanDefinition(PulsarListenerEndpointRegistry.class));
 		}
+
+		if (!registry.containsBeanDefinition(PulsarListenerBeanNames.PULSAR_READER_ANNOTATION_PROCESSOR_BEAN_NAME)) {
+			registry.registerBeanDefinition(PulsarListenerBeanNames.PULSAR_READER_ANNOTATION_PROCESSOR_BEAN_NAME,
+					new RootBeanDefinition(PulsarReaderAnnotationBeanPostProcessor.class));
+		}
 	}
 
 }
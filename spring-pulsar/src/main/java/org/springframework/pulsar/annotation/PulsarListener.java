@@ -24,7 +24,9 @@ import java.lang.annotation.Target;
 
 import org.apache.pulsar.common.schema.SchemaType;
 
+import org.springframework.aot.hint.annotation.Reflective;
 import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.pulsar.aot.PulsarListenerReflectiveProcessor;
 import org.springframework.pulsar.config.PulsarListenerContainerFactory;
 import org.springframework.pulsar.config.PulsarListenerEndpointRegistry;
 
@@ -50,6 +52,7 @@ import org.springframework.pulsar.config.PulsarListenerEndpointRegistry;
 @Target({ ElementType.TYPE, ElementType.METHOD, ElementType.ANNOTATION_TYPE })
 @Retention(RetentionPolicy.RUNTIME)
 @MessageMapping
+@Reflective(PulsarListenerReflectiveProcessor.class)
 @Documented
 public @interface PulsarListener {
 
@@ -95,9 +98,13 @@ public @interface PulsarListener {
 	String[] topics() default {};
 
 	/**
-	 * Topic patten to listen to.
+	 * Topic patten to listen to, used when no {@link #topics()} are specified. Topics
+	 * matching the pattern are discovered periodically, so a single listener covers a
+	 * changing set of topics.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
 	 *
 	 * @return topic pattern to listen to.
+	 * @see org.springframework.pulsar.listener.PulsarContainerProperties#setPatternAutoDiscoveryPeriod(java.time.Duration)
 	 */
 	String topicPattern() default "";
 
@@ -149,4 +156,71 @@ public @interface PulsarListener {
 	 * @return the properties.
 	 */
 	String[] properties() default {};
+
+	/**
+	 * The bean name or instance of the {@link org.springframework.pulsar.listener.PulsarConsumerErrorHandler}
+	 * to use when the listener throws an exception.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return the bean name of the error handler or an expression evaluating to one.
+	 */
+	String pulsarConsumerErrorHandler() default "";
+
+	/**
+	 * The bean name or instance of the {@link org.apache.pulsar.client.api.DeadLetterPolicy}
+	 * to use for the consumer, letting the broker route messages that exceed the maximum
+	 * redelivery count to a dead letter topic.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return the bean name of the dead letter policy or an expression evaluating to one.
+	 */
+	String deadLetterPolicy() default "";
+
+	/**
+	 * The bean name or instance of the {@link org.apache.pulsar.client.api.RedeliveryBackoff}
+	 * to use when redelivering negatively acknowledged messages.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return the bean name of the redelivery backoff or an expression evaluating to one.
+	 */
+	String negativeAckRedeliveryBackoff() default "";
+
+	/**
+	 * The bean name or instance of the {@link org.apache.pulsar.client.api.RedeliveryBackoff}
+	 * to use when redelivering messages after the acknowledgement timeout.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return the bean name of the redelivery backoff or an expression evaluating to one.
+	 */
+	String ackTimeoutRedeliveryBackoff() default "";
+
+	/**
+	 * The maximum number of messages per second the listener receives, enforced by
+	 * holding back further receives so that the broker stops dispatching.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return the maximum message rate or an expression evaluating to one.
+	 * @see org.springframework.pulsar.listener.PulsarContainerProperties#setMaxMessagesPerSecond(double)
+	 */
+	String maxMessagesPerSecond() default "";
+
+	/**
+	 * The maximum number of payload bytes per second the listener receives.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return the maximum byte rate or an expression evaluating to one.
+	 * @see org.springframework.pulsar.listener.PulsarContainerProperties#setMaxBytesPerSecond(long)
+	 */
+	String maxBytesPerSecond() default "";
+
+	/**
+	 * The bean name or instance of the {@link org.springframework.pulsar.listener.RecordFilterStrategy}
+	 * used to discard messages before they are deserialized and passed to the listener.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return the bean name of the filter strategy or an expression evaluating to one.
+	 */
+	String filter() default "";
+
+	/**
+	 * The bean name or instance of the {@link org.springframework.pulsar.listener.MessageDeduplicator}
+	 * used to acknowledge messages that have already been processed without passing them
+	 * to the listener.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return the bean name of the deduplicator or an expression evaluating to one.
+	 */
+	String deduplicator() default "";
 }
@@ -39,6 +39,8 @@ import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 import org.apache.commons.logging.LogFactory;
+import org.apache.pulsar.client.api.DeadLetterPolicy;
+import org.apache.pulsar.client.api.RedeliveryBackoff;
 import org.apache.pulsar.client.api.SubscriptionType;
 
 import org.springframework.aop.framework.Advised;
@@ -73,6 +75,7 @@ import org.springframework.format.FormatterRegistry;
 import org.springframework.format.support.DefaultFormattingConversionService;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.converter.GenericMessageConverter;
+import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
 import org.springframework.messaging.handler.annotation.support.MessageHandlerMethodFactory;
 import org.springframework.messaging.handler.invocation.HandlerMethodArgumentResolver;
@@ -83,6 +86,10 @@ import org.springframework.pulsar.config.PulsarListenerContainerFactory;
 import org.springframework.pulsar.config.PulsarListenerEndpoint;
 import org.springframework.pulsar.config.PulsarListenerEndpointRegistrar;
 import org.springframework.pulsar.config.PulsarListenerEndpointRegistry;
+import org.springframework.pulsar.listener.MessageDeduplicator;
+import org.springframework.pulsar.listener.PulsarConsumerErrorHandler;
+import org.springframework.pulsar.listener.RecordFilterStrategy;
+import org.springframework.pulsar.support.JavaUtils;
 import org.springframework.util.Assert;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
@@ -346,6 +353,10 @@ public class PulsarListenerAnnotationBeanPostProcessor<K, V> implements BeanPost
 		endpoint.setSubscriptionName(getEndpointSubscriptionName(pulsarListener));
 		endpoint.setId(getEndpointId(pulsarListener));
 		endpoint.setTopics(topics);
+		String topicPattern = pulsarListener.topicPattern();
+		if (StringUtils.hasText(topicPattern)) {
+			endpoint.setTopicPattern(resolveExpressionAsString(topicPattern, "topicPattern"));
+		}
 		endpoint.setSubscriptionType(getEndpointSubscriptionType(pulsarListener));
 		endpoint.setSchemaType(pulsarListener.schemaType());
 
@@ -356,6 +367,54 @@ public class PulsarListenerAnnotationBeanPostProcessor<K, V> implements BeanPost
 		resolvePulsarProperties(endpoint, pulsarListener.properties());
 		endpoint.setBatchListener(pulsarListener.batch());
 		endpoint.setBeanFactory(this.beanFactory);
+		JavaUtils.INSTANCE.acceptIfNotNull(resolveBean(pulsarListener.pulsarConsumerErrorHandler(),
+				"pulsarConsumerErrorHandler", PulsarConsumerErrorHandler.class), endpoint::setPulsarConsumerErrorHandler);
+		JavaUtils.INSTANCE
+				.acceptIfNotNull(resolveBean(pulsarListener.deadLetterPolicy(), "deadLetterPolicy",
+						DeadLetterPolicy.class), endpoint::setDeadLetterPolicy)
+				.acceptIfNotNull(resolveBean(pulsarListener.negativeAckRedeliveryBackoff(),
+						"negativeAckRedeliveryBackoff", RedeliveryBackoff.class),
+						endpoint::setNegativeAckRedeliveryBackoff)
+				.acceptIfNotNull(resolveBean(pulsarListener.ackTimeoutRedeliveryBackoff(),
+						"ackTimeoutRedeliveryBackoff", RedeliveryBackoff.class),
+						endpoint::setAckTimeoutRedeliveryBackoff)
+				.acceptIfNotNull(resolveBean(pulsarListener.filter(), "filter", RecordFilterStrategy.class),
+						endpoint::setRecordFilterStrategy)
+				.acceptIfNotNull(resolveBean(pulsarListener.deduplicator(), "deduplicator",
+						MessageDeduplicator.class), endpoint::setMessageDeduplicator);
+		String maxMessagesPerSecond = pulsarListener.maxMessagesPerSecond();
+		if (StringUtils.hasText(maxMessagesPerSecond)) {
+			endpoint.setMaxMessagesPerSecond(
+					resolveExpressionAsNumber(maxMessagesPerSecond, "maxMessagesPerSecond").doubleValue());
+		}
+		String maxBytesPerSecond = pulsarListener.maxBytesPerSecond();
+		if (StringUtils.hasText(maxBytesPerSecond)) {
+			endpoint.setMaxBytesPerSecond(resolveExpressionAsNumber(maxBytesPerSecond, "maxBytesPerSecond").longValue());
+		}
+		SendTo sendTo = AnnotatedElementUtils.findMergedAnnotation(endpoint.getMethod(), SendTo.class);
+		if (sendTo != null) {
+			String[] destinations = sendTo.value();
+			Assert.state(destinations.length <= 1, "Only one @SendTo topic is supported");
+			String replyTopic = destinations.length == 1 ? resolveExpressionAsString(destinations[0], "@SendTo") : null;
+			endpoint.setReplyTopic(replyTopic != null ? replyTopic : "");
+		}
+	}
+
+	@Nullable
+	private <T> T resolveBean(String value, String attribute, Class<T> type) {
+		if (!StringUtils.hasText(value)) {
+			return null;
+		}
+		Object resolved = resolveExpression(value);
+		if (type.isInstance(resolved)) {
+			return type.cast(resolved);
+		}
+		String beanName = resolveExpressionAsString(value, attribute);
+		if (!StringUtils.hasText(beanName)) {
+			return null;
+		}
+		assertBeanFactory();
+		return this.beanFactory.getBean(beanName, type);
 	}
 
 	private Boolean resolveExpressionAsBoolean(String value, String attribute) {
@@ -375,6 +434,19 @@ public class PulsarListenerAnnotationBeanPostProcessor<K, V> implements BeanPost
 		return result;
 	}
 
+	private Number resolveExpressionAsNumber(String value, String attribute) {
+		Object resolved = resolveExpression(value);
+		if (resolved instanceof Number) {
+			return (Number) resolved;
+		}
+		if (resolved instanceof String) {
+			return Double.valueOf((String) resolved);
+		}
+		throw new IllegalStateException(THE_LEFT + attribute + "] must resolve to a Number or a String that can be "
+				+ "parsed as a Number. " + RESOLVED_TO_LEFT + (resolved != null ? resolved.getClass() : null)
+				+ RIGHT_FOR_LEFT + value + "]");
+	}
+
 	@SuppressWarnings("unchecked")
 	private void resolvePulsarProperties(MethodPulsarListenerEndpoint<?> endpoint, String[] propertyStrings) {
 		if (propertyStrings.length > 0) {
@@ -775,5 +847,4 @@ public class PulsarListenerAnnotationBeanPostProcessor<K, V> implements BeanPost
 
 	}
 
-
 }
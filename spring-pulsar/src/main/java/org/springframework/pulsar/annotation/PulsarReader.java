@@ -0,0 +1,91 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.aot.hint.annotation.Reflective;
+import org.springframework.pulsar.aot.PulsarListenerReflectiveProcessor;
+
+/**
+ * Annotation that marks a method to be invoked with every message read from the
+ * specified topics by a {@link org.apache.pulsar.client.api.Reader}, starting from a
+ * given position. Unlike {@link PulsarListener}, no subscription is created and messages
+ * are not acknowledged, which makes it suited to replaying or scanning topics.
+ * <p>
+ * The method takes a single parameter: either the message payload, whose type
+ * determines the schema, or a {@link org.apache.pulsar.client.api.Message}.
+ * <p>
+ * Processing of {@code @PulsarReader} annotations is performed by registering a
+ * {@link PulsarReaderAnnotationBeanPostProcessor}, which {@link EnablePulsar} does.
+ *
+ * @author agent (agent@local)
+ */
+@Target({ ElementType.METHOD, ElementType.ANNOTATION_TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Reflective(PulsarListenerReflectiveProcessor.class)
+@Documented
+public @interface PulsarReader {
+
+	/**
+	 * The bean name of the container for this reader.
+	 * <p>If none is specified an auto-generated name is used.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return the bean name of the container.
+	 */
+	String id() default "";
+
+	/**
+	 * Topics to read.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return the topics to read.
+	 */
+	String[] topics() default {};
+
+	/**
+	 * The position to start reading from, either {@code earliest} or {@code latest}.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return the start position.
+	 */
+	String startMessageId() default "earliest";
+
+	/**
+	 * A publish time, in milliseconds since the epoch, to start reading from. Takes
+	 * precedence over {@link #startMessageId()} when set.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return the publish time to start from.
+	 */
+	String startMessageTimestamp() default "";
+
+	/**
+	 * The bean name of the {@link org.springframework.pulsar.core.PulsarReaderFactory}
+	 * to use. When not set, the single reader factory in the application context is used.
+	 * @return the bean name of the reader factory.
+	 */
+	String readerFactory() default "";
+
+	/**
+	 * Set to true or false, to override the default setting in the container.
+	 * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+	 * @return true to auto start, false to not auto start.
+	 */
+	String autoStartup() default "";
+}
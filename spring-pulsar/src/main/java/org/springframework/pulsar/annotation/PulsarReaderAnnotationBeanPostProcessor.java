@@ -0,0 +1,220 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.annotation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.LogFactory;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanExpressionContext;
+import org.springframework.beans.factory.config.BeanExpressionResolver;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.pulsar.PulsarException;
+import org.springframework.pulsar.core.PulsarReaderFactory;
+import org.springframework.pulsar.core.SchemaUtils;
+import org.springframework.pulsar.reader.DefaultPulsarMessageReaderContainer;
+import org.springframework.pulsar.reader.PulsarReaderContainerProperties;
+import org.springframework.pulsar.reader.PulsarReaderMessageListener;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Bean post-processor that registers methods annotated with {@link PulsarReader} to be
+ * invoked by a {@link DefaultPulsarMessageReaderContainer}.
+ * <p>
+ * The containers are registered as singletons once all singletons are instantiated, so
+ * that they take part in the application context lifecycle.
+ * <p>
+ * This post-processor is automatically registered by the {@link EnablePulsar}
+ * annotation.
+ *
+ * @author agent (agent@local)
+ * @see PulsarReader
+ */
+public class PulsarReaderAnnotationBeanPostProcessor
+		implements BeanPostProcessor, BeanFactoryAware, SmartInitializingSingleton, DisposableBean {
+
+	private static final String GENERATED_ID_PREFIX = "org.springframework.pulsar.reader.PulsarReaderContainer#";
+
+	private final LogAccessor logger = new LogAccessor(LogFactory.getLog(getClass()));
+
+	private final Set<Class<?>> nonAnnotatedClasses = Collections.newSetFromMap(new ConcurrentHashMap<>(64));
+
+	private final List<ReaderMethod> readerMethods = new ArrayList<>();
+
+	private final List<DefaultPulsarMessageReaderContainer<?>> containers = new ArrayList<>();
+
+	private final AtomicInteger counter = new AtomicInteger();
+
+	private ConfigurableListableBeanFactory beanFactory;
+
+	private BeanExpressionResolver resolver;
+
+	private BeanExpressionContext expressionContext;
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		Assert.isInstanceOf(ConfigurableListableBeanFactory.class, beanFactory,
+				"A ConfigurableListableBeanFactory is required");
+		this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+		this.resolver = this.beanFactory.getBeanExpressionResolver();
+		this.expressionContext = new BeanExpressionContext(this.beanFactory, null);
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		if (this.nonAnnotatedClasses.contains(bean.getClass())) {
+			return bean;
+		}
+		Class<?> targetClass = AopUtils.getTargetClass(bean);
+		Map<Method, PulsarReader> annotatedMethods = MethodIntrospector.selectMethods(targetClass,
+				(MethodIntrospector.MetadataLookup<PulsarReader>) method -> AnnotatedElementUtils
+						.findMergedAnnotation(method, PulsarReader.class));
+		if (annotatedMethods.isEmpty()) {
+			this.nonAnnotatedClasses.add(bean.getClass());
+			return bean;
+		}
+		annotatedMethods.forEach((method, pulsarReader) -> this.readerMethods
+				.add(new ReaderMethod(bean, AopUtils.selectInvocableMethod(method, bean.getClass()), pulsarReader)));
+		this.logger.debug(() -> annotatedMethods.size() + " @PulsarReader methods processed on bean '" + beanName
+				+ "': " + annotatedMethods);
+		return bean;
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		for (ReaderMethod readerMethod : this.readerMethods) {
+			String id = resolveAsString(readerMethod.annotation().id());
+			String containerName = StringUtils.hasText(id) ? id : GENERATED_ID_PREFIX + this.counter.getAndIncrement();
+			DefaultPulsarMessageReaderContainer<?> container = createContainer(readerMethod);
+			container.setBeanName(containerName);
+			this.beanFactory.registerSingleton(containerName, container);
+			this.containers.add(container);
+		}
+		this.readerMethods.clear();
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private DefaultPulsarMessageReaderContainer<?> createContainer(ReaderMethod readerMethod) {
+		PulsarReader annotation = readerMethod.annotation();
+		Method method = readerMethod.method();
+		Assert.state(method.getParameterCount() == 1,
+				() -> "@PulsarReader method " + method + " must have a single parameter");
+		MethodParameter parameter = new MethodParameter(method, 0);
+		boolean messageParameter = Message.class.isAssignableFrom(parameter.getParameterType());
+		Class<?> payloadType = messageParameter
+				? ResolvableType.forMethodParameter(parameter).getGeneric(0).resolve(byte[].class)
+				: parameter.getParameterType();
+
+		List<String> topics = new ArrayList<>();
+		for (String topic : annotation.topics()) {
+			topics.add(resolveAsString(topic));
+		}
+		PulsarReaderContainerProperties containerProperties = new PulsarReaderContainerProperties();
+		containerProperties.setTopics(topics);
+		containerProperties.setSchema(SchemaUtils.getSchema(payloadType));
+		containerProperties.setStartMessageId(resolveStartMessageId(resolveAsString(annotation.startMessageId())));
+		String startMessageTimestamp = resolveAsString(annotation.startMessageTimestamp());
+		if (StringUtils.hasText(startMessageTimestamp)) {
+			containerProperties.setStartMessageTimestamp(Long.parseLong(startMessageTimestamp));
+		}
+		ReflectionUtils.makeAccessible(method);
+		Object bean = readerMethod.bean();
+		containerProperties.setReaderListener((PulsarReaderMessageListener<Object>) (reader, message) -> invoke(
+				bean, method, messageParameter ? message : message.getValue()));
+
+		String readerFactoryName = annotation.readerFactory();
+		PulsarReaderFactory<?> readerFactory = StringUtils.hasText(readerFactoryName)
+				? this.beanFactory.getBean(readerFactoryName, PulsarReaderFactory.class)
+				: this.beanFactory.getBean(PulsarReaderFactory.class);
+		DefaultPulsarMessageReaderContainer<?> container = new DefaultPulsarMessageReaderContainer(readerFactory,
+				containerProperties);
+		String autoStartup = resolveAsString(annotation.autoStartup());
+		if (StringUtils.hasText(autoStartup)) {
+			container.setAutoStartup(Boolean.parseBoolean(autoStartup));
+		}
+		return container;
+	}
+
+	private MessageId resolveStartMessageId(String startMessageId) {
+		if ("earliest".equalsIgnoreCase(startMessageId)) {
+			return MessageId.earliest;
+		}
+		if ("latest".equalsIgnoreCase(startMessageId)) {
+			return MessageId.latest;
+		}
+		throw new IllegalStateException(
+				"@PulsarReader startMessageId must be 'earliest' or 'latest', not '" + startMessageId + "'");
+	}
+
+	private void invoke(Object bean, Method method, Object argument) {
+		try {
+			method.invoke(bean, argument);
+		}
+		catch (InvocationTargetException ex) {
+			Throwable cause = ex.getTargetException();
+			if (cause instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new PulsarException("@PulsarReader method " + method + " failed", cause);
+		}
+		catch (IllegalAccessException ex) {
+			throw new PulsarException("Could not invoke @PulsarReader method " + method, ex);
+		}
+	}
+
+	private String resolveAsString(String value) {
+		if (!StringUtils.hasText(value)) {
+			return value;
+		}
+		String resolvedValue = this.beanFactory.resolveEmbeddedValue(value);
+		Object evaluated = this.resolver != null ? this.resolver.evaluate(resolvedValue, this.expressionContext)
+				: resolvedValue;
+		return evaluated != null ? evaluated.toString() : null;
+	}
+
+	@Override
+	public void destroy() {
+		this.containers.forEach(DefaultPulsarMessageReaderContainer::destroy);
+	}
+
+	private record ReaderMethod(Object bean, Method method, PulsarReader annotation) {
+	}
+}
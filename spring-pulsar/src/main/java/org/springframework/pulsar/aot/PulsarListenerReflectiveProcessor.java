@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.aot;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.Messages;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.ReflectionHints;
+import org.springframework.aot.hint.annotation.SimpleReflectiveProcessor;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+
+/**
+ * {@link org.springframework.aot.hint.annotation.ReflectiveProcessor} for the methods
+ * annotated with {@link org.springframework.pulsar.annotation.PulsarListener} or
+ * {@link org.springframework.pulsar.annotation.PulsarReader}.
+ * <p>
+ * Besides the invocation of the method, registers its payload types, unwrapped from
+ * messages, collections and futures, so that JSON and Avro schemas can introspect them.
+ *
+ * @author agent (agent@local)
+ */
+public class PulsarListenerReflectiveProcessor extends SimpleReflectiveProcessor {
+
+	private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+	@Override
+	protected void registerMethodHint(ReflectionHints hints, Method method) {
+		super.registerMethodHint(hints, method);
+		for (int i = 0; i < method.getParameterCount(); i++) {
+			registerPayloadType(hints, ResolvableType.forMethodParameter(new MethodParameter(method, i)));
+		}
+		registerPayloadType(hints, ResolvableType.forMethodReturnType(method));
+	}
+
+	private void registerPayloadType(ReflectionHints hints, ResolvableType type) {
+		ResolvableType payloadType = unwrap(type);
+		Class<?> payloadClass = payloadType.resolve();
+		if (payloadClass == null || payloadClass.isPrimitive() || payloadClass.isArray()
+				|| payloadClass.getName().startsWith("java.")
+				|| payloadClass.getName().startsWith("org.apache.pulsar.")
+				|| payloadClass.getName().startsWith("org.springframework.")) {
+			return;
+		}
+		this.bindingRegistrar.registerReflectionHints(hints, payloadType.getType());
+		// Avro reflects on the fields to derive the schema of the payload.
+		hints.registerType(payloadClass, MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+	}
+
+	private ResolvableType unwrap(ResolvableType type) {
+		Class<?> rawClass = type.toClass();
+		if (Message.class.isAssignableFrom(rawClass) || Messages.class.isAssignableFrom(rawClass)
+				|| org.springframework.messaging.Message.class.isAssignableFrom(rawClass)
+				|| Collection.class.isAssignableFrom(rawClass) || CompletionStage.class.isAssignableFrom(rawClass)) {
+			return unwrap(type.getGeneric(0));
+		}
+		return type;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.aot;
+
+import java.util.stream.Stream;
+
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.PulsarClient;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.ReflectionHints;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link RuntimeHintsRegistrar} for Spring for Apache Pulsar.
+ * <p>
+ * Registers the Pulsar client classes that are bound to configuration maps or loaded by
+ * name, as well as the proxies of the client exposed by
+ * {@link org.springframework.pulsar.config.PulsarClientFactoryBean} and of the producers
+ * cached by {@link org.springframework.pulsar.core.CachingPulsarProducerFactory}. The payload
+ * types of the listener methods are registered by
+ * {@link PulsarListenerReflectiveProcessor}.
+ *
+ * @author agent (agent@local)
+ */
+public class PulsarRuntimeHints implements RuntimeHintsRegistrar {
+
+	@Override
+	public void registerHints(RuntimeHints hints, @Nullable ClassLoader classLoader) {
+		ReflectionHints reflectionHints = hints.reflection();
+		// The client binds the configuration maps to these classes with Jackson.
+		Stream.of("org.apache.pulsar.client.impl.conf.ClientConfigurationData",
+				"org.apache.pulsar.client.impl.conf.ProducerConfigurationData",
+				"org.apache.pulsar.client.impl.conf.ConsumerConfigurationData",
+				"org.apache.pulsar.client.impl.conf.ReaderConfigurationData",
+				"org.apache.pulsar.client.api.BatchReceivePolicy",
+				"org.apache.pulsar.client.api.DeadLetterPolicy")
+				.forEach(typeName -> reflectionHints.registerTypeIfPresent(classLoader, typeName,
+						MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+						MemberCategory.INVOKE_PUBLIC_METHODS));
+		// The client loads its implementation and the authentication plugins by name.
+		Stream.of("org.apache.pulsar.client.impl.PulsarClientImplementationBindingImpl",
+				"org.apache.pulsar.client.impl.auth.AuthenticationDisabled",
+				"org.apache.pulsar.client.impl.auth.AuthenticationBasic",
+				"org.apache.pulsar.client.impl.auth.AuthenticationTls",
+				"org.apache.pulsar.client.impl.auth.AuthenticationToken",
+				"org.apache.pulsar.client.impl.auth.oauth2.AuthenticationOAuth2")
+				.forEach(typeName -> reflectionHints.registerTypeIfPresent(classLoader, typeName,
+						MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+		hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(PulsarClient.class));
+		hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(Producer.class));
+	}
+}
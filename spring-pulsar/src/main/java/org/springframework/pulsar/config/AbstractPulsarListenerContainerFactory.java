@@ -27,6 +27,7 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.core.log.LogAccessor;
 import org.springframework.pulsar.core.PulsarConsumerFactory;
+import org.springframework.pulsar.core.PulsarTemplate;
 import org.springframework.pulsar.listener.AbstractPulsarMessageListenerContainer;
 import org.springframework.pulsar.listener.PulsarContainerProperties;
 import org.springframework.pulsar.support.JavaUtils;
@@ -62,6 +63,8 @@ public abstract class AbstractPulsarListenerContainerFactory<C extends AbstractP
 
 	private ApplicationContext applicationContext;
 
+	private PulsarTemplate<?> replyTemplate;
+
 	@Override
 	public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
 		this.applicationContext = applicationContext;
@@ -114,6 +117,15 @@ public abstract class AbstractPulsarListenerContainerFactory<C extends AbstractP
 		return this.containerProperties;
 	}
 
+	/**
+	 * Set the template used to publish the values returned by listener methods annotated
+	 * with {@link org.springframework.messaging.handler.annotation.SendTo @SendTo}.
+	 * @param replyTemplate the reply template.
+	 */
+	public void setReplyTemplate(PulsarTemplate<?> replyTemplate) {
+		this.replyTemplate = replyTemplate;
+	}
+
 	@Override
 	public void afterPropertiesSet() {
 
@@ -143,6 +155,10 @@ public abstract class AbstractPulsarListenerContainerFactory<C extends AbstractP
 			JavaUtils.INSTANCE
 					.acceptIfNotNull(this.batchListener, aplEndpoint::setBatchListener);
 		}
+		if (aplEndpoint.getReplyTemplate() == null) {
+			JavaUtils.INSTANCE
+					.acceptIfNotNull(this.replyTemplate, aplEndpoint::setReplyTemplate);
+		}
 	}
 
 	protected void initializeContainer(C instance, PulsarListenerEndpoint endpoint) {
@@ -23,6 +23,8 @@ import java.util.Collections;
 import java.util.Properties;
 
 import org.apache.commons.logging.LogFactory;
+import org.apache.pulsar.client.api.DeadLetterPolicy;
+import org.apache.pulsar.client.api.RedeliveryBackoff;
 import org.apache.pulsar.client.api.SubscriptionType;
 import org.apache.pulsar.common.schema.SchemaType;
 
@@ -37,7 +39,11 @@ import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.core.log.LogAccessor;
 import org.springframework.expression.BeanResolver;
 import org.springframework.lang.Nullable;
+import org.springframework.pulsar.core.PulsarTemplate;
+import org.springframework.pulsar.listener.MessageDeduplicator;
+import org.springframework.pulsar.listener.PulsarConsumerErrorHandler;
 import org.springframework.pulsar.listener.PulsarMessageListenerContainer;
+import org.springframework.pulsar.listener.RecordFilterStrategy;
 import org.springframework.pulsar.listener.adapter.PulsarMessagingMessageListenerAdapter;
 import org.springframework.pulsar.support.MessageConverter;
 import org.springframework.util.Assert;
@@ -63,6 +69,8 @@ public abstract class AbstractPulsarListenerEndpoint<K> implements PulsarListene
 
 	private final Collection<String> topics = new ArrayList<>();
 
+	private String topicPattern;
+
 	private BeanFactory beanFactory;
 
 	private BeanExpressionResolver resolver;
@@ -75,6 +83,26 @@ public abstract class AbstractPulsarListenerEndpoint<K> implements PulsarListene
 	private Properties consumerProperties;
 	private Boolean batchListener;
 
+	private PulsarConsumerErrorHandler<?> pulsarConsumerErrorHandler;
+
+	private DeadLetterPolicy deadLetterPolicy;
+
+	private RedeliveryBackoff negativeAckRedeliveryBackoff;
+
+	private RedeliveryBackoff ackTimeoutRedeliveryBackoff;
+
+	private Double maxMessagesPerSecond;
+
+	private Long maxBytesPerSecond;
+
+	private RecordFilterStrategy<?> recordFilterStrategy;
+
+	private MessageDeduplicator messageDeduplicator;
+
+	private PulsarTemplate<?> replyTemplate;
+
+	private String replyTopic;
+
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
 		this.beanFactory = beanFactory;
@@ -144,6 +172,16 @@ public abstract class AbstractPulsarListenerEndpoint<K> implements PulsarListene
 		return Collections.unmodifiableCollection(this.topics);
 	}
 
+	public void setTopicPattern(String topicPattern) {
+		this.topicPattern = topicPattern;
+	}
+
+	@Nullable
+	@Override
+	public String getTopicPattern() {
+		return this.topicPattern;
+	}
+
 	@Override
 	@Nullable
 	public Boolean getAutoStartup() {
@@ -210,4 +248,104 @@ public abstract class AbstractPulsarListenerEndpoint<K> implements PulsarListene
 	public void setSchemaType(SchemaType schemaType) {
 		this.schemaType = schemaType;
 	}
+
+	@Nullable
+	public PulsarConsumerErrorHandler<?> getPulsarConsumerErrorHandler() {
+		return this.pulsarConsumerErrorHandler;
+	}
+
+	public void setPulsarConsumerErrorHandler(PulsarConsumerErrorHandler<?> pulsarConsumerErrorHandler) {
+		this.pulsarConsumerErrorHandler = pulsarConsumerErrorHandler;
+	}
+
+	@Nullable
+	public DeadLetterPolicy getDeadLetterPolicy() {
+		return this.deadLetterPolicy;
+	}
+
+	public void setDeadLetterPolicy(DeadLetterPolicy deadLetterPolicy) {
+		this.deadLetterPolicy = deadLetterPolicy;
+	}
+
+	@Nullable
+	public RedeliveryBackoff getNegativeAckRedeliveryBackoff() {
+		return this.negativeAckRedeliveryBackoff;
+	}
+
+	public void setNegativeAckRedeliveryBackoff(RedeliveryBackoff negativeAckRedeliveryBackoff) {
+		this.negativeAckRedeliveryBackoff = negativeAckRedeliveryBackoff;
+	}
+
+	@Nullable
+	public RedeliveryBackoff getAckTimeoutRedeliveryBackoff() {
+		return this.ackTimeoutRedeliveryBackoff;
+	}
+
+	public void setAckTimeoutRedeliveryBackoff(RedeliveryBackoff ackTimeoutRedeliveryBackoff) {
+		this.ackTimeoutRedeliveryBackoff = ackTimeoutRedeliveryBackoff;
+	}
+
+	@Nullable
+	public Double getMaxMessagesPerSecond() {
+		return this.maxMessagesPerSecond;
+	}
+
+	public void setMaxMessagesPerSecond(Double maxMessagesPerSecond) {
+		this.maxMessagesPerSecond = maxMessagesPerSecond;
+	}
+
+	@Nullable
+	public Long getMaxBytesPerSecond() {
+		return this.maxBytesPerSecond;
+	}
+
+	public void setMaxBytesPerSecond(Long maxBytesPerSecond) {
+		this.maxBytesPerSecond = maxBytesPerSecond;
+	}
+
+	@Nullable
+	public RecordFilterStrategy<?> getRecordFilterStrategy() {
+		return this.recordFilterStrategy;
+	}
+
+	public void setRecordFilterStrategy(RecordFilterStrategy<?> recordFilterStrategy) {
+		this.recordFilterStrategy = recordFilterStrategy;
+	}
+
+	@Nullable
+	public MessageDeduplicator getMessageDeduplicator() {
+		return this.messageDeduplicator;
+	}
+
+	public void setMessageDeduplicator(MessageDeduplicator messageDeduplicator) {
+		this.messageDeduplicator = messageDeduplicator;
+	}
+
+	@Nullable
+	public PulsarTemplate<?> getReplyTemplate() {
+		return this.replyTemplate;
+	}
+
+	/**
+	 * Set the template used to publish the values returned by the listener.
+	 * @param replyTemplate the reply template
+	 */
+	public void setReplyTemplate(PulsarTemplate<?> replyTemplate) {
+		this.replyTemplate = replyTemplate;
+	}
+
+	@Nullable
+	public String getReplyTopic() {
+		return this.replyTopic;
+	}
+
+	/**
+	 * Set the topic the values returned by the listener are published to; an empty
+	 * topic replies to the topic requested by each message, which is only supported
+	 * for record listeners.
+	 * @param replyTopic the reply topic
+	 */
+	public void setReplyTopic(String replyTopic) {
+		this.replyTopic = replyTopic;
+	}
 }
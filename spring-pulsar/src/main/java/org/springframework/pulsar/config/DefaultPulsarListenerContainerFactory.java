@@ -18,9 +18,11 @@ package org.springframework.pulsar.config;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.regex.Pattern;
 
 import org.apache.pulsar.client.api.SubscriptionType;
 
+import org.springframework.beans.BeanUtils;
 import org.springframework.pulsar.listener.DefaultPulsarMessageListenerContainer;
 import org.springframework.pulsar.listener.PulsarContainerProperties;
 import org.springframework.util.StringUtils;
@@ -40,12 +42,17 @@ public class DefaultPulsarListenerContainerFactory<C, T> extends AbstractPulsarL
 	protected DefaultPulsarMessageListenerContainer<T> createContainerInstance(PulsarListenerEndpoint endpoint) {
 
 		PulsarContainerProperties properties = new PulsarContainerProperties();
+		BeanUtils.copyProperties(getContainerProperties(), properties, "topics", "topicsPattern", "subscriptionName",
+				"batchListener", "schema", "schemaType", "messageListener");
 		Collection<String> topics = endpoint.getTopics();
 
 		if (!topics.isEmpty()) {
 			final String[] topics1 = topics.toArray(new String[0]);
 			properties.setTopics(topics1);
 		}
+		else if (StringUtils.hasText(endpoint.getTopicPattern())) {
+			properties.setTopicsPattern(Pattern.compile(endpoint.getTopicPattern()));
+		}
 
 		final String subscriptionName = endpoint.getSubscriptionName();
 
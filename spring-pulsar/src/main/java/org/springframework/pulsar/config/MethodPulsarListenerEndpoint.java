@@ -49,6 +49,7 @@ import org.springframework.pulsar.support.MessageConverter;
 import org.springframework.pulsar.support.converter.PulsarBatchMessageConverter;
 import org.springframework.pulsar.support.converter.PulsarRecordMessageConverter;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 /**
  * A {@link PulsarListenerEndpoint} providing the method to invoke to process
@@ -184,9 +185,40 @@ public class MethodPulsarListenerEndpoint<V> extends AbstractPulsarListenerEndpo
 		final SchemaType type = pulsarContainerProperties.getSchema().getSchemaInfo().getType();
 		pulsarContainerProperties.setSchemaType(type);
 
+		configureContainer(containerInstance);
+
 		return messageListener;
 	}
 
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private void configureContainer(DefaultPulsarMessageListenerContainer container) {
+		if (getPulsarConsumerErrorHandler() != null) {
+			container.setPulsarConsumerErrorHandler(getPulsarConsumerErrorHandler());
+		}
+		if (getRecordFilterStrategy() != null) {
+			container.setRecordFilterStrategy(getRecordFilterStrategy());
+		}
+		if (getMessageDeduplicator() != null) {
+			container.setMessageDeduplicator(getMessageDeduplicator());
+		}
+		PulsarContainerProperties containerProperties = container.getPulsarContainerProperties();
+		if (getDeadLetterPolicy() != null) {
+			containerProperties.setDeadLetterPolicy(getDeadLetterPolicy());
+		}
+		if (getNegativeAckRedeliveryBackoff() != null) {
+			containerProperties.setNegativeAckRedeliveryBackoff(getNegativeAckRedeliveryBackoff());
+		}
+		if (getAckTimeoutRedeliveryBackoff() != null) {
+			containerProperties.setAckTimeoutRedeliveryBackoff(getAckTimeoutRedeliveryBackoff());
+		}
+		if (getMaxMessagesPerSecond() != null) {
+			containerProperties.setMaxMessagesPerSecond(getMaxMessagesPerSecond());
+		}
+		if (getMaxBytesPerSecond() != null) {
+			containerProperties.setMaxBytesPerSecond(getMaxBytesPerSecond());
+		}
+	}
+
 	private Schema<?> getRequiredSchema(MethodParameter methodParameter, PulsarContainerProperties pulsarContainerProperties) {
 		ResolvableType resolvableType = ResolvableType.forMethodParameter(methodParameter);
 		final Class<?> rawClass = resolvableType.getRawClass();
@@ -235,6 +267,14 @@ public class MethodPulsarListenerEndpoint<V> extends AbstractPulsarListenerEndpo
 		if (resolver != null) {
 			listener.setBeanResolver(resolver);
 		}
+		if (getReplyTopic() != null) {
+			Assert.state(getReplyTemplate() != null,
+					() -> "A reply template must be set on the container factory to use @SendTo on " + this.method);
+			Assert.state(!isBatchListener() || StringUtils.hasText(getReplyTopic()),
+					() -> "@SendTo on batch listener " + this.method + " must name the reply topic");
+			listener.setReplyTemplate(getReplyTemplate());
+			listener.setReplyTopic(getReplyTopic());
+		}
 		return listener;
 	}
 
@@ -18,23 +18,38 @@ package org.springframework.pulsar.config;
 
 import org.apache.commons.logging.LogFactory;
 import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.PulsarClientException;
 
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.target.HotSwappableTargetSource;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.config.AbstractFactoryBean;
 import org.springframework.core.log.LogAccessor;
+import org.springframework.pulsar.support.CheckpointRestoreCallback;
+import org.springframework.pulsar.support.CheckpointRestoreRegistrar;
 
 /**
  * {@link FactoryBean} implementation for the {@link PulsarClient}.
+ * <p>
+ * When the optional {@code org.crac} library is on the classpath, the exposed client is
+ * a proxy of the actual client, which is closed before a CRaC checkpoint and replaced
+ * with a new client after restore, so that the components holding the client keep
+ * working across a checkpoint. Otherwise the actual client is exposed.
  *
  * @author Soby Chacko
  * @author Chris Bono
  */
-public class PulsarClientFactoryBean extends AbstractFactoryBean<PulsarClient> {
+public class PulsarClientFactoryBean extends AbstractFactoryBean<PulsarClient> implements CheckpointRestoreCallback {
 
 	private final LogAccessor logger = new LogAccessor(LogFactory.getLog(this.getClass()));
 
 	private final PulsarClientConfiguration pulsarClientConfiguration;
 
+	private HotSwappableTargetSource clientTargetSource;
+
+	// Keeps the CRaC resource reachable, the CRaC context only holds weak references.
+	private Object checkpointRestoreResource;
+
 	public PulsarClientFactoryBean(PulsarClientConfiguration pulsarClientConfiguration) {
 		this.pulsarClientConfiguration = pulsarClientConfiguration;
 	}
@@ -46,11 +61,37 @@ public class PulsarClientFactoryBean extends AbstractFactoryBean<PulsarClient> {
 
 	@Override
 	protected PulsarClient createInstance() throws Exception {
+		if (!CheckpointRestoreRegistrar.isCracPresent()) {
+			return buildClient();
+		}
+		this.clientTargetSource = new HotSwappableTargetSource(buildClient());
+		this.checkpointRestoreResource = CheckpointRestoreRegistrar.register(this);
+		return (PulsarClient) new ProxyFactory(PulsarClient.class, this.clientTargetSource).getProxy();
+	}
+
+	private PulsarClient buildClient() throws PulsarClientException {
 		return PulsarClient.builder()
 				.loadConf(this.pulsarClientConfiguration.getConfigs())
 				.build();
 	}
 
+	@Override
+	public void beforeCheckpoint() throws PulsarClientException {
+		if (this.clientTargetSource != null) {
+			PulsarClient client = (PulsarClient) this.clientTargetSource.getTarget();
+			this.logger.info(() -> "Closing client " + client + " before checkpoint");
+			client.close();
+		}
+	}
+
+	@Override
+	public void afterRestore() throws PulsarClientException {
+		if (this.clientTargetSource != null) {
+			this.clientTargetSource.swap(buildClient());
+			this.logger.info(() -> "Created a new client after restore");
+		}
+	}
+
 	@Override
 	protected void destroyInstance(PulsarClient instance) throws Exception {
 		if (instance != null) {
@@ -36,4 +36,10 @@ public abstract class PulsarListenerBeanNames {
 	public static final String PULSAR_LISTENER_ENDPOINT_REGISTRY_BEAN_NAME =
 			"org.springframework.pulsar.config.internalPulsarListenerEndpointRegistry";
 
+	/**
+	 * The bean name of the internally managed Pulsar reader annotation processor.
+	 */
+	public static final String PULSAR_READER_ANNOTATION_PROCESSOR_BEAN_NAME =
+			"org.springframework.pulsar.config.internalPulsarReaderAnnotationProcessor";
+
 }
@@ -45,6 +45,11 @@ public interface PulsarListenerEndpoint {
 
 	Collection<String> getTopics();
 
+	@Nullable
+	default String getTopicPattern() {
+		return null;
+	}
+
 	@Nullable
 	Boolean getAutoStartup();
 
@@ -22,6 +22,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -35,6 +37,7 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.SmartLifecycle;
 import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.lang.Nullable;
 import org.springframework.pulsar.listener.AbstractPulsarMessageListenerContainer;
 import org.springframework.pulsar.listener.PulsarListenerContainerRegistry;
@@ -60,6 +63,11 @@ import org.springframework.util.Assert;
 public class PulsarListenerEndpointRegistry implements PulsarListenerContainerRegistry, DisposableBean, SmartLifecycle,
 		ApplicationContextAware, ApplicationListener<ContextRefreshedEvent> {
 
+	/**
+	 * The default maximum number of listener containers started concurrently.
+	 */
+	public static final int DEFAULT_STARTUP_CONCURRENCY = 16;
+
 	private final Map<String, PulsarMessageListenerContainer> listenerContainers = new ConcurrentHashMap<>();
 
 	private ConfigurableApplicationContext applicationContext;
@@ -68,6 +76,8 @@ public class PulsarListenerEndpointRegistry implements PulsarListenerContainerRe
 
 	private boolean contextRefreshed;
 
+	private int startupConcurrency = DEFAULT_STARTUP_CONCURRENCY;
+
 
 	private volatile boolean running;
 
@@ -78,6 +88,22 @@ public class PulsarListenerEndpointRegistry implements PulsarListenerContainerRe
 		}
 	}
 
+	/**
+	 * Set the maximum number of listener containers started concurrently when this
+	 * registry starts. Starting a container subscribes its consumer, so starting them
+	 * concurrently shortens the startup of applications with many listeners. Set to 1
+	 * to start the containers one at a time.
+	 * @param startupConcurrency the maximum number of containers started concurrently.
+	 */
+	public void setStartupConcurrency(int startupConcurrency) {
+		Assert.isTrue(startupConcurrency > 0, "'startupConcurrency' must be greater than 0");
+		this.startupConcurrency = startupConcurrency;
+	}
+
+	public int getStartupConcurrency() {
+		return this.startupConcurrency;
+	}
+
 	@Override
 	@Nullable
 	public PulsarMessageListenerContainer getListenerContainer(String id) {
@@ -185,12 +211,36 @@ public class PulsarListenerEndpointRegistry implements PulsarListenerContainerRe
 
 	@Override
 	public void start() {
-		for (PulsarMessageListenerContainer listenerContainer : getListenerContainers()) {
-			startIfNecessary(listenerContainer);
+		Collection<PulsarMessageListenerContainer> listenerContainersToStart = getListenerContainers();
+		if (this.startupConcurrency == 1 || listenerContainersToStart.size() <= 1) {
+			for (PulsarMessageListenerContainer listenerContainer : listenerContainersToStart) {
+				startIfNecessary(listenerContainer);
+			}
+		}
+		else {
+			startConcurrently(listenerContainersToStart);
 		}
 		this.running = true;
 	}
 
+	private void startConcurrently(Collection<PulsarMessageListenerContainer> listenerContainersToStart) {
+		SimpleAsyncTaskExecutor startupExecutor = new SimpleAsyncTaskExecutor("pulsar-listener-startup-");
+		startupExecutor.setConcurrencyLimit(Math.min(this.startupConcurrency, listenerContainersToStart.size()));
+		CompletableFuture<?>[] startups = listenerContainersToStart.stream()
+				.map(listenerContainer -> CompletableFuture.runAsync(() -> startIfNecessary(listenerContainer),
+						startupExecutor))
+				.toArray(CompletableFuture[]::new);
+		try {
+			CompletableFuture.allOf(startups).join();
+		}
+		catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw ex;
+		}
+	}
+
 	@Override
 	public void stop() {
 		this.running = false;
@@ -260,5 +310,4 @@ public class PulsarListenerEndpointRegistry implements PulsarListenerContainerRe
 
 	}
 
-
 }
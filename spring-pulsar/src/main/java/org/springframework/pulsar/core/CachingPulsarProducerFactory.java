@@ -37,6 +37,8 @@ import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.core.log.LogAccessor;
+import org.springframework.pulsar.support.CheckpointRestoreCallback;
+import org.springframework.pulsar.support.CheckpointRestoreRegistrar;
 import org.springframework.util.Assert;
 
 import com.github.benmanes.caffeine.cache.Cache;
@@ -54,17 +56,24 @@ import com.github.benmanes.caffeine.cache.Scheduler;
  * <p>
  * The proxied producer is cached in an LRU fashion and evicted when it has not been used within a configured time
  * period.
+ * <p>
+ * The cached producers are closed before a CRaC checkpoint and created again when next
+ * used after restore.
  *
  * @param <T> producer type.
  *
  * @author Chris Bono
  */
-public class CachingPulsarProducerFactory<T> extends DefaultPulsarProducerFactory<T> implements DisposableBean {
+public class CachingPulsarProducerFactory<T> extends DefaultPulsarProducerFactory<T>
+		implements DisposableBean, CheckpointRestoreCallback {
 
 	private final LogAccessor logger = new LogAccessor(LogFactory.getLog(this.getClass()));
 
 	private final Cache<SchemaTopic<T>, Producer<T>> producerCache;
 
+	// Keeps the CRaC resource reachable, the CRaC context only holds weak references.
+	private final Object checkpointRestoreResource;
+
 	/**
 	 * Construct a caching producer factory with the specified values for the cache configuration.
 	 *
@@ -87,6 +96,7 @@ public class CachingPulsarProducerFactory<T> extends DefaultPulsarProducerFactor
 							ProducerUtils.formatProducer(producer), cause));
 					closeProducer(producer);
 				}).build();
+		this.checkpointRestoreResource = CheckpointRestoreRegistrar.register(this);
 	}
 
 	@Override
@@ -112,7 +122,10 @@ public class CachingPulsarProducerFactory<T> extends DefaultPulsarProducerFactor
 
 	@SuppressWarnings("unchecked")
 	private Producer<T> wrapProducerWithCloseCallback(Producer<T> producer, Consumer<Producer<T>> closeCallback) {
-		ProxyFactory factory = new ProxyFactory(producer);
+		// Only proxy the Producer interface, which keeps the proxy known ahead of time.
+		ProxyFactory factory = new ProxyFactory();
+		factory.setTarget(producer);
+		factory.addInterface(Producer.class);
 		factory.addAdvice(new MethodInterceptor() {
 			@Nullable
 			@Override
@@ -133,6 +146,21 @@ public class CachingPulsarProducerFactory<T> extends DefaultPulsarProducerFactor
 
 	@Override
 	public void destroy() {
+		closeCachedProducers();
+	}
+
+	@Override
+	public void beforeCheckpoint() {
+		this.logger.info(() -> "Closing " + this.producerCache.estimatedSize() + " cached producers before checkpoint");
+		closeCachedProducers();
+	}
+
+	@Override
+	public void afterRestore() {
+		// Producers are created again when next requested.
+	}
+
+	private void closeCachedProducers() {
 		this.producerCache.asMap().forEach((schemaTopic, producer) -> {
 			this.producerCache.invalidate(schemaTopic);
 			closeProducer(producer);
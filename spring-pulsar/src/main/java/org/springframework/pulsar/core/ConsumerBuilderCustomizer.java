@@ -0,0 +1,37 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import org.apache.pulsar.client.api.ConsumerBuilder;
+
+/**
+ * Callback interface that can be used to customize a {@link ConsumerBuilder} with
+ * settings that cannot be expressed through the consumer configuration map, such as
+ * dead letter policies or redelivery back offs.
+ *
+ * @param <T> payload type for the consumer.
+ * @author agent (agent@local)
+ */
+@FunctionalInterface
+public interface ConsumerBuilderCustomizer<T> {
+
+	/**
+	 * Customize the consumer builder.
+	 * @param consumerBuilder the builder to customize
+	 */
+	void customize(ConsumerBuilder<T> consumerBuilder);
+}
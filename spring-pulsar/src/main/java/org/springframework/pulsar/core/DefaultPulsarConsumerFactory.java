@@ -16,32 +16,49 @@
 
 package org.springframework.pulsar.core;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.commons.logging.LogFactory;
 import org.apache.pulsar.client.api.BatchReceivePolicy;
 import org.apache.pulsar.client.api.Consumer;
 import org.apache.pulsar.client.api.ConsumerBuilder;
+import org.apache.pulsar.client.api.ConsumerStats;
 import org.apache.pulsar.client.api.PulsarClient;
 import org.apache.pulsar.client.api.PulsarClientException;
 import org.apache.pulsar.client.api.Schema;
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.util.CollectionUtils;
 
 /**
  * Default implementation for {@link PulsarConsumerFactory}.
+ * <p>
+ * The factory keeps track of the consumers it creates until they are closed through
+ * {@link #closeConsumerAsync(Consumer)}, and closes the remaining ones when it is
+ * destroyed.
  *
  * @param <T> underlying payload type for the consumer.
  *
  * @author Soby Chacko
  */
-public class DefaultPulsarConsumerFactory<T> implements PulsarConsumerFactory<T> {
+public class DefaultPulsarConsumerFactory<T> implements PulsarConsumerFactory<T>, DisposableBean {
+
+	private final LogAccessor logger = new LogAccessor(LogFactory.getLog(this.getClass()));
 
 	private final Map<String, Object> consumerConfig = new HashMap<>();
 
-	private final List<Consumer<T>> consumers = new ArrayList<>();
+	private final Map<Consumer<T>, Long> consumers = new ConcurrentHashMap<>();
+
+	private final AtomicLong consumerSequence = new AtomicLong();
 
 	private PulsarClient pulsarClient;
 
@@ -64,13 +81,37 @@ public class DefaultPulsarConsumerFactory<T> implements PulsarConsumerFactory<T>
 			consumerBuilder.loadConf(properties);
 		}
 		Consumer<T> consumer = consumerBuilder.subscribe();
-		this.consumers.add(consumer);
+		trackConsumer(consumer);
 		return consumer;
 	}
 
 	@Override
 	public Consumer<T> createConsumer(Schema<T> schema, BatchReceivePolicy batchReceivePolicy, Map<String, Object> propertiesToOverride) throws PulsarClientException {
+		return createConsumer(schema, batchReceivePolicy, propertiesToOverride, Collections.emptyList());
+	}
+
+	@Override
+	public Consumer<T> createConsumer(Schema<T> schema, BatchReceivePolicy batchReceivePolicy, Map<String, Object> propertiesToOverride,
+			List<ConsumerBuilderCustomizer<T>> customizers) throws PulsarClientException {
+		Consumer<T> consumer = prepareConsumerBuilder(schema, batchReceivePolicy, propertiesToOverride, customizers)
+				.subscribe();
+		trackConsumer(consumer);
+		return consumer;
+	}
 
+	@Override
+	public CompletableFuture<Consumer<T>> createConsumerAsync(Schema<T> schema, BatchReceivePolicy batchReceivePolicy,
+			Map<String, Object> propertiesToOverride, List<ConsumerBuilderCustomizer<T>> customizers) {
+		return prepareConsumerBuilder(schema, batchReceivePolicy, propertiesToOverride, customizers)
+				.subscribeAsync()
+				.thenApply(consumer -> {
+					trackConsumer(consumer);
+					return consumer;
+				});
+	}
+
+	private ConsumerBuilder<T> prepareConsumerBuilder(Schema<T> schema, BatchReceivePolicy batchReceivePolicy,
+			Map<String, Object> propertiesToOverride, List<ConsumerBuilderCustomizer<T>> customizers) {
 		final ConsumerBuilder<T> consumerBuilder = this.pulsarClient.newConsumer(schema);
 		final Map<String, Object> properties = new HashMap<>(this.consumerConfig);
 		properties.putAll(propertiesToOverride);
@@ -80,13 +121,58 @@ public class DefaultPulsarConsumerFactory<T> implements PulsarConsumerFactory<T>
 		}
 
 		consumerBuilder.batchReceivePolicy(batchReceivePolicy);
-		Consumer<T> consumer = consumerBuilder.subscribe();
-		this.consumers.add(consumer);
-		return consumer;
+		customizers.forEach(customizer -> customizer.customize(consumerBuilder));
+		return consumerBuilder;
+	}
+
+	private void trackConsumer(Consumer<T> consumer) {
+		this.consumers.put(consumer, this.consumerSequence.incrementAndGet());
+	}
+
+	@Override
+	public CompletableFuture<Void> closeConsumerAsync(Consumer<?> consumer) {
+		this.consumers.remove(consumer);
+		return consumer.closeAsync();
+	}
+
+	/**
+	 * Return the consumers created by this factory that have not been closed through the
+	 * factory.
+	 * @return an unmodifiable view of the consumers
+	 */
+	public Collection<Consumer<T>> getConsumers() {
+		return Collections.unmodifiableCollection(this.consumers.keySet());
+	}
+
+	/**
+	 * Return the statistics of the consumers created by this factory. The keys have the
+	 * form {@code <topic>/<subscription>/<consumer name>#<sequence>}, where the sequence
+	 * tells apart consumers sharing a configured consumer name.
+	 * @return the consumer statistics
+	 */
+	public Map<String, ConsumerStats> getConsumerStats() {
+		Map<String, ConsumerStats> stats = new HashMap<>();
+		this.consumers.forEach((consumer, sequence) -> stats.put(consumer.getTopic() + "/"
+				+ consumer.getSubscription() + "/" + consumer.getConsumerName() + "#" + sequence,
+				consumer.getStats()));
+		return stats;
 	}
 
 	public Map<String, Object> getConsumerConfig() {
 		return this.consumerConfig;
 	}
 
+	@Override
+	public void destroy() {
+		CompletableFuture<?>[] closeFutures = this.consumers.keySet().stream()
+				.map(this::closeConsumerAsync)
+				.toArray(CompletableFuture[]::new);
+		try {
+			CompletableFuture.allOf(closeFutures).join();
+		}
+		catch (CompletionException ex) {
+			this.logger.warn(ex.getCause(), () -> "Failed to close all consumers");
+		}
+	}
+
 }
@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.commons.logging.LogFactory;
+import org.apache.pulsar.client.api.BatcherBuilder;
 import org.apache.pulsar.client.api.MessageRouter;
 import org.apache.pulsar.client.api.Producer;
 import org.apache.pulsar.client.api.ProducerBuilder;
@@ -46,6 +47,8 @@ public class DefaultPulsarProducerFactory<T> implements PulsarProducerFactory<T>
 
 	private final PulsarClient pulsarClient;
 
+	private BatcherBuilder batcherBuilder;
+
 	public DefaultPulsarProducerFactory(PulsarClient pulsarClient, Map<String, Object> config) {
 		this.pulsarClient = pulsarClient;
 		if (!CollectionUtils.isEmpty(config)) {
@@ -63,6 +66,17 @@ public class DefaultPulsarProducerFactory<T> implements PulsarProducerFactory<T>
 		return doCreateProducer(topic, schema, messageRouter);
 	}
 
+	/**
+	 * Set the batcher builder used by the created producers. Use
+	 * {@link BatcherBuilder#KEY_BASED} when sending keyed messages to topics consumed with
+	 * a {@code Key_Shared} subscription, so that each batch only holds messages with the
+	 * same key and can be dispatched to a single consumer.
+	 * @param batcherBuilder the batcher builder or {@code null} to use the Pulsar default
+	 */
+	public void setBatcherBuilder(BatcherBuilder batcherBuilder) {
+		this.batcherBuilder = batcherBuilder;
+	}
+
 	protected Producer<T> doCreateProducer(String topic, Schema<T> schema, MessageRouter messageRouter) throws PulsarClientException {
 		final String resolvedTopic = ProducerUtils.resolveTopicName(topic, this);
 		this.logger.trace(() -> String.format("Creating producer for '%s' topic", resolvedTopic));
@@ -70,6 +84,9 @@ public class DefaultPulsarProducerFactory<T> implements PulsarProducerFactory<T>
 		if (!CollectionUtils.isEmpty(this.producerConfig)) {
 			producerBuilder.loadConf(this.producerConfig);
 		}
+		if (this.batcherBuilder != null) {
+			producerBuilder.batcherBuilder(this.batcherBuilder);
+		}
 		producerBuilder.topic(resolvedTopic);
 		if (messageRouter != null) {
 			producerBuilder.messageRouter(messageRouter);
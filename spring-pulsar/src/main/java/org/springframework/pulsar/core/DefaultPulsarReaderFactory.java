@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.LogFactory;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.apache.pulsar.client.api.Reader;
+import org.apache.pulsar.client.api.ReaderBuilder;
+import org.apache.pulsar.client.api.Schema;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * Default implementation for {@link PulsarReaderFactory}.
+ * <p>
+ * The factory keeps track of the readers it creates until they are closed through
+ * {@link #closeReaderAsync(Reader)}, and closes the remaining ones when it is destroyed.
+ *
+ * @param <T> underlying payload type for the reader.
+ *
+ * @author agent (agent@local)
+ */
+public class DefaultPulsarReaderFactory<T> implements PulsarReaderFactory<T>, DisposableBean {
+
+	private final LogAccessor logger = new LogAccessor(LogFactory.getLog(this.getClass()));
+
+	private final Map<String, Object> readerConfig = new HashMap<>();
+
+	private final Set<Reader<T>> readers = ConcurrentHashMap.newKeySet();
+
+	private final PulsarClient pulsarClient;
+
+	public DefaultPulsarReaderFactory(PulsarClient pulsarClient, Map<String, Object> readerConfig) {
+		this.pulsarClient = pulsarClient;
+		if (!CollectionUtils.isEmpty(readerConfig)) {
+			this.readerConfig.putAll(readerConfig);
+		}
+	}
+
+	@Override
+	public Reader<T> createReader(Schema<T> schema, List<String> topics, MessageId startMessageId,
+			List<ReaderBuilderCustomizer<T>> customizers) throws PulsarClientException {
+		Reader<T> reader = prepareReaderBuilder(schema, topics, startMessageId, customizers).create();
+		this.readers.add(reader);
+		return reader;
+	}
+
+	@Override
+	public CompletableFuture<Reader<T>> createReaderAsync(Schema<T> schema, List<String> topics,
+			MessageId startMessageId, List<ReaderBuilderCustomizer<T>> customizers) {
+		return prepareReaderBuilder(schema, topics, startMessageId, customizers)
+				.createAsync()
+				.thenApply(reader -> {
+					this.readers.add(reader);
+					return reader;
+				});
+	}
+
+	private ReaderBuilder<T> prepareReaderBuilder(Schema<T> schema, List<String> topics, MessageId startMessageId,
+			List<ReaderBuilderCustomizer<T>> customizers) {
+		Assert.notEmpty(topics, "'topics' cannot be empty");
+		Assert.notNull(startMessageId, "'startMessageId' cannot be null");
+		final ReaderBuilder<T> readerBuilder = this.pulsarClient.newReader(schema);
+		if (!CollectionUtils.isEmpty(this.readerConfig)) {
+			readerBuilder.loadConf(new HashMap<>(this.readerConfig));
+		}
+		readerBuilder.topics(topics);
+		readerBuilder.startMessageId(startMessageId);
+		customizers.forEach(customizer -> customizer.customize(readerBuilder));
+		return readerBuilder;
+	}
+
+	@Override
+	public CompletableFuture<Void> closeReaderAsync(Reader<?> reader) {
+		this.readers.remove(reader);
+		return reader.closeAsync();
+	}
+
+	/**
+	 * Return the readers created by this factory that have not been closed through the
+	 * factory.
+	 * @return an unmodifiable view of the readers
+	 */
+	public Collection<Reader<T>> getReaders() {
+		return Collections.unmodifiableCollection(this.readers);
+	}
+
+	@Override
+	public Map<String, Object> getReaderConfig() {
+		return this.readerConfig;
+	}
+
+	@Override
+	public void destroy() {
+		CompletableFuture<?>[] closeFutures = this.readers.stream()
+				.map(this::closeReaderAsync)
+				.toArray(CompletableFuture[]::new);
+		try {
+			CompletableFuture.allOf(closeFutures).join();
+		}
+		catch (CompletionException ex) {
+			this.logger.warn(ex.getCause(), () -> "Failed to close all readers");
+		}
+	}
+}
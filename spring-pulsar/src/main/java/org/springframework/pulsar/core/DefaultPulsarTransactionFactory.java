@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.apache.pulsar.client.api.transaction.Transaction;
+
+import org.springframework.util.Assert;
+
+/**
+ * Default implementation for {@link PulsarTransactionFactory}.
+ * <p>
+ * The client must be built with transactions enabled. The broker aborts the transactions
+ * that are neither committed nor aborted within the configured timeout.
+ *
+ * @author agent (agent@local)
+ */
+public class DefaultPulsarTransactionFactory implements PulsarTransactionFactory {
+
+	private static final Duration DEFAULT_TRANSACTION_TIMEOUT = Duration.ofMinutes(1);
+
+	private final PulsarClient pulsarClient;
+
+	private final Duration transactionTimeout;
+
+	public DefaultPulsarTransactionFactory(PulsarClient pulsarClient) {
+		this(pulsarClient, DEFAULT_TRANSACTION_TIMEOUT);
+	}
+
+	public DefaultPulsarTransactionFactory(PulsarClient pulsarClient, Duration transactionTimeout) {
+		Assert.notNull(pulsarClient, "'pulsarClient' cannot be null");
+		Assert.isTrue(transactionTimeout != null && !transactionTimeout.isNegative() && !transactionTimeout.isZero(),
+				"'transactionTimeout' must be positive");
+		this.pulsarClient = pulsarClient;
+		this.transactionTimeout = transactionTimeout;
+	}
+
+	public Duration getTransactionTimeout() {
+		return this.transactionTimeout;
+	}
+
+	@Override
+	public Transaction createTransaction() throws PulsarClientException {
+		try {
+			return this.pulsarClient.newTransaction()
+					.withTransactionTimeout(this.transactionTimeout.toMillis(), TimeUnit.MILLISECONDS)
+					.build()
+					.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PulsarClientException(e);
+		}
+		catch (ExecutionException e) {
+			throw PulsarClientException.unwrap(e.getCause());
+		}
+	}
+}
@@ -16,7 +16,9 @@
 
 package org.springframework.pulsar.core;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.pulsar.client.api.BatchReceivePolicy;
 import org.apache.pulsar.client.api.Consumer;
@@ -36,5 +38,51 @@ public interface PulsarConsumerFactory<T> {
 
 	Consumer<T> createConsumer(Schema<T> schema, BatchReceivePolicy batchReceivePolicy, Map<String, Object> propertiesToOverride) throws PulsarClientException;
 
+	/**
+	 * Create a consumer, applying the customizers to the consumer builder after the
+	 * configuration properties have been loaded. The listener container and the reply
+	 * consumer of the template rely on the customizers to configure dead letter policies,
+	 * redelivery backoffs and topic patterns.
+	 * @param schema the schema of the messages to consume
+	 * @param batchReceivePolicy the batch receive policy
+	 * @param propertiesToOverride the properties overriding the factory configuration
+	 * @param customizers the customizers to apply to the consumer builder
+	 * @return the consumer
+	 * @throws PulsarClientException if the consumer could not be created
+	 */
+	Consumer<T> createConsumer(Schema<T> schema, BatchReceivePolicy batchReceivePolicy, Map<String, Object> propertiesToOverride,
+			List<ConsumerBuilderCustomizer<T>> customizers) throws PulsarClientException;
+
+	/**
+	 * Create a consumer asynchronously, so that the calling thread does not block while
+	 * the subscription is established. By default, this delegates to
+	 * {@link #createConsumer(Schema, BatchReceivePolicy, Map, List)}.
+	 * @param schema the schema of the messages to consume
+	 * @param batchReceivePolicy the batch receive policy
+	 * @param propertiesToOverride the properties overriding the factory configuration
+	 * @param customizers the customizers to apply to the consumer builder
+	 * @return a future completed with the subscribed consumer
+	 */
+	default CompletableFuture<Consumer<T>> createConsumerAsync(Schema<T> schema, BatchReceivePolicy batchReceivePolicy,
+			Map<String, Object> propertiesToOverride, List<ConsumerBuilderCustomizer<T>> customizers) {
+		try {
+			return CompletableFuture.completedFuture(
+					createConsumer(schema, batchReceivePolicy, propertiesToOverride, customizers));
+		}
+		catch (PulsarClientException ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * Close a consumer created by this factory and release any reference the factory
+	 * holds to it. By default, this closes the consumer.
+	 * @param consumer the consumer to close
+	 * @return a future completed once the consumer is closed
+	 */
+	default CompletableFuture<Void> closeConsumerAsync(Consumer<?> consumer) {
+		return consumer.closeAsync();
+	}
+
 	Map<String, Object> getConsumerConfig();
 }
@@ -16,6 +16,7 @@
 
 package org.springframework.pulsar.core;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 
 import org.apache.pulsar.client.api.MessageId;
@@ -114,4 +115,129 @@ public interface PulsarOperations<T> {
 	 * @throws PulsarClientException if an error occurs
 	 */
 	CompletableFuture<MessageId> sendAsync(String topic, T message, MessageRouter messageRouter) throws PulsarClientException;
+
+	/**
+	 * Sends a message to the specified topic in a non-blocking manner, giving the caller
+	 * a chance to customize the outgoing message, for example to set its key or
+	 * properties.
+	 * @param topic the topic to send the message to or {@code null} to send to the default topic
+	 * @param message the message to send
+	 * @param messageRouter the optional message router to use
+	 * @param typedMessageBuilderCustomizer the optional customizer of the outgoing message
+	 * @return a future that holds the id of the sent message
+	 * @throws PulsarClientException if an error occurs
+	 */
+	CompletableFuture<MessageId> sendAsync(String topic, T message, MessageRouter messageRouter,
+			TypedMessageBuilderCustomizer<T> typedMessageBuilderCustomizer) throws PulsarClientException;
+
+	/**
+	 * Sends a request to the specified topic in a non-blocking manner and waits for the
+	 * reply. The request carries a correlation id and the topic to reply to as message
+	 * properties, which the replying application copies to the reply.
+	 * @param topic the topic to send the request to or {@code null} to send to the default topic
+	 * @param request the request to send
+	 * @param timeout how long to wait for the reply
+	 * @param <R> the reply payload type
+	 * @return a future that holds the reply payload, completed exceptionally with a
+	 * {@link java.util.concurrent.TimeoutException} when no reply arrives in time
+	 * @throws PulsarClientException if an error occurs
+	 * @see org.springframework.pulsar.support.PulsarHeaders
+	 */
+	<R> CompletableFuture<R> sendAndReceive(String topic, T request, Duration timeout) throws PulsarClientException;
+
+	/**
+	 * Create a {@link SendMessageBuilder builder} for configuring and sending a message,
+	 * for example with a key or properties.
+	 * @param message the payload of the message
+	 * @return the builder to configure and send the message
+	 */
+	SendMessageBuilder<T> newMessage(T message);
+
+	/**
+	 * Builder that can be used to configure and send a message. Provides more options
+	 * than the basic send/sendAsync methods provided by {@link PulsarOperations}.
+	 * <p>
+	 * Messages with the same key are delivered in order to the same consumer of a
+	 * {@link org.apache.pulsar.client.api.SubscriptionType#Key_Shared Key_Shared}
+	 * subscription. When batching keyed messages, configure the producer factory with
+	 * {@link org.apache.pulsar.client.api.BatcherBuilder#KEY_BASED key based batching}.
+	 *
+	 * @param <T> the message payload type
+	 */
+	interface SendMessageBuilder<T> {
+
+		/**
+		 * Specify the topic to send the message to.
+		 * @param topic the destination topic or {@code null} to send to the default topic
+		 * @return the current builder with the destination topic specified
+		 */
+		SendMessageBuilder<T> withTopic(String topic);
+
+		/**
+		 * Specify the message router to use.
+		 * @param messageRouter the message router to use
+		 * @return the current builder with the message router specified
+		 */
+		SendMessageBuilder<T> withMessageRouter(MessageRouter messageRouter);
+
+		/**
+		 * Specify the key of the message.
+		 * @param key the key of the message
+		 * @return the current builder with the key specified
+		 */
+		SendMessageBuilder<T> withKey(String key);
+
+		/**
+		 * Specify the ordering key of the message, which takes precedence over the key
+		 * when messages are routed to consumers and grouped by a key-based batcher.
+		 * @param orderingKey the ordering key of the message
+		 * @return the current builder with the ordering key specified
+		 */
+		SendMessageBuilder<T> withOrderingKey(byte[] orderingKey);
+
+		/**
+		 * Add a property to the message.
+		 * @param name the name of the property
+		 * @param value the value of the property
+		 * @return the current builder with the property added
+		 */
+		SendMessageBuilder<T> withProperty(String name, String value);
+
+		/**
+		 * Specify the event time of the message.
+		 * @param eventTime the event time of the message, in milliseconds since the epoch
+		 * @return the current builder with the event time specified
+		 */
+		SendMessageBuilder<T> withEventTime(long eventTime);
+
+		/**
+		 * Request the delivery of the message to be delayed. Only shared subscriptions
+		 * honor the delay.
+		 * @param delay how long to delay the delivery for
+		 * @return the current builder with the delivery delay specified
+		 */
+		SendMessageBuilder<T> withDeliverAfter(Duration delay);
+
+		/**
+		 * Specify a customizer to apply to the outgoing message, for anything not
+		 * covered by the other builder methods. Customizers are applied in order.
+		 * @param messageCustomizer the message customizer to apply
+		 * @return the current builder with the message customizer added
+		 */
+		SendMessageBuilder<T> withMessageCustomizer(TypedMessageBuilderCustomizer<T> messageCustomizer);
+
+		/**
+		 * Send the message in a blocking manner using the configured specification.
+		 * @return the id of the sent message
+		 * @throws PulsarClientException if an error occurs
+		 */
+		MessageId send() throws PulsarClientException;
+
+		/**
+		 * Uses the configured specification to send the message in a non-blocking manner.
+		 * @return a future that holds the id of the sent message
+		 * @throws PulsarClientException if an error occurs
+		 */
+		CompletableFuture<MessageId> sendAsync() throws PulsarClientException;
+	}
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.apache.pulsar.client.api.Reader;
+import org.apache.pulsar.client.api.Schema;
+
+/**
+ * Pulsar reader factory interface.
+ * <p>
+ * Readers read a topic sequentially from a given position without a subscription on the
+ * broker, so there is nothing to acknowledge and nothing to clean up after a replay.
+ *
+ * @param <T> payload type for the reader.
+ *
+ * @author agent (agent@local)
+ */
+public interface PulsarReaderFactory<T> {
+
+	/**
+	 * Create a reader, applying the customizers to the reader builder after the
+	 * configuration properties have been loaded.
+	 * @param schema the schema of the messages to read
+	 * @param topics the topics to read
+	 * @param startMessageId the position to start reading from, such as
+	 * {@link MessageId#earliest} or {@link MessageId#latest}
+	 * @param customizers the customizers to apply to the reader builder
+	 * @return the reader
+	 * @throws PulsarClientException if the reader could not be created
+	 */
+	Reader<T> createReader(Schema<T> schema, List<String> topics, MessageId startMessageId,
+			List<ReaderBuilderCustomizer<T>> customizers) throws PulsarClientException;
+
+	/**
+	 * Create a reader asynchronously. By default, this delegates to
+	 * {@link #createReader(Schema, List, MessageId, List)}.
+	 * @param schema the schema of the messages to read
+	 * @param topics the topics to read
+	 * @param startMessageId the position to start reading from
+	 * @param customizers the customizers to apply to the reader builder
+	 * @return a future completed with the reader
+	 */
+	default CompletableFuture<Reader<T>> createReaderAsync(Schema<T> schema, List<String> topics,
+			MessageId startMessageId, List<ReaderBuilderCustomizer<T>> customizers) {
+		try {
+			return CompletableFuture.completedFuture(createReader(schema, topics, startMessageId, customizers));
+		}
+		catch (PulsarClientException ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * Close a reader created by this factory and release any reference the factory holds
+	 * to it. By default, this closes the reader.
+	 * @param reader the reader to close
+	 * @return a future completed once the reader is closed
+	 */
+	default CompletableFuture<Void> closeReaderAsync(Reader<?> reader) {
+		return reader.closeAsync();
+	}
+
+	Map<String, Object> getReaderConfig();
+}
@@ -0,0 +1,566 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.logging.LogFactory;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.Reader;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.api.TableView;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.lang.Nullable;
+import org.springframework.pulsar.PulsarException;
+import org.springframework.pulsar.support.CheckpointRestoreCallback;
+import org.springframework.pulsar.support.CheckpointRestoreRegistrar;
+import org.springframework.util.Assert;
+
+/**
+ * A local, continuously updated key/value view of a compacted topic, backed by a Pulsar
+ * {@link TableView}.
+ * <p>
+ * The view is created from the application {@link PulsarClient} when the bean is
+ * initialized. Lookups are served from memory and reflect the latest value of each key;
+ * a message without a payload removes its key. Use {@link #awaitReady(Duration)} or
+ * {@link #setInitialLoadTimeout(Duration)} to wait until the existing content of the
+ * topic has been loaded.
+ * <p>
+ * When {@link #setMaxEntries(int) maxEntries} is set, the view keeps the values of at
+ * most that many keys, evicting the least recently used ones. A {@link TableView} always
+ * holds the whole keyspace, so in this mode the view is fed by a compacted {@link Reader}
+ * instead. Only the values are bounded: the view still remembers the position of the
+ * latest message of every key of the topic, a key and a {@link MessageId} per key, so
+ * that {@link #get(String)} can read an evicted value back. Such a miss is not a local
+ * lookup: it opens a reader on the topic and blocks the caller for a round trip to the
+ * broker, up to the {@link #setLoadTimeout(Duration) load timeout}.
+ * <p>
+ * The underlying table view or reader is closed before a CRaC checkpoint and created
+ * again after restore; lookups keep being served from the entries loaded before the
+ * checkpoint in the meantime.
+ *
+ * @param <T> the message payload type
+ *
+ * @author agent (agent@local)
+ */
+public class PulsarTableView<T> implements InitializingBean, DisposableBean, CheckpointRestoreCallback {
+
+	private final LogAccessor logger = new LogAccessor(LogFactory.getLog(this.getClass()));
+
+	private final PulsarClient pulsarClient;
+
+	private final Schema<T> schema;
+
+	private final String topic;
+
+	private final List<BiConsumer<String, T>> listeners = new CopyOnWriteArrayList<>();
+
+	private final CompletableFuture<Void> initialLoad = new CompletableFuture<>();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	// Keeps the CRaC resource reachable, the CRaC context only holds weak references.
+	private final Object checkpointRestoreResource;
+
+	private int maxEntries = -1;
+
+	@Nullable
+	private Duration initialLoadTimeout;
+
+	private Duration loadTimeout = Duration.ofSeconds(10);
+
+	@Nullable
+	private Map<String, T> boundedEntries;
+
+	// one entry per key of the topic, also for the keys whose value has been evicted.
+	private final Map<String, MessageId> positions = new HashMap<>();
+
+	@Nullable
+	private volatile TableView<T> tableView;
+
+	@Nullable
+	private volatile Reader<T> reader;
+
+	@Nullable
+	private volatile MessageId lastMessageId;
+
+	private volatile boolean started;
+
+	private volatile boolean checkpointed;
+
+	private volatile boolean closed;
+
+	/**
+	 * Construct an instance.
+	 * @param pulsarClient the client used to create the underlying table view
+	 * @param schema the schema of the topic values
+	 * @param topic the compacted topic to view
+	 */
+	public PulsarTableView(PulsarClient pulsarClient, Schema<T> schema, String topic) {
+		Assert.notNull(pulsarClient, "'pulsarClient' cannot be null");
+		Assert.notNull(schema, "'schema' cannot be null");
+		Assert.hasText(topic, "'topic' must not be empty");
+		this.pulsarClient = pulsarClient;
+		this.schema = schema;
+		this.topic = topic;
+		this.checkpointRestoreResource = CheckpointRestoreRegistrar.register(this);
+	}
+
+	/**
+	 * Set the maximum number of values to keep, evicting the least recently used ones
+	 * beyond that. The positions of the evicted keys are still kept, and reading an
+	 * evicted value back costs a round trip to the broker. Default -1, no limit.
+	 * @param maxEntries the maximum number of entries
+	 */
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Set how long {@link #get(String)} waits for an evicted value to be read back from
+	 * the topic when {@link #setMaxEntries(int) maxEntries} is set. Default 10 seconds.
+	 * @param loadTimeout the timeout
+	 */
+	public void setLoadTimeout(Duration loadTimeout) {
+		Assert.notNull(loadTimeout, "'loadTimeout' cannot be null");
+		this.loadTimeout = loadTimeout;
+	}
+
+	/**
+	 * Set how long {@link #afterPropertiesSet()} waits for the initial load of the topic,
+	 * failing the bean initialization when it does not complete in time. Default
+	 * {@code null}, do not wait.
+	 * @param initialLoadTimeout the timeout
+	 */
+	public void setInitialLoadTimeout(@Nullable Duration initialLoadTimeout) {
+		this.initialLoadTimeout = initialLoadTimeout;
+	}
+
+	/**
+	 * Add a listener that is invoked with the key and new value of every entry applied
+	 * to the view after the listener has been added, including those of the initial
+	 * load. The value is {@code null} when the key has been removed. Listeners are
+	 * invoked on the client thread and must not block.
+	 * @param listener the listener
+	 */
+	public void addListener(BiConsumer<String, T> listener) {
+		Assert.notNull(listener, "'listener' cannot be null");
+		this.listeners.add(listener);
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		this.started = true;
+		if (this.maxEntries > 0) {
+			startReader();
+		}
+		else {
+			startTableView();
+		}
+		if (this.initialLoadTimeout != null && !awaitReady(this.initialLoadTimeout)) {
+			throw new PulsarException("Initial load of table view for topic '" + this.topic + "' did not complete within "
+					+ this.initialLoadTimeout);
+		}
+	}
+
+	private void startTableView() {
+		this.pulsarClient.newTableViewBuilder(this.schema)
+				.topic(this.topic)
+				.createAsync()
+				.whenComplete((view, ex) -> {
+					if (ex != null) {
+						this.logger.error(ex, () -> "Failed to create table view for topic '" + this.topic + "'");
+						this.initialLoad.completeExceptionally(ex);
+						return;
+					}
+					this.tableView = view;
+					if (this.closed || this.checkpointed) {
+						view.closeAsync();
+						return;
+					}
+					view.forEachAndListen(this::notifyListeners);
+					this.initialLoad.complete(null);
+				});
+	}
+
+	private void startReader() {
+		this.boundedEntries = new LinkedHashMap<>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+				boolean evict = size() > PulsarTableView.this.maxEntries;
+				if (evict) {
+					PulsarTableView.this.evictionCount.increment();
+				}
+				return evict;
+			}
+
+		};
+		openReader(MessageId.earliest);
+	}
+
+	private void openReader(MessageId startMessageId) {
+		this.pulsarClient.newReader(this.schema)
+				.topic(this.topic)
+				.startMessageId(startMessageId)
+				.readCompacted(true)
+				.createAsync()
+				.whenComplete((createdReader, ex) -> {
+					if (ex != null) {
+						readFailed(ex);
+						return;
+					}
+					this.reader = createdReader;
+					if (this.closed || this.checkpointed) {
+						createdReader.closeAsync();
+						return;
+					}
+					drain(createdReader);
+				});
+	}
+
+	/**
+	 * Applies the messages of the topic for as long as they are already available,
+	 * iterating rather than chaining futures so that a long backlog does not grow the
+	 * stack; resumes from the completion of the first read that has to wait. Stops once
+	 * the reader has been replaced or closed.
+	 */
+	private void drain(Reader<T> currentReader) {
+		while (!this.closed && currentReader == this.reader) {
+			CompletableFuture<Void> read = readNext(currentReader);
+			if (!read.isDone() || read.isCompletedExceptionally()) {
+				read.whenComplete((result, ex) -> {
+					if (ex != null) {
+						if (currentReader == this.reader) {
+							readFailed(ex);
+						}
+					}
+					else {
+						drain(currentReader);
+					}
+				});
+				return;
+			}
+		}
+	}
+
+	private CompletableFuture<Void> readNext(Reader<T> currentReader) {
+		if (this.initialLoad.isDone()) {
+			return currentReader.readNextAsync().thenAccept(this::apply);
+		}
+		return currentReader.hasMessageAvailableAsync().thenCompose(available -> {
+			if (!available) {
+				this.initialLoad.complete(null);
+				return CompletableFuture.completedFuture(null);
+			}
+			return currentReader.readNextAsync().thenAccept(this::apply);
+		});
+	}
+
+	private void readFailed(Throwable ex) {
+		if (!this.initialLoad.isDone()) {
+			this.logger.error(ex, () -> "Failed to load table view for topic '" + this.topic + "'");
+			this.initialLoad.completeExceptionally(ex);
+		}
+		else if (!this.closed) {
+			this.logger.error(ex, () -> "Failed to read from topic '" + this.topic + "', table view stops updating");
+		}
+	}
+
+	private void apply(Message<T> message) {
+		this.lastMessageId = message.getMessageId();
+		if (!message.hasKey()) {
+			return;
+		}
+		String key = message.getKey();
+		T value = message.size() > 0 ? message.getValue() : null;
+		synchronized (this.boundedEntries) {
+			if (value != null) {
+				this.boundedEntries.put(key, value);
+				this.positions.put(key, message.getMessageId());
+			}
+			else {
+				this.boundedEntries.remove(key);
+				this.positions.remove(key);
+			}
+		}
+		notifyListeners(key, value);
+	}
+
+	private void notifyListeners(String key, @Nullable T value) {
+		for (BiConsumer<String, T> listener : this.listeners) {
+			try {
+				listener.accept(key, value);
+			}
+			catch (RuntimeException ex) {
+				this.logger.error(ex, () -> "Table view listener failed for key '" + key + "'");
+			}
+		}
+	}
+
+	/**
+	 * Return whether the existing content of the topic has been loaded.
+	 * @return true if the view is ready
+	 */
+	public boolean isReady() {
+		return this.initialLoad.isDone() && !this.initialLoad.isCompletedExceptionally();
+	}
+
+	/**
+	 * Wait for the existing content of the topic to be loaded.
+	 * @param timeout the maximum time to wait
+	 * @return true if the view is ready, false if the timeout elapsed first
+	 * @throws PulsarException if the view could not be created
+	 */
+	public boolean awaitReady(Duration timeout) {
+		try {
+			this.initialLoad.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+			return true;
+		}
+		catch (TimeoutException ex) {
+			return false;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		catch (ExecutionException ex) {
+			throw new PulsarException("Failed to load table view for topic '" + this.topic + "'", ex.getCause());
+		}
+	}
+
+	/**
+	 * Return the value of a key. When {@link #setMaxEntries(int) maxEntries} is set and
+	 * the value has been evicted, it is read back from the topic through a new reader,
+	 * blocking the caller for up to the {@link #setLoadTimeout(Duration) load timeout}.
+	 * @param key the key
+	 * @return the value or {@code null} if the key is not in the view
+	 * @throws PulsarException if an evicted value could not be read back
+	 */
+	@Nullable
+	public T get(String key) {
+		TableView<T> view = this.tableView;
+		if (view != null) {
+			return view.get(key);
+		}
+		if (this.boundedEntries == null) {
+			return null;
+		}
+		MessageId position;
+		synchronized (this.boundedEntries) {
+			T value = this.boundedEntries.get(key);
+			if (value != null) {
+				return value;
+			}
+			position = this.positions.get(key);
+		}
+		return position != null ? load(key, position) : null;
+	}
+
+	@Nullable
+	private T load(String key, MessageId position) {
+		Message<T> message;
+		try (Reader<T> loader = this.pulsarClient.newReader(this.schema)
+				.topic(this.topic)
+				.startMessageId(position)
+				.startMessageIdInclusive()
+				.readCompacted(true)
+				.create()) {
+			message = loader.readNext((int) this.loadTimeout.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (IOException ex) {
+			throw new PulsarException("Failed to load key '" + key + "' from topic '" + this.topic + "'", ex);
+		}
+		if (message == null || !message.getMessageId().equals(position) || !key.equals(message.getKey())) {
+			return null;
+		}
+		T value = message.getValue();
+		synchronized (this.boundedEntries) {
+			// an update read in the meantime takes precedence.
+			if (Objects.equals(this.positions.get(key), position)) {
+				this.boundedEntries.put(key, value);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Return the value of a key, or a default value if the key is not in the view.
+	 * @param key the key
+	 * @param defaultValue the default value
+	 * @return the value
+	 */
+	public T getOrDefault(String key, T defaultValue) {
+		T value = get(key);
+		return value != null ? value : defaultValue;
+	}
+
+	/**
+	 * Return whether the view contains a key.
+	 * @param key the key
+	 * @return true if the key is in the view
+	 */
+	public boolean containsKey(String key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Return the number of entries in the view. When {@link #setMaxEntries(int)
+	 * maxEntries} is set, only the entries whose value is kept are counted.
+	 * @return the number of entries
+	 */
+	public int size() {
+		TableView<T> view = this.tableView;
+		if (view != null) {
+			return view.size();
+		}
+		if (this.boundedEntries != null) {
+			synchronized (this.boundedEntries) {
+				return this.boundedEntries.size();
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Return whether the view is empty.
+	 * @return true if the view has no entries
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Return a snapshot of the entries of the view.
+	 * @return an unmodifiable copy of the entries
+	 */
+	public Map<String, T> toMap() {
+		TableView<T> view = this.tableView;
+		Map<String, T> snapshot = new HashMap<>();
+		if (view != null) {
+			view.forEach(snapshot::put);
+		}
+		else if (this.boundedEntries != null) {
+			synchronized (this.boundedEntries) {
+				snapshot.putAll(this.boundedEntries);
+			}
+		}
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	/**
+	 * Return a snapshot of the keys of the view.
+	 * @return an unmodifiable copy of the keys
+	 */
+	public Set<String> keySet() {
+		return toMap().keySet();
+	}
+
+	/**
+	 * Return the number of entries evicted because {@link #setMaxEntries(int) maxEntries}
+	 * was exceeded.
+	 * @return the eviction count
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.sum();
+	}
+
+	/**
+	 * Return the topic of this view.
+	 * @return the topic
+	 */
+	public String getTopic() {
+		return this.topic;
+	}
+
+	@Override
+	public void beforeCheckpoint() {
+		if (!this.started || this.closed) {
+			return;
+		}
+		this.checkpointed = true;
+		this.logger.info(() -> "Closing table view for topic '" + this.topic + "' before checkpoint");
+		TableView<T> view = this.tableView;
+		if (view != null) {
+			view.closeAsync().join();
+		}
+		Reader<T> currentReader = this.reader;
+		this.reader = null;
+		if (currentReader != null) {
+			currentReader.closeAsync().join();
+		}
+	}
+
+	@Override
+	public void afterRestore() {
+		if (!this.checkpointed) {
+			return;
+		}
+		this.checkpointed = false;
+		if (this.closed) {
+			return;
+		}
+		this.logger.info(() -> "Creating table view for topic '" + this.topic + "' after restore");
+		if (this.boundedEntries != null) {
+			MessageId resumeFrom = this.lastMessageId;
+			// the reader is exclusive of its start message, so it resumes after the last one applied.
+			openReader(resumeFrom != null ? resumeFrom : MessageId.earliest);
+		}
+		else {
+			startTableView();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		this.closed = true;
+		TableView<T> view = this.tableView;
+		if (view != null) {
+			view.closeAsync().exceptionally(ex -> {
+				this.logger.warn(ex, () -> "Failed to close table view for topic '" + this.topic + "'");
+				return null;
+			});
+		}
+		Reader<T> currentReader = this.reader;
+		if (currentReader != null) {
+			currentReader.closeAsync().exceptionally(ex -> {
+				this.logger.warn(ex, () -> "Failed to close reader for topic '" + this.topic + "'");
+				return null;
+			});
+		}
+	}
+}
@@ -16,37 +16,134 @@
 
 package org.springframework.pulsar.core;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.LogFactory;
+import org.apache.pulsar.client.api.BatchReceivePolicy;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
 import org.apache.pulsar.client.api.MessageId;
 import org.apache.pulsar.client.api.MessageRouter;
 import org.apache.pulsar.client.api.Producer;
 import org.apache.pulsar.client.api.PulsarClientException;
 import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.api.SubscriptionMode;
+import org.apache.pulsar.client.api.SubscriptionType;
+import org.apache.pulsar.client.api.TypedMessageBuilder;
+import org.apache.pulsar.client.api.transaction.Transaction;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.core.log.LogAccessor;
+import org.springframework.pulsar.PulsarException;
+import org.springframework.pulsar.support.CheckpointRestoreCallback;
+import org.springframework.pulsar.support.CheckpointRestoreRegistrar;
+import org.springframework.pulsar.support.PulsarHeaders;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
 
 /**
  * A thread-safe template for executing high-level Pulsar operations.
+ * <p>
+ * To use {@link #sendAndReceive(String, Object, Duration)}, configure the reply topic
+ * along with the consumer factory and schema used to consume the replies. All the
+ * requests of a template share a single, lazily created reply consumer, so each
+ * template instance should have its own reply topic.
+ * <p>
+ * When configured with a {@link #setTransactionFactory(PulsarTransactionFactory)
+ * transaction factory}, messages sent from a listener of a transactional container are
+ * sent in the container's transaction. Producers used in transactions must have their
+ * send timeout disabled ({@code sendTimeoutMs} set to 0).
  *
  * @param <T> the message payload type
  *
  * @author Soby Chacko
  * @author Chris Bono
  */
-public class PulsarTemplate<T> implements PulsarOperations<T> {
+public class PulsarTemplate<T> implements PulsarOperations<T>, DisposableBean, CheckpointRestoreCallback {
 
 	private final LogAccessor logger = new LogAccessor(LogFactory.getLog(this.getClass()));
 
 	private final PulsarProducerFactory<T> producerFactory;
 
+	private final Map<String, CompletableFuture<Object>> pendingReplies = new ConcurrentHashMap<>();
+
+	private final Object replyConsumerMonitor = new Object();
+
+	// Keeps the CRaC resource reachable, the CRaC context only holds weak references.
+	private final Object checkpointRestoreResource;
+
+	private PulsarConsumerFactory<?> replyConsumerFactory;
+
+	private Schema<?> replySchema;
+
+	private String replyTopic;
+
+	private String replySubscriptionName;
+
+	private volatile Consumer<?> replyConsumer;
+
+	private PulsarTransactionFactory transactionFactory;
+
 	/**
 	 * Constructs a template instance.
 	 * @param producerFactory the producer factory used to create the backing Pulsar producers.
 	 */
 	public PulsarTemplate(PulsarProducerFactory<T> producerFactory) {
 		this.producerFactory = producerFactory;
+		this.checkpointRestoreResource = CheckpointRestoreRegistrar.register(this);
+	}
+
+	/**
+	 * Set the consumer factory used to create the consumer of the replies.
+	 * @param replyConsumerFactory the reply consumer factory
+	 */
+	public void setReplyConsumerFactory(PulsarConsumerFactory<?> replyConsumerFactory) {
+		this.replyConsumerFactory = replyConsumerFactory;
+	}
+
+	/**
+	 * Set the schema of the replies.
+	 * @param replySchema the reply schema
+	 */
+	public void setReplySchema(Schema<?> replySchema) {
+		this.replySchema = replySchema;
+	}
+
+	/**
+	 * Set the topic the replies are sent to.
+	 * @param replyTopic the reply topic
+	 */
+	public void setReplyTopic(String replyTopic) {
+		this.replyTopic = replyTopic;
+	}
+
+	/**
+	 * Set the name of the reply subscription. By default, a non-durable subscription
+	 * with a random name is used, so that replies sent while the application is down
+	 * are not retained.
+	 * @param replySubscriptionName the reply subscription name
+	 */
+	public void setReplySubscriptionName(String replySubscriptionName) {
+		this.replySubscriptionName = replySubscriptionName;
+	}
+
+	/**
+	 * Set the transaction factory of the listener containers whose transactions the
+	 * messages are sent in. Messages sent outside of a container transaction are sent
+	 * without a transaction.
+	 * @param transactionFactory the transaction factory
+	 */
+	public void setTransactionFactory(PulsarTransactionFactory transactionFactory) {
+		this.transactionFactory = transactionFactory;
 	}
 
 	@Override
@@ -61,10 +158,22 @@ public class PulsarTemplate<T> implements PulsarOperations<T> {
 
 	@Override
 	public CompletableFuture<MessageId> sendAsync(String topic, T message, MessageRouter messageRouter) throws PulsarClientException {
+		return sendAsync(topic, message, messageRouter, null);
+	}
+
+	@Override
+	public CompletableFuture<MessageId> sendAsync(String topic, T message, MessageRouter messageRouter,
+			TypedMessageBuilderCustomizer<T> typedMessageBuilderCustomizer) throws PulsarClientException {
 		final String topicName = ProducerUtils.resolveTopicName(topic, this.producerFactory);
 		this.logger.trace(() -> String.format("Sending msg to '%s' topic", topicName));
 		final Producer<T> producer = prepareProducerForSend(topic, message, messageRouter);
-		return producer.sendAsync(message)
+		final Transaction transaction = getCurrentTransaction();
+		final TypedMessageBuilder<T> messageBuilder = (transaction != null ? producer.newMessage(transaction)
+				: producer.newMessage()).value(message);
+		if (typedMessageBuilderCustomizer != null) {
+			typedMessageBuilderCustomizer.customize(messageBuilder);
+		}
+		return messageBuilder.sendAsync()
 				.whenComplete((msgId, ex) -> {
 					if (ex == null) {
 						this.logger.trace(() -> String.format("Sent msg to '%s' topic", topicName));
@@ -78,8 +187,208 @@ public class PulsarTemplate<T> implements PulsarOperations<T> {
 				});
 	}
 
+	@Override
+	public SendMessageBuilder<T> newMessage(T message) {
+		return new SendMessageBuilderImpl<>(this, message);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <R> CompletableFuture<R> sendAndReceive(String topic, T request, Duration timeout) throws PulsarClientException {
+		Assert.notNull(timeout, "'timeout' cannot be null");
+		ensureReplyConsumer();
+		final String correlationId = UUID.randomUUID().toString();
+		final CompletableFuture<Object> reply = new CompletableFuture<>();
+		this.pendingReplies.put(correlationId, reply);
+		reply.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+				.whenComplete((result, ex) -> this.pendingReplies.remove(correlationId));
+		try {
+			sendAsync(topic, request, null, messageBuilder -> messageBuilder
+					.property(PulsarHeaders.CORRELATION_ID, correlationId)
+					.property(PulsarHeaders.REPLY_TOPIC, this.replyTopic))
+					.whenComplete((msgId, ex) -> {
+						if (ex != null) {
+							reply.completeExceptionally(ex);
+						}
+					});
+		}
+		catch (PulsarClientException | RuntimeException ex) {
+			reply.completeExceptionally(ex);
+			throw ex;
+		}
+		return (CompletableFuture<R>) reply;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private void ensureReplyConsumer() throws PulsarClientException {
+		if (this.replyConsumer != null) {
+			return;
+		}
+		synchronized (this.replyConsumerMonitor) {
+			if (this.replyConsumer != null) {
+				return;
+			}
+			Assert.state(this.replyConsumerFactory != null && this.replySchema != null && this.replyTopic != null,
+					"The reply consumer factory, schema and topic must be set to send requests");
+			boolean durable = this.replySubscriptionName != null;
+			Map<String, Object> propertiesToOverride = new HashMap<>();
+			propertiesToOverride.put("topicNames", Set.of(this.replyTopic));
+			propertiesToOverride.put("subscriptionName",
+					durable ? this.replySubscriptionName : "reply-" + UUID.randomUUID());
+			List<ConsumerBuilderCustomizer<Object>> customizers = List.of(builder -> {
+				builder.subscriptionType(SubscriptionType.Exclusive).messageListener(this::handleReply);
+				if (!durable) {
+					builder.subscriptionMode(SubscriptionMode.NonDurable);
+				}
+			});
+			this.replyConsumer = ((PulsarConsumerFactory) this.replyConsumerFactory).createConsumer(this.replySchema,
+					BatchReceivePolicy.DEFAULT_POLICY, propertiesToOverride, (List) customizers);
+		}
+	}
+
+	private void handleReply(Consumer<Object> consumer, Message<Object> message) {
+		consumer.acknowledgeAsync(message);
+		String correlationId = message.getProperty(PulsarHeaders.CORRELATION_ID);
+		CompletableFuture<Object> reply = correlationId != null ? this.pendingReplies.remove(correlationId) : null;
+		if (reply == null) {
+			this.logger.debug(() -> String.format("Discarding reply %s without a pending request (correlation id %s)",
+					message.getMessageId(), correlationId));
+			return;
+		}
+		try {
+			reply.complete(message.getValue());
+		}
+		catch (RuntimeException ex) {
+			reply.completeExceptionally(ex);
+		}
+	}
+
+	private Transaction getCurrentTransaction() {
+		if (this.transactionFactory == null) {
+			return null;
+		}
+		return (Transaction) TransactionSynchronizationManager.getResource(this.transactionFactory);
+	}
+
 	private Producer<T> prepareProducerForSend(String topic, T message, MessageRouter messageRouter) throws PulsarClientException {
 		Schema<T> schema = SchemaUtils.getSchema(message);
 		return this.producerFactory.createProducer(topic, schema, messageRouter);
 	}
+
+	@Override
+	public void destroy() {
+		closeReplyConsumer("Template destroyed before the reply was received");
+	}
+
+	/**
+	 * Close the reply consumer before a checkpoint, failing the pending requests. The
+	 * consumer is created again by the next request after restore.
+	 */
+	@Override
+	public void beforeCheckpoint() {
+		closeReplyConsumer("Checkpoint taken before the reply was received");
+	}
+
+	@Override
+	public void afterRestore() {
+		// The reply consumer is created again by the next request.
+	}
+
+	private void closeReplyConsumer(String pendingReplyFailure) {
+		Consumer<?> consumer;
+		synchronized (this.replyConsumerMonitor) {
+			consumer = this.replyConsumer;
+			this.replyConsumer = null;
+		}
+		this.pendingReplies.values().forEach(reply -> reply.completeExceptionally(
+				new PulsarException(pendingReplyFailure)));
+		if (consumer != null) {
+			this.replyConsumerFactory.closeConsumerAsync(consumer);
+		}
+	}
+
+	private static final class SendMessageBuilderImpl<T> implements SendMessageBuilder<T> {
+
+		private final PulsarTemplate<T> template;
+
+		private final T message;
+
+		private final List<TypedMessageBuilderCustomizer<T>> messageCustomizers = new ArrayList<>();
+
+		private String topic;
+
+		private MessageRouter messageRouter;
+
+		SendMessageBuilderImpl(PulsarTemplate<T> template, T message) {
+			this.template = template;
+			this.message = message;
+		}
+
+		@Override
+		public SendMessageBuilder<T> withTopic(String topic) {
+			this.topic = topic;
+			return this;
+		}
+
+		@Override
+		public SendMessageBuilder<T> withMessageRouter(MessageRouter messageRouter) {
+			this.messageRouter = messageRouter;
+			return this;
+		}
+
+		@Override
+		public SendMessageBuilder<T> withKey(String key) {
+			return withMessageCustomizer(messageBuilder -> messageBuilder.key(key));
+		}
+
+		@Override
+		public SendMessageBuilder<T> withOrderingKey(byte[] orderingKey) {
+			return withMessageCustomizer(messageBuilder -> messageBuilder.orderingKey(orderingKey));
+		}
+
+		@Override
+		public SendMessageBuilder<T> withProperty(String name, String value) {
+			return withMessageCustomizer(messageBuilder -> messageBuilder.property(name, value));
+		}
+
+		@Override
+		public SendMessageBuilder<T> withEventTime(long eventTime) {
+			return withMessageCustomizer(messageBuilder -> messageBuilder.eventTime(eventTime));
+		}
+
+		@Override
+		public SendMessageBuilder<T> withDeliverAfter(Duration delay) {
+			Assert.notNull(delay, "'delay' cannot be null");
+			return withMessageCustomizer(
+					messageBuilder -> messageBuilder.deliverAfter(delay.toMillis(), TimeUnit.MILLISECONDS));
+		}
+
+		@Override
+		public SendMessageBuilder<T> withMessageCustomizer(TypedMessageBuilderCustomizer<T> messageCustomizer) {
+			Assert.notNull(messageCustomizer, "'messageCustomizer' cannot be null");
+			this.messageCustomizers.add(messageCustomizer);
+			return this;
+		}
+
+		@Override
+		public MessageId send() throws PulsarClientException {
+			try {
+				return sendAsync().get();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw PulsarClientException.unwrap(ex);
+			}
+			catch (Exception ex) {
+				throw PulsarClientException.unwrap(ex);
+			}
+		}
+
+		@Override
+		public CompletableFuture<MessageId> sendAsync() throws PulsarClientException {
+			List<TypedMessageBuilderCustomizer<T>> customizers = List.copyOf(this.messageCustomizers);
+			return this.template.sendAsync(this.topic, this.message, this.messageRouter,
+					messageBuilder -> customizers.forEach(customizer -> customizer.customize(messageBuilder)));
+		}
+	}
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.apache.pulsar.client.api.transaction.Transaction;
+
+/**
+ * The strategy to create the Pulsar {@link Transaction transactions} that messages are
+ * sent and acknowledged in.
+ * <p>
+ * A listener container configured with a transaction factory binds its current
+ * transaction to the consumer thread, using the factory as the key. A
+ * {@link PulsarTemplate} configured with the same factory sends its messages in that
+ * transaction.
+ *
+ * @author agent (agent@local)
+ * @see PulsarTemplate#setTransactionFactory(PulsarTransactionFactory)
+ */
+public interface PulsarTransactionFactory {
+
+	/**
+	 * Create and open a transaction.
+	 * @return the open transaction
+	 * @throws PulsarClientException if any error occurs
+	 */
+	Transaction createTransaction() throws PulsarClientException;
+}
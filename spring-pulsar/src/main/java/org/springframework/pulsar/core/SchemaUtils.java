@@ -32,7 +32,19 @@ public final class SchemaUtils {
 
 	@SuppressWarnings("unchecked")
 	public static <T>  Schema<T> getSchema(T message) {
-		final String clazzName = message.getClass().getName();
+		return (Schema<T>) getSchema(message.getClass());
+	}
+
+	/**
+	 * Infer the schema for a payload type, falling back to a JSON schema for types that
+	 * do not map to a primitive schema.
+	 * @param type the payload type
+	 * @param <T> the payload type
+	 * @return the schema
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Schema<T> getSchema(Class<T> type) {
+		final String clazzName = type.getName();
 		return switch (clazzName) {
 			case "java.lang.String" -> (Schema<T>) Schema.STRING;
 			case "[B" -> (Schema<T>) Schema.BYTES;
@@ -49,7 +61,7 @@ public final class SchemaUtils {
 			case "java.time.LocalDate" -> (Schema<T>) Schema.LOCAL_DATE;
 			case "java.time.LocalDateTime" -> (Schema<T>) Schema.LOCAL_DATE_TIME;
 			case "java.time.LocalTime" -> (Schema<T>) Schema.LOCAL_TIME;
-			default -> (Schema<T>) JSONSchema.of(message.getClass());
+			default -> JSONSchema.of(type);
 		};
 	}
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.event;
+
+/**
+ * Event to publish when the consumer fails to receive messages. The consumer thread
+ * keeps running and retries after a back off.
+ *
+ * @author agent (agent@local)
+ */
+public class ConsumerFailedEvent extends PulsarEvent {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient Throwable cause;
+
+	private final int failedAttempts;
+
+	/**
+	 * Construct an instance with the provided source, container and failure.
+	 * @param source the container instance that generated the event.
+	 * @param container the container or the parent container if the container is a child.
+	 * @param cause the exception thrown while receiving messages.
+	 * @param failedAttempts the number of consecutive failed attempts, including this one.
+	 */
+	public ConsumerFailedEvent(Object source, Object container, Throwable cause, int failedAttempts) {
+		super(source, container);
+		this.cause = cause;
+		this.failedAttempts = failedAttempts;
+	}
+
+	public Throwable getCause() {
+		return this.cause;
+	}
+
+	public int getFailedAttempts() {
+		return this.failedAttempts;
+	}
+
+	@Override
+	public String toString() {
+		return "ConsumerFailedEvent [source=" + getSource() + ", failedAttempts=" + this.failedAttempts
+				+ ", cause=" + this.cause + "]";
+	}
+}
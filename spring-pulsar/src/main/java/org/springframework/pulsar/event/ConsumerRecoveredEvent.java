@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.event;
+
+/**
+ * Event to publish when the consumer receives messages again after one or more failed
+ * attempts.
+ *
+ * @author agent (agent@local)
+ */
+public class ConsumerRecoveredEvent extends PulsarEvent {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int failedAttempts;
+
+	/**
+	 * Construct an instance with the provided source and container.
+	 * @param source the container instance that generated the event.
+	 * @param container the container or the parent container if the container is a child.
+	 * @param failedAttempts the number of consecutive failed attempts before recovering.
+	 */
+	public ConsumerRecoveredEvent(Object source, Object container, int failedAttempts) {
+		super(source, container);
+		this.failedAttempts = failedAttempts;
+	}
+
+	public int getFailedAttempts() {
+		return this.failedAttempts;
+	}
+
+	@Override
+	public String toString() {
+		return "ConsumerRecoveredEvent [source=" + getSource() + ", failedAttempts=" + this.failedAttempts + "]";
+	}
+}
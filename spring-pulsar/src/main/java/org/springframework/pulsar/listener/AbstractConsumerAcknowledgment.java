@@ -0,0 +1,165 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.PulsarClientException;
+
+import org.springframework.util.Assert;
+
+/**
+ * Base {@link Acknowledgement} that records the acknowledged messages in the message
+ * deduplicator, if any, and removes the negatively acknowledged ones from it.
+ *
+ * @author agent (agent@local)
+ */
+abstract class AbstractConsumerAcknowledgment implements Acknowledgement {
+
+	protected final Consumer<?> consumer;
+
+	private final boolean cumulativeSupported;
+
+	private final Map<MessageId, Message<?>> messages = new LinkedHashMap<>();
+
+	private final MessageDeduplicatorInvoker deduplicator;
+
+	AbstractConsumerAcknowledgment(Consumer<?> consumer, Iterable<? extends Message<?>> messages,
+			boolean cumulativeSupported, MessageDeduplicatorInvoker deduplicator) {
+		this.consumer = consumer;
+		messages.forEach(message -> this.messages.put(message.getMessageId(), message));
+		this.cumulativeSupported = cumulativeSupported;
+		this.deduplicator = deduplicator;
+	}
+
+	/**
+	 * Return the ids of the messages passed to the listener.
+	 * @return the message ids
+	 */
+	protected List<MessageId> messageIds() {
+		return new ArrayList<>(this.messages.keySet());
+	}
+
+	/**
+	 * Return the id of the last message passed to the listener.
+	 * @return the message id
+	 */
+	protected MessageId lastMessageId() {
+		List<MessageId> messageIds = messageIds();
+		Assert.state(!messageIds.isEmpty(), "No message to acknowledge");
+		return messageIds.get(messageIds.size() - 1);
+	}
+
+	@Override
+	public void acknowledge(MessageId messageId) {
+		try {
+			this.consumer.acknowledge(messageId);
+			acknowledged(messageId);
+		}
+		catch (PulsarClientException e) {
+			nack(messageId);
+		}
+	}
+
+	@Override
+	public void acknowledge(List<MessageId> messageIds) {
+		try {
+			this.consumer.acknowledge(messageIds);
+			messageIds.forEach(this::acknowledged);
+		}
+		catch (PulsarClientException e) {
+			for (MessageId messageId : messageIds) {
+				acknowledge(messageId);
+			}
+		}
+	}
+
+	@Override
+	public void nack(MessageId messageId) {
+		this.consumer.negativeAcknowledge(messageId);
+		Message<?> message = this.messages.get(messageId);
+		if (message != null) {
+			this.deduplicator.forget(List.of(message));
+		}
+	}
+
+	@Override
+	public void acknowledgeCumulative() {
+		acknowledgeCumulative(lastMessageId());
+	}
+
+	@Override
+	public void acknowledgeCumulative(MessageId messageId) {
+		assertCumulativeSupported();
+		try {
+			this.consumer.acknowledgeCumulative(messageId);
+			acknowledgedCumulative(messageId);
+		}
+		catch (PulsarClientException e) {
+			this.consumer.negativeAcknowledge(messageId);
+		}
+	}
+
+	@Override
+	public CompletableFuture<Void> acknowledgeAsync(MessageId messageId) {
+		return this.consumer.acknowledgeAsync(messageId).thenRun(() -> acknowledged(messageId));
+	}
+
+	@Override
+	public CompletableFuture<Void> acknowledgeAsync(List<MessageId> messageIds) {
+		return this.consumer.acknowledgeAsync(messageIds).thenRun(() -> messageIds.forEach(this::acknowledged));
+	}
+
+	@Override
+	public CompletableFuture<Void> acknowledgeCumulativeAsync() {
+		return acknowledgeCumulativeAsync(lastMessageId());
+	}
+
+	@Override
+	public CompletableFuture<Void> acknowledgeCumulativeAsync(MessageId messageId) {
+		assertCumulativeSupported();
+		return this.consumer.acknowledgeCumulativeAsync(messageId)
+				.thenRun(() -> acknowledgedCumulative(messageId));
+	}
+
+	private void assertCumulativeSupported() {
+		Assert.state(this.cumulativeSupported,
+				"Cumulative acknowledgement is not supported for Shared and Key_Shared subscriptions");
+	}
+
+	private void acknowledgedCumulative(MessageId messageId) {
+		for (MessageId acknowledged : this.messages.keySet()) {
+			if (acknowledged.compareTo(messageId) <= 0) {
+				acknowledged(acknowledged);
+			}
+		}
+	}
+
+	private void acknowledged(MessageId messageId) {
+		Message<?> message = this.messages.get(messageId);
+		if (message != null) {
+			this.deduplicator.record(List.of(message));
+		}
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.apache.pulsar.client.api.Message;
+
+import org.springframework.util.Assert;
+
+/**
+ * Base class for {@link MessageDeduplicator} implementations that identify messages by a
+ * key extracted from them, the message id by default, and keep hit-rate metrics.
+ * Messages for which the extractor returns {@code null} are never considered
+ * duplicates.
+ *
+ * @author agent (agent@local)
+ */
+public abstract class AbstractMessageDeduplicator implements MessageDeduplicator {
+
+	private final Function<Message<?>, ?> keyExtractor;
+
+	private final LongAdder lookupCount = new LongAdder();
+
+	private final LongAdder duplicateCount = new LongAdder();
+
+	protected AbstractMessageDeduplicator(Function<Message<?>, ?> keyExtractor) {
+		Assert.notNull(keyExtractor, "'keyExtractor' cannot be null");
+		this.keyExtractor = keyExtractor;
+	}
+
+	@Override
+	public final boolean isDuplicate(Message<?> message) {
+		Object key = this.keyExtractor.apply(message);
+		if (key == null) {
+			return false;
+		}
+		this.lookupCount.increment();
+		boolean duplicate = contains(key);
+		if (duplicate) {
+			this.duplicateCount.increment();
+		}
+		return duplicate;
+	}
+
+	@Override
+	public final void record(Message<?> message) {
+		Object key = this.keyExtractor.apply(message);
+		if (key != null) {
+			add(key);
+		}
+	}
+
+	@Override
+	public final void forget(Message<?> message) {
+		Object key = this.keyExtractor.apply(message);
+		if (key != null) {
+			remove(key);
+		}
+	}
+
+	@Override
+	public long getLookupCount() {
+		return this.lookupCount.sum();
+	}
+
+	@Override
+	public long getDuplicateCount() {
+		return this.duplicateCount.sum();
+	}
+
+	/**
+	 * Return whether the key has been recorded and has not expired.
+	 * @param key the message key
+	 * @return true if the key is recorded
+	 */
+	protected abstract boolean contains(Object key);
+
+	/**
+	 * Record a key, restarting its time to live if it is already recorded.
+	 * @param key the message key
+	 */
+	protected abstract void add(Object key);
+
+	/**
+	 * Remove a recorded key.
+	 * @param key the message key
+	 */
+	protected abstract void remove(Object key);
+}
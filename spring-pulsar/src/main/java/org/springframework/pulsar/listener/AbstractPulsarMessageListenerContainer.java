@@ -27,9 +27,14 @@ import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.core.log.LogAccessor;
 import org.springframework.lang.Nullable;
 import org.springframework.pulsar.core.PulsarConsumerFactory;
+import org.springframework.pulsar.support.CheckpointRestoreCallback;
+import org.springframework.pulsar.support.CheckpointRestoreRegistrar;
 
 /**
  * Base implementation for the {@link PulsarMessageListenerContainer}.
+ * <p>
+ * A running container is stopped before a CRaC checkpoint, which closes its consumer,
+ * and started again after restore, which subscribes again.
  *
  * @param <T> message type.
  *
@@ -37,7 +42,7 @@ import org.springframework.pulsar.core.PulsarConsumerFactory;
  */
 public abstract class AbstractPulsarMessageListenerContainer<T>
 		implements PulsarMessageListenerContainer, BeanNameAware, ApplicationEventPublisherAware,
-		ApplicationContextAware {
+		ApplicationContextAware, CheckpointRestoreCallback {
 
 	protected final LogAccessor logger = new LogAccessor(LogFactory.getLog(this.getClass())); // NOSONAR
 
@@ -52,12 +57,41 @@ public abstract class AbstractPulsarMessageListenerContainer<T>
 	private boolean autoStartup = true;
 	private int phase;
 
+	private PulsarConsumerErrorHandler<T> pulsarConsumerErrorHandler;
+
+	private RecordFilterStrategy<T> recordFilterStrategy;
+
+	private MessageDeduplicator messageDeduplicator;
+
+	// Keeps the CRaC resource reachable, the CRaC context only holds weak references.
+	private final Object checkpointRestoreResource;
+
+	private volatile boolean runningBeforeCheckpoint;
+
 	@SuppressWarnings("unchecked")
 	protected AbstractPulsarMessageListenerContainer(PulsarConsumerFactory<? super T> pulsarConsumerFactory,
 													PulsarContainerProperties pulsarContainerProperties) {
 		this.pulsarContainerProperties = pulsarContainerProperties;
 		this.pulsarConsumerFactory = (PulsarConsumerFactory<T>) pulsarConsumerFactory;
+		this.checkpointRestoreResource = CheckpointRestoreRegistrar.register(this);
+	}
+
+	@Override
+	public void beforeCheckpoint() {
+		this.runningBeforeCheckpoint = isRunning();
+		if (this.runningBeforeCheckpoint) {
+			this.logger.info(() -> "Stopping container " + getBeanName() + " before checkpoint");
+			stop();
+		}
+	}
 
+	@Override
+	public void afterRestore() {
+		if (this.runningBeforeCheckpoint) {
+			this.runningBeforeCheckpoint = false;
+			this.logger.info(() -> "Starting container " + getBeanName() + " after restore");
+			start();
+		}
 	}
 
 		@Override
@@ -122,6 +156,47 @@ public abstract class AbstractPulsarMessageListenerContainer<T>
 	}
 
 
+	/**
+	 * Set the error handler to call when a record listener throws an exception.
+	 * @param pulsarConsumerErrorHandler the error handler.
+	 */
+	public void setPulsarConsumerErrorHandler(PulsarConsumerErrorHandler<T> pulsarConsumerErrorHandler) {
+		this.pulsarConsumerErrorHandler = pulsarConsumerErrorHandler;
+	}
+
+	@Nullable
+	public PulsarConsumerErrorHandler<T> getPulsarConsumerErrorHandler() {
+		return this.pulsarConsumerErrorHandler;
+	}
+
+	/**
+	 * Set the strategy used to discard messages before they reach the listener.
+	 * Discarded messages are acknowledged without being deserialized.
+	 * @param recordFilterStrategy the filter strategy.
+	 */
+	public void setRecordFilterStrategy(RecordFilterStrategy<T> recordFilterStrategy) {
+		this.recordFilterStrategy = recordFilterStrategy;
+	}
+
+	@Nullable
+	public RecordFilterStrategy<T> getRecordFilterStrategy() {
+		return this.recordFilterStrategy;
+	}
+
+	/**
+	 * Set the deduplicator used to discard messages that have already been processed.
+	 * Duplicates are acknowledged without reaching the listener.
+	 * @param messageDeduplicator the deduplicator.
+	 */
+	public void setMessageDeduplicator(MessageDeduplicator messageDeduplicator) {
+		this.messageDeduplicator = messageDeduplicator;
+	}
+
+	@Nullable
+	public MessageDeduplicator getMessageDeduplicator() {
+		return this.messageDeduplicator;
+	}
+
 	public void setPhase(int phase) {
 		this.phase = phase;
 	}
@@ -17,9 +17,15 @@
 package org.springframework.pulsar.listener;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.pulsar.client.api.MessageId;
 
+/**
+ * Handle for acknowledging the messages passed to a listener in manual ack mode.
+ *
+ * @author agent (agent@local)
+ */
 public interface Acknowledgement {
 
 	void acknowledge();
@@ -31,4 +37,52 @@ public interface Acknowledgement {
 	void nack();
 
 	void nack(MessageId messageId);
+
+	/**
+	 * Acknowledge the reception of all the messages up to and including the message (or
+	 * the last message of the batch) passed to the listener. Cumulative acknowledgement
+	 * is not supported for Shared and Key_Shared subscriptions.
+	 */
+	void acknowledgeCumulative();
+
+	/**
+	 * Acknowledge the reception of all the messages up to and including the given one.
+	 * Cumulative acknowledgement is not supported for Shared and Key_Shared subscriptions.
+	 * @param messageId the id of the last message to acknowledge
+	 */
+	void acknowledgeCumulative(MessageId messageId);
+
+	/**
+	 * Asynchronously acknowledge the message (or all the messages of the batch) passed to
+	 * the listener.
+	 * @return a future completed once the acknowledgement is sent
+	 */
+	CompletableFuture<Void> acknowledgeAsync();
+
+	/**
+	 * Asynchronously acknowledge a single message.
+	 * @param messageId the id of the message to acknowledge
+	 * @return a future completed once the acknowledgement is sent
+	 */
+	CompletableFuture<Void> acknowledgeAsync(MessageId messageId);
+
+	/**
+	 * Asynchronously acknowledge multiple messages.
+	 * @param messageIds the ids of the messages to acknowledge
+	 * @return a future completed once the acknowledgement is sent
+	 */
+	CompletableFuture<Void> acknowledgeAsync(List<MessageId> messageIds);
+
+	/**
+	 * Asynchronous variant of {@link #acknowledgeCumulative()}.
+	 * @return a future completed once the acknowledgement is sent
+	 */
+	CompletableFuture<Void> acknowledgeCumulativeAsync();
+
+	/**
+	 * Asynchronous variant of {@link #acknowledgeCumulative(MessageId)}.
+	 * @param messageId the id of the last message to acknowledge
+	 * @return a future completed once the acknowledgement is sent
+	 */
+	CompletableFuture<Void> acknowledgeCumulativeAsync(MessageId messageId);
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.time.Duration;
+
+import org.springframework.util.Assert;
+
+/**
+ * Computes the size of the next batch and how long to wait for it to fill up, from the
+ * observed message arrival rate and listener latency, so that the time between the first
+ * message of a batch being received and the batch being processed stays within a target
+ * latency.
+ * <p>
+ * Half of the target latency is budgeted for processing, which bounds the batch size,
+ * and the remainder for waiting for more messages. When the arrival rate is too low to
+ * expect another message within that window, the controller does not wait at all, so
+ * low-traffic subscriptions are processed as soon as a message arrives.
+ * <p>
+ * Instances are not thread-safe and are meant to be used by a single consumer thread.
+ *
+ * @author agent (agent@local)
+ */
+public final class AdaptiveBatchReceiveController {
+
+	private static final double SMOOTHING_FACTOR = 0.2;
+
+	private static final double MAX_ARRIVAL_RATE = 1_000_000;
+
+	private final long targetLatencyNanos;
+
+	private final int maxBatchSize;
+
+	private final long maxBatchTimeoutNanos;
+
+	private double arrivalRate;
+
+	private double processingNanosPerMessage;
+
+	private int batchSize;
+
+	private long batchTimeoutNanos;
+
+	/**
+	 * Construct an instance.
+	 * @param targetLatency the target time between receiving the first message of a
+	 * batch and completing its processing
+	 * @param maxBatchSize the maximum number of messages in a batch
+	 * @param maxBatchTimeout the maximum time to wait for a batch to fill up
+	 */
+	public AdaptiveBatchReceiveController(Duration targetLatency, int maxBatchSize, Duration maxBatchTimeout) {
+		Assert.isTrue(targetLatency != null && !targetLatency.isNegative() && !targetLatency.isZero(),
+				"'targetLatency' must be positive");
+		Assert.isTrue(maxBatchSize > 0, "'maxBatchSize' must be greater than 0");
+		Assert.notNull(maxBatchTimeout, "'maxBatchTimeout' cannot be null");
+		this.targetLatencyNanos = targetLatency.toNanos();
+		this.maxBatchSize = maxBatchSize;
+		this.maxBatchTimeoutNanos = maxBatchTimeout.toNanos();
+		this.batchSize = maxBatchSize;
+		this.batchTimeoutNanos = 0;
+	}
+
+	/**
+	 * Record the outcome of a batch and adjust the settings for the next one.
+	 * @param messageCount the number of messages in the batch
+	 * @param waitNanos the time spent waiting for messages after the first one arrived
+	 * @param processingNanos the time spent processing the batch
+	 */
+	public void recordBatch(int messageCount, long waitNanos, long processingNanos) {
+		if (messageCount <= 0) {
+			return;
+		}
+		double arrivalRateSample = messageCount == 1 ? 0
+				: Math.min(MAX_ARRIVAL_RATE, (messageCount - 1) / (Math.max(waitNanos, 1_000) / 1e9));
+		this.arrivalRate = smooth(this.arrivalRate, arrivalRateSample);
+		this.processingNanosPerMessage = smooth(this.processingNanosPerMessage,
+				(double) processingNanos / messageCount);
+		adjust();
+	}
+
+	private double smooth(double current, double sample) {
+		return current == 0 ? sample : current + SMOOTHING_FACTOR * (sample - current);
+	}
+
+	private void adjust() {
+		long processingBudgetNanos = this.targetLatencyNanos / 2;
+		int size = this.processingNanosPerMessage > 0
+				? (int) Math.min(this.maxBatchSize, processingBudgetNanos / this.processingNanosPerMessage)
+				: this.maxBatchSize;
+		this.batchSize = Math.max(1, size);
+		if (this.arrivalRate <= 0) {
+			this.batchTimeoutNanos = 0;
+			return;
+		}
+		double fillNanos = (this.batchSize - 1) / this.arrivalRate * 1e9;
+		double waitBudgetNanos = this.targetLatencyNanos - this.batchSize * this.processingNanosPerMessage;
+		long timeoutNanos = (long) Math.max(0, Math.min(Math.min(fillNanos, waitBudgetNanos), this.maxBatchTimeoutNanos));
+		// Waiting only pays off if at least one more message is expected within the window.
+		this.batchTimeoutNanos = this.arrivalRate * timeoutNanos / 1e9 >= 1 ? timeoutNanos : 0;
+	}
+
+	/**
+	 * Return the maximum number of messages to gather in the next batch.
+	 * @return the batch size
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Return how long to wait for the next batch to fill up once its first message has
+	 * arrived.
+	 * @return the batch timeout
+	 */
+	public Duration getBatchTimeout() {
+		return Duration.ofNanos(this.batchTimeoutNanos);
+	}
+
+	/**
+	 * Return the smoothed message arrival rate observed while filling batches.
+	 * @return the arrival rate in messages per second
+	 */
+	public double getArrivalRate() {
+		return this.arrivalRate;
+	}
+
+	/**
+	 * Return the smoothed time spent by the listener per message.
+	 * @return the processing time per message
+	 */
+	public Duration getProcessingTimePerMessage() {
+		return Duration.ofNanos((long) this.processingNanosPerMessage);
+	}
+}
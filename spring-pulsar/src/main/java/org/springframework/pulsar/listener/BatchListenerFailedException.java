@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+
+import org.springframework.lang.Nullable;
+import org.springframework.pulsar.PulsarException;
+
+/**
+ * An exception thrown by a batch listener to indicate which message of the batch
+ * failed. The container acknowledges the messages before the failed one, negatively
+ * acknowledges the failed message and then deals with the remaining messages according
+ * to {@link PulsarContainerProperties#isNackRemainingOnBatchFailure()}.
+ *
+ * @author agent (agent@local)
+ */
+@SuppressWarnings("serial")
+public class BatchListenerFailedException extends PulsarException {
+
+	private final int index;
+
+	@Nullable
+	private final MessageId messageId;
+
+	/**
+	 * Construct an instance with the provided properties.
+	 * @param message the exception message.
+	 * @param index the index in the batch of the message that failed.
+	 */
+	public BatchListenerFailedException(String message, int index) {
+		this(message, null, index);
+	}
+
+	/**
+	 * Construct an instance with the provided properties.
+	 * @param message the exception message.
+	 * @param cause the cause.
+	 * @param index the index in the batch of the message that failed.
+	 */
+	public BatchListenerFailedException(String message, @Nullable Throwable cause, int index) {
+		super(message, cause);
+		this.index = index;
+		this.messageId = null;
+	}
+
+	/**
+	 * Construct an instance with the provided properties.
+	 * @param message the exception message.
+	 * @param failedMessage the message that failed.
+	 */
+	public BatchListenerFailedException(String message, Message<?> failedMessage) {
+		this(message, null, failedMessage.getMessageId());
+	}
+
+	/**
+	 * Construct an instance with the provided properties.
+	 * @param message the exception message.
+	 * @param cause the cause.
+	 * @param failedMessage the message that failed.
+	 */
+	public BatchListenerFailedException(String message, @Nullable Throwable cause, Message<?> failedMessage) {
+		this(message, cause, failedMessage.getMessageId());
+	}
+
+	/**
+	 * Construct an instance with the provided properties.
+	 * @param message the exception message.
+	 * @param cause the cause.
+	 * @param messageId the id of the message that failed.
+	 */
+	public BatchListenerFailedException(String message, @Nullable Throwable cause, MessageId messageId) {
+		super(message, cause);
+		this.index = -1;
+		this.messageId = messageId;
+	}
+
+	/**
+	 * Return the index in the batch of the failed message, or -1 when the exception was
+	 * created with the failed message or its id.
+	 * @return the index.
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Return the id of the failed message, or null when the exception was created with
+	 * an index.
+	 * @return the message id.
+	 */
+	@Nullable
+	public MessageId getMessageId() {
+		return this.messageId;
+	}
+
+	@Override
+	public String getMessage() {
+		return super.getMessage() + " " + (this.messageId != null ? "@-" + this.messageId : "@-" + this.index);
+	}
+}
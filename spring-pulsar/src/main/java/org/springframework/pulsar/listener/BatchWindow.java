@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.Messages;
+
+/**
+ * Gathers the messages received over several receives into a window that is handed to
+ * the batch listener once it is full or once its time has passed, optionally split by
+ * message key.
+ * <p>
+ * Instances are not thread-safe and are meant to be used by a single consumer thread.
+ *
+ * @param <T> message type.
+ * @author agent (agent@local)
+ * @see PulsarContainerProperties#setBatchWindow(Duration)
+ */
+final class BatchWindow<T> {
+
+	private final long windowNanos;
+
+	private final int maxMessages;
+
+	private final boolean groupByKey;
+
+	private final List<Message<T>> messages = new ArrayList<>();
+
+	private long startNanos;
+
+	BatchWindow(Duration window, int maxMessages, boolean groupByKey) {
+		this.windowNanos = window.toNanos();
+		this.maxMessages = maxMessages;
+		this.groupByKey = groupByKey;
+	}
+
+	/**
+	 * Add the messages to the window. Called after every receive, including the empty
+	 * ones, so that a window is closed on time when no more messages arrive.
+	 * @param received the received messages
+	 * @return whether the window is complete and should be {@link #drain() drained}
+	 */
+	boolean add(Messages<T> received) {
+		if (this.messages.isEmpty()) {
+			this.startNanos = System.nanoTime();
+		}
+		received.forEach(this.messages::add);
+		if (this.messages.isEmpty()) {
+			return false;
+		}
+		boolean full = this.maxMessages > 0 && this.messages.size() >= this.maxMessages;
+		return full || System.nanoTime() - this.startNanos >= this.windowNanos;
+	}
+
+	boolean isEmpty() {
+		return this.messages.isEmpty();
+	}
+
+	/**
+	 * Close the window.
+	 * @return the batches to hand to the listener, one per key when grouping by key
+	 */
+	List<Messages<T>> drain() {
+		List<Message<T>> window = clear();
+		if (!this.groupByKey) {
+			return List.of(new ListBasedMessages<>(window));
+		}
+		Map<String, List<Message<T>>> messagesByKey = new LinkedHashMap<>();
+		for (Message<T> message : window) {
+			messagesByKey.computeIfAbsent(message.hasKey() ? message.getKey() : null, key -> new ArrayList<>())
+					.add(message);
+		}
+		List<Messages<T>> batches = new ArrayList<>(messagesByKey.size());
+		messagesByKey.values().forEach(group -> batches.add(new ListBasedMessages<>(group)));
+		return batches;
+	}
+
+	/**
+	 * Discard the messages of the window, such as when they are redelivered to a new
+	 * consumer.
+	 * @return the discarded messages
+	 */
+	List<Message<T>> clear() {
+		List<Message<T>> window = new ArrayList<>(this.messages);
+		this.messages.clear();
+		return window;
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Messages;
+
+/**
+ * {@link Acknowledgement} of the messages handed to a batch listener.
+ *
+ * @author agent (agent@local)
+ */
+final class ConsumerBatchAcknowledgment extends AbstractConsumerAcknowledgment {
+
+	ConsumerBatchAcknowledgment(Consumer<?> consumer, Messages<?> messages, boolean cumulativeSupported,
+			MessageDeduplicatorInvoker deduplicator) {
+		super(consumer, messages, cumulativeSupported, deduplicator);
+	}
+
+	@Override
+	public void acknowledge() {
+		acknowledge(messageIds());
+	}
+
+	@Override
+	public void nack() {
+		messageIds().forEach(this::nack);
+	}
+
+	@Override
+	public CompletableFuture<Void> acknowledgeAsync() {
+		return acknowledgeAsync(messageIds());
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.commons.logging.LogFactory;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+
+import org.springframework.core.log.LogAccessor;
+import org.springframework.pulsar.PulsarException;
+import org.springframework.util.Assert;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.BackOffExecution;
+
+/**
+ * Default implementation of {@link PulsarConsumerErrorHandler} that retries the failed
+ * message in-process according to a {@link BackOff} and hands it to a
+ * {@link PulsarMessageRecoverer} once the back off is exhausted.
+ * <p>
+ * Use a {@link org.springframework.util.backoff.FixedBackOff} or an
+ * {@link org.springframework.pulsar.support.ExponentialBackOffWithMaxRetries} to limit
+ * the number of attempts. The retry state is kept per consumer thread, so a single
+ * instance can be shared by several containers.
+ *
+ * @param <T> payload type managed by the Pulsar consumer
+ * @author agent (agent@local)
+ */
+public class DefaultPulsarConsumerErrorHandler<T> implements PulsarConsumerErrorHandler<T> {
+
+	private final LogAccessor logger = new LogAccessor(LogFactory.getLog(this.getClass()));
+
+	private final PulsarMessageRecovererFactory<T> pulsarMessageRecovererFactory;
+
+	private final BackOff backOff;
+
+	private final ThreadLocal<FailedMessage> currentFailure = new ThreadLocal<>();
+
+	/**
+	 * Construct an instance that retries according to the back off and then lets the
+	 * container negatively acknowledge the message.
+	 * @param backOff the back off
+	 */
+	public DefaultPulsarConsumerErrorHandler(BackOff backOff) {
+		this(consumer -> (message, exception) -> {
+			throw new PulsarException("Retries exhausted for message " + message.getMessageId(), exception);
+		}, backOff);
+	}
+
+	/**
+	 * Construct an instance that retries according to the back off and then recovers
+	 * the message with a recoverer obtained from the factory.
+	 * @param pulsarMessageRecovererFactory the recoverer factory
+	 * @param backOff the back off
+	 */
+	public DefaultPulsarConsumerErrorHandler(PulsarMessageRecovererFactory<T> pulsarMessageRecovererFactory,
+			BackOff backOff) {
+		Assert.notNull(pulsarMessageRecovererFactory, "'pulsarMessageRecovererFactory' cannot be null");
+		Assert.notNull(backOff, "'backOff' cannot be null");
+		this.pulsarMessageRecovererFactory = pulsarMessageRecovererFactory;
+		this.backOff = backOff;
+	}
+
+	@Override
+	public long nextRetryBackOff(Exception exception, Message<T> message) {
+		FailedMessage failedMessage = this.currentFailure.get();
+		if (failedMessage == null || !failedMessage.messageId().equals(message.getMessageId())) {
+			failedMessage = new FailedMessage(message.getMessageId(), this.backOff.start());
+			this.currentFailure.set(failedMessage);
+		}
+		long nextBackOff = failedMessage.backOffExecution().nextBackOff();
+		if (nextBackOff != BackOffExecution.STOP) {
+			this.logger.debug(exception, () -> "Retrying message " + message.getMessageId() + " in " + nextBackOff + "ms");
+		}
+		return nextBackOff;
+	}
+
+	@Override
+	public void recoverMessage(Consumer<T> consumer, Message<T> message, Exception exception) {
+		clearMessage();
+		this.pulsarMessageRecovererFactory.recovererForConsumer(consumer).recoverMessage(message, exception);
+	}
+
+	@Override
+	public CompletableFuture<?> recoverMessageAsync(Consumer<T> consumer, Message<T> message, Exception exception) {
+		clearMessage();
+		return this.pulsarMessageRecovererFactory.recovererForConsumer(consumer).recoverMessageAsync(message, exception);
+	}
+
+	@Override
+	public void clearMessage() {
+		this.currentFailure.remove();
+	}
+
+	private record FailedMessage(MessageId messageId, BackOffExecution backOffExecution) {
+	}
+}
@@ -16,45 +16,79 @@
 
 package org.springframework.pulsar.listener;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
 
 import org.apache.pulsar.client.api.BatchReceivePolicy;
 import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.DeadLetterPolicy;
 import org.apache.pulsar.client.api.Message;
 import org.apache.pulsar.client.api.MessageId;
 import org.apache.pulsar.client.api.MessageListener;
 import org.apache.pulsar.client.api.Messages;
 import org.apache.pulsar.client.api.PulsarClientException;
+import org.apache.pulsar.client.api.RedeliveryBackoff;
+import org.apache.pulsar.client.api.RegexSubscriptionMode;
 import org.apache.pulsar.client.api.Schema;
 import org.apache.pulsar.client.api.SubscriptionType;
 
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.task.AsyncListenableTaskExecutor;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.pulsar.core.ConsumerBuilderCustomizer;
 import org.springframework.pulsar.core.PulsarConsumerFactory;
+import org.springframework.pulsar.core.PulsarTransactionFactory;
+import org.springframework.pulsar.event.ConsumerFailedEvent;
 import org.springframework.pulsar.event.ConsumerFailedToStartEvent;
+import org.springframework.pulsar.event.ConsumerRecoveredEvent;
 import org.springframework.pulsar.event.ConsumerStartedEvent;
 import org.springframework.pulsar.event.ConsumerStartingEvent;
 import org.springframework.scheduling.SchedulingAwareRunnable;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
+import org.springframework.util.backoff.BackOffExecution;
 import org.springframework.util.concurrent.ListenableFuture;
 
 /**
  * Default implementation for {@link PulsarMessageListenerContainer}.
+ * <p>
+ * When a {@link PulsarContainerProperties#setTransactionFactory(PulsarTransactionFactory)
+ * transaction factory} is configured, the messages are acknowledged in a transaction
+ * that stays bound to the consumer thread across several messages and is committed once
+ * enough messages or time have passed. Asynchronous listeners must send their messages
+ * from the consumer thread for them to join the transaction.
  *
  * @param <T> message type.
  * @author Soby Chacko
  */
 public class DefaultPulsarMessageListenerContainer<T> extends AbstractPulsarMessageListenerContainer<T> {
 
+	private static final int DEFAULT_ADAPTIVE_MAX_BATCH_SIZE = 10_000;
+
+	private static final long MAX_THROTTLE_SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private static final long IN_FLIGHT_PERMIT_POLL_MILLIS = 100;
+
+	private static final int MAX_COUNTED_TOPICS = 1024;
+
 	private volatile boolean running = false;
 
 	private volatile ListenableFuture<?> listenerConsumerFuture;
@@ -65,6 +99,13 @@ public class DefaultPulsarMessageListenerContainer<T> extends AbstractPulsarMess
 
 	private final AbstractPulsarMessageListenerContainer<?> thisOrParentContainer;
 
+	private final AtomicLong consumerRestarts = new AtomicLong();
+
+	private final Map<String, LongAdder> receivedMessagesPerTopic = new ConcurrentHashMap<>();
+
+	// Notified when the container stops, so that the consumer thread stops waiting for a back off.
+	private final Object stopMonitor = new Object();
+
 	public DefaultPulsarMessageListenerContainer(PulsarConsumerFactory<? super T> pulsarConsumerFactory, PulsarContainerProperties pulsarContainerProperties) {
 		super(pulsarConsumerFactory, pulsarContainerProperties);
 		this.thisOrParentContainer = this;
@@ -78,6 +119,12 @@ public class DefaultPulsarMessageListenerContainer<T> extends AbstractPulsarMess
 	private void doStart() {
 
 		PulsarContainerProperties containerProperties = getPulsarContainerProperties();
+		Assert.state(containerProperties.getAckMode() != PulsarContainerProperties.AckMode.MANUAL_CUMULATIVE
+				|| isCumulativeAckSupported(), () -> "AckMode.MANUAL_CUMULATIVE is not supported for "
+						+ resolveSubscriptionType() + " subscriptions");
+		Assert.state(containerProperties.getTransactionFactory() == null
+				|| !isManualAck(containerProperties.getAckMode()),
+				"Manual ack modes are not supported with transactions");
 
 		Object messageListenerObject = containerProperties.getMessageListener();
 		AsyncListenableTaskExecutor consumerExecutor = containerProperties.getConsumerTaskExecutor();
@@ -110,18 +157,50 @@ public class DefaultPulsarMessageListenerContainer<T> extends AbstractPulsarMess
 
 	@Override
 	public void stop() {
-		setRunning(false);
-		this.logger.info("Pausing this consumer.");
-		this.listenerConsumer.consumer.pause();
+		CountDownLatch stopLatch = new CountDownLatch(1);
+		doStop(stopLatch::countDown);
 		try {
-			this.logger.info("Closing this consumer.");
-			this.listenerConsumer.consumer.close();
+			stopLatch.await();
 		}
-		catch (PulsarClientException e) {
-			this.logger.error(e, () -> "Error closing Pulsar Client.");
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
 	}
 
+	@Override
+	public void stop(Runnable callback) {
+		doStop(callback);
+	}
+
+	private void doStop(Runnable callback) {
+		setRunning(false);
+		synchronized (this.stopMonitor) {
+			this.stopMonitor.notifyAll();
+		}
+		Listener listener = this.listenerConsumer;
+		if (listener == null) {
+			callback.run();
+			return;
+		}
+		Consumer<T> consumer = listener.consumer;
+		if (consumer != null) {
+			this.logger.info("Pausing this consumer.");
+			consumer.pause();
+		}
+		// The consumer thread finishes the current batch, flushes pending acks and closes the consumer.
+		Duration shutdownTimeout = getPulsarContainerProperties().getShutdownTimeout();
+		listener.stopFuture.copy()
+				.orTimeout(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)
+				.whenComplete((result, ex) -> {
+					if (ex != null) {
+						this.logger.warn(() -> "Consumer thread did not stop within " + shutdownTimeout
+								+ ", closing the consumer.");
+						listener.closeConsumer();
+					}
+					callback.run();
+				});
+	}
+
 	@Override
 	public boolean isRunning() {
 		return this.running;
@@ -131,11 +210,81 @@ public class DefaultPulsarMessageListenerContainer<T> extends AbstractPulsarMess
 		this.running = running;
 	}
 
+	/**
+	 * Return the number of times the consumer thread resumed receiving messages after
+	 * one or more failed attempts.
+	 * @return the number of consumer restarts.
+	 */
+	public long getConsumerRestarts() {
+		return this.consumerRestarts.get();
+	}
+
+	/**
+	 * Return the number of messages received so far for each topic, which is mostly
+	 * useful when the container subscribes to several topics or to a topics pattern.
+	 * Partitions of a partitioned topic are counted separately. Counts are kept for at
+	 * most 1024 topics, so that a topics pattern matching a stream of short-lived topics
+	 * does not grow them without bound; messages from further topics are not counted.
+	 * @return a snapshot of the message counts keyed by topic name
+	 */
+	public Map<String, Long> getReceivedMessageCounts() {
+		Map<String, Long> counts = new HashMap<>();
+		this.receivedMessagesPerTopic.forEach((topic, count) -> counts.put(topic, count.sum()));
+		return counts;
+	}
+
+	/**
+	 * Return the controller computing the current batch size and timeout when adaptive
+	 * batch receive is enabled.
+	 * @return the controller or {@code null} if adaptive batch receive is not enabled or
+	 * the container has not been started
+	 * @see PulsarContainerProperties#setBatchReceiveTargetLatency(Duration)
+	 */
+	@Nullable
+	public AdaptiveBatchReceiveController getAdaptiveBatchReceiveController() {
+		Listener listener = this.listenerConsumer;
+		return listener != null ? listener.adaptiveBatchReceiveController : null;
+	}
+
 	@Override
 	public void destroy() {
 
 	}
 
+	private boolean isCumulativeAckSupported() {
+		SubscriptionType subscriptionType = resolveSubscriptionType();
+		return subscriptionType != SubscriptionType.Shared && subscriptionType != SubscriptionType.Key_Shared;
+	}
+
+	private SubscriptionType resolveSubscriptionType() {
+		SubscriptionType subscriptionType = getPulsarContainerProperties().getSubscriptionType();
+		if (subscriptionType != null) {
+			return subscriptionType;
+		}
+		Object configured = getPulsarConsumerFactory().getConsumerConfig().get("subscriptionType");
+		if (configured instanceof SubscriptionType configuredType) {
+			return configuredType;
+		}
+		if (configured instanceof String configuredName) {
+			return SubscriptionType.valueOf(configuredName);
+		}
+		return SubscriptionType.Exclusive;
+	}
+
+	private boolean isBatchIndexAckEnabled() {
+		Boolean batchIndexAckEnabled = getPulsarContainerProperties().getBatchIndexAckEnabled();
+		if (batchIndexAckEnabled != null) {
+			return batchIndexAckEnabled;
+		}
+		Object configured = getPulsarConsumerFactory().getConsumerConfig().get("batchIndexAckEnabled");
+		return Boolean.TRUE.equals(configured) || "true".equals(configured);
+	}
+
+	private static boolean isManualAck(PulsarContainerProperties.AckMode ackMode) {
+		return ackMode == PulsarContainerProperties.AckMode.MANUAL
+				|| ackMode == PulsarContainerProperties.AckMode.MANUAL_CUMULATIVE;
+	}
+
 	private void publishConsumerStartingEvent() {
 		this.startLatch.countDown();
 		ApplicationEventPublisher publisher = getApplicationEventPublisher();
@@ -158,20 +307,68 @@ public class DefaultPulsarMessageListenerContainer<T> extends AbstractPulsarMess
 		}
 	}
 
+	private void publishConsumerFailedEvent(Throwable cause, int failedAttempts) {
+		ApplicationEventPublisher publisher = getApplicationEventPublisher();
+		if (publisher != null) {
+			publisher.publishEvent(new ConsumerFailedEvent(this, this.thisOrParentContainer, cause, failedAttempts));
+		}
+	}
+
+	private void publishConsumerRecoveredEvent(int failedAttempts) {
+		ApplicationEventPublisher publisher = getApplicationEventPublisher();
+		if (publisher != null) {
+			publisher.publishEvent(new ConsumerRecoveredEvent(this, this.thisOrParentContainer, failedAttempts));
+		}
+	}
+
 	private final class Listener implements SchedulingAwareRunnable {
 
 		private final PulsarRecordMessageListener<T> listener;
 
 		private final PulsarBatchMessageListener<T> batchMessageListener;
 
-		private Consumer<T> consumer;
+		private volatile Consumer<T> consumer;
 
 		private final Set<MessageId> nackableMessages = new HashSet<>();
 
+		private final Set<MessageId> deferredAckMessages = new HashSet<>();
+
+		private final Set<CompletableFuture<?>> pendingAcks = ConcurrentHashMap.newKeySet();
+
+		private final CompletableFuture<Void> stopFuture = new CompletableFuture<>();
+
+		private final boolean cumulativeAckSupported;
+
+		private final boolean batchIndexAckEnabled;
+
+		private final Semaphore inFlightPermits = new Semaphore(getPulsarContainerProperties().getMaxInFlightMessages());
+
 		private final PulsarContainerProperties containerProperties = getPulsarContainerProperties();
 
 		private volatile Thread consumerThread;
 
+		private final AdaptiveBatchReceiveController adaptiveBatchReceiveController = createAdaptiveBatchReceiveController();
+
+		private long lastBatchWaitNanos;
+
+		private final MessageDeduplicatorInvoker deduplicator = new MessageDeduplicatorInvoker(
+				getMessageDeduplicator(), DefaultPulsarMessageListenerContainer.this.logger);
+
+		@Nullable
+		private final ReceiveRateLimiter rateLimiter = ReceiveRateLimiter.create(getPulsarContainerProperties());
+
+		@Nullable
+		private final BatchWindow<T> batchWindow = createBatchWindow();
+
+		private BackOffExecution receiveFailureBackOff;
+
+		private long lastReceiveFailureBackOff;
+
+		private int failedReceiveAttempts;
+
+		@Nullable
+		private final ListenerTransaction<T> transaction = createTransaction();
+
 		@SuppressWarnings({"unchecked", "rawtypes"})
 		Listener(MessageListener<?> messageListener) {
 			if (messageListener instanceof PulsarBatchMessageListener) {
@@ -186,39 +383,102 @@ public class DefaultPulsarMessageListenerContainer<T> extends AbstractPulsarMess
 				this.listener = null;
 				this.batchMessageListener = null;
 			}
+			this.cumulativeAckSupported = isCumulativeAckSupported();
+			this.batchIndexAckEnabled = isBatchIndexAckEnabled();
 			try {
-				final PulsarContainerProperties pulsarContainerProperties = getPulsarContainerProperties();
-				Map<String, Object> propertiesToOverride = extractPropertiesToOverride(pulsarContainerProperties);
-
-				final BatchReceivePolicy batchReceivePolicy = new BatchReceivePolicy.Builder()
-						.maxNumMessages(pulsarContainerProperties.getMaxNumMessages())
-						.maxNumBytes(pulsarContainerProperties.getMaxNumBytes())
-						.timeout(pulsarContainerProperties.getBatchTimeout(), TimeUnit.MILLISECONDS)
-						.build();
-				this.consumer = getPulsarConsumerFactory().createConsumer(
-						(Schema) pulsarContainerProperties.getSchema(),
-						batchReceivePolicy, propertiesToOverride);
+				this.consumer = createConsumer();
 			}
 			catch (PulsarClientException e) {
 				DefaultPulsarMessageListenerContainer.this.logger.error(e, () -> "Pulsar client exceptions.");
 			}
 		}
 
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private Consumer<T> createConsumer() throws PulsarClientException {
+			final PulsarContainerProperties pulsarContainerProperties = getPulsarContainerProperties();
+			Map<String, Object> propertiesToOverride = extractPropertiesToOverride(pulsarContainerProperties);
+
+			final BatchReceivePolicy batchReceivePolicy = new BatchReceivePolicy.Builder()
+					.maxNumMessages(pulsarContainerProperties.getMaxNumMessages())
+					.maxNumBytes(pulsarContainerProperties.getMaxNumBytes())
+					.timeout(pulsarContainerProperties.getBatchTimeout(), TimeUnit.MILLISECONDS)
+					.build();
+			CompletableFuture<Consumer<T>> consumerFuture = getPulsarConsumerFactory().createConsumerAsync(
+					(Schema) pulsarContainerProperties.getSchema(),
+					batchReceivePolicy, propertiesToOverride,
+					getConsumerBuilderCustomizers(pulsarContainerProperties));
+			try {
+				return consumerFuture.get(pulsarContainerProperties.getConsumerStartTimeout().toMillis(),
+						TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				consumerFuture.cancel(true);
+				throw new PulsarClientException(e);
+			}
+			catch (ExecutionException e) {
+				throw PulsarClientException.unwrap(e.getCause());
+			}
+			catch (TimeoutException e) {
+				consumerFuture.thenAccept(getPulsarConsumerFactory()::closeConsumerAsync);
+				throw new PulsarClientException.TimeoutException(e);
+			}
+		}
+
+		private List<ConsumerBuilderCustomizer<T>> getConsumerBuilderCustomizers(
+				PulsarContainerProperties pulsarContainerProperties) {
+			List<ConsumerBuilderCustomizer<T>> customizers = new ArrayList<>();
+			DeadLetterPolicy deadLetterPolicy = pulsarContainerProperties.getDeadLetterPolicy();
+			if (deadLetterPolicy != null) {
+				customizers.add(builder -> builder.deadLetterPolicy(deadLetterPolicy));
+			}
+			RedeliveryBackoff negativeAckRedeliveryBackoff = pulsarContainerProperties.getNegativeAckRedeliveryBackoff();
+			if (negativeAckRedeliveryBackoff != null) {
+				customizers.add(builder -> builder.negativeAckRedeliveryBackoff(negativeAckRedeliveryBackoff));
+			}
+			RedeliveryBackoff ackTimeoutRedeliveryBackoff = pulsarContainerProperties.getAckTimeoutRedeliveryBackoff();
+			if (ackTimeoutRedeliveryBackoff != null) {
+				customizers.add(builder -> builder.ackTimeoutRedeliveryBackoff(ackTimeoutRedeliveryBackoff));
+			}
+			Pattern topicsPattern = pulsarContainerProperties.getTopicsPattern();
+			if (topicsPattern != null) {
+				customizers.add(builder -> builder.topicsPattern(topicsPattern));
+				Duration patternAutoDiscoveryPeriod = pulsarContainerProperties.getPatternAutoDiscoveryPeriod();
+				if (patternAutoDiscoveryPeriod != null) {
+					customizers.add(builder -> builder.patternAutoDiscoveryPeriod(
+							(int) patternAutoDiscoveryPeriod.toSeconds(), TimeUnit.SECONDS));
+				}
+				RegexSubscriptionMode regexSubscriptionMode = pulsarContainerProperties.getRegexSubscriptionMode();
+				if (regexSubscriptionMode != null) {
+					customizers.add(builder -> builder.subscriptionTopicsMode(regexSubscriptionMode));
+				}
+			}
+			return customizers;
+		}
+
 		private Map<String, Object> extractPropertiesToOverride(PulsarContainerProperties pulsarContainerProperties) {
 			final SubscriptionType subscriptionType = pulsarContainerProperties.getSubscriptionType();
 			final Map<String, Object> propertiesToOverride = new HashMap<>();
 			if (subscriptionType != null) {
 				propertiesToOverride.put("subscriptionType", subscriptionType);
 			}
-			final String[] topics = pulsarContainerProperties.getTopics();
-			final Set<String> strings = new HashSet<>(Arrays.stream(topics).toList());
-			if (!strings.isEmpty()) {
-				propertiesToOverride.put("topicNames", strings);
+			if (pulsarContainerProperties.getTopicsPattern() != null) {
+				// A pattern subscription cannot also name topics, not even from the factory configuration.
+				propertiesToOverride.put("topicNames", new HashSet<>());
+			}
+			else if (pulsarContainerProperties.getTopics() != null) {
+				final Set<String> strings = new HashSet<>(Arrays.asList(pulsarContainerProperties.getTopics()));
+				if (!strings.isEmpty()) {
+					propertiesToOverride.put("topicNames", strings);
+				}
 			}
 			if (StringUtils.hasText(pulsarContainerProperties.getSubscriptionName())) {
 				propertiesToOverride.put("subscriptionName",
 						pulsarContainerProperties.getSubscriptionName());
 			}
+			if (pulsarContainerProperties.getBatchIndexAckEnabled() != null) {
+				propertiesToOverride.put("batchIndexAckEnabled", pulsarContainerProperties.getBatchIndexAckEnabled());
+			}
 			return propertiesToOverride;
 		}
 
@@ -233,199 +493,816 @@ public class DefaultPulsarMessageListenerContainer<T> extends AbstractPulsarMess
 			this.consumerThread = Thread.currentThread();
 
 			publishConsumerStartedEvent();
+			try {
+				pollAndInvoke();
+			}
+			finally {
+				flushAndClose();
+			}
+		}
+
+		private void pollAndInvoke() {
 			while (isRunning()) {
-				Messages<T> messages = null;
+				Messages<T> messages;
 
+				throttle();
+				if (!isRunning()) {
+					break;
+				}
 				// Always receive messages in batch mode.
 				try {
-					messages = this.consumer.batchReceive();
+					if (this.consumer == null) {
+						throw new PulsarClientException("Consumer is not available");
+					}
+					messages = this.adaptiveBatchReceiveController != null ? receiveAdaptively()
+							: this.consumer.batchReceive();
 				}
 				catch (PulsarClientException e) {
-					DefaultPulsarMessageListenerContainer.this.logger.error(e, () -> "Error receiving messages.");
+					if (!isRunning()) {
+						break;
+					}
+					handleReceiveFailure(e);
+					continue;
 				}
-				Assert.isTrue(messages != null, "Messages cannot be null.");
-				if (this.containerProperties.isBatchListener()) {
-					try {
-						if (messages.size() > 0) {
-							if (this.batchMessageListener instanceof PulsarBatchAcknowledgingMessageListener) {
-								this.batchMessageListener.received(this.consumer, messages,
-										this.containerProperties.getAckMode() == PulsarContainerProperties.AckMode.MANUAL ?
-												new ConsumerBatchAcknowledgment(this.consumer) : null);
-							}
-							else {
-								this.batchMessageListener.received(this.consumer, messages);
-							}
-							if (this.containerProperties.getAckMode() == PulsarContainerProperties.AckMode.BATCH) {
-								try {
-									this.consumer.acknowledge(messages);
-								}
-								catch (PulsarClientException pce) {
-									this.consumer.negativeAcknowledge(messages);
-								}
-							}
-						}
+				if (this.receiveFailureBackOff != null) {
+					handleReceiveRecovery();
+				}
+				if (this.rateLimiter != null) {
+					this.rateLimiter.consume(messages);
+				}
+				countReceivedMessages(messages);
+				int receivedCount = messages.size();
+				messages = filterMessages(messages);
+				long processingStart = System.nanoTime();
+				if (this.batchWindow != null) {
+					if (this.batchWindow.add(messages)) {
+						processWindow();
 					}
-					catch (Exception e) {
-						// the whole batch is negatively acknowledged in the event of an exception from the handler method.
-						this.consumer.negativeAcknowledge(messages);
+				}
+				else if (this.containerProperties.isBatchListener()) {
+					processBatch(messages);
+				}
+				else if (this.transaction != null) {
+					List<MessageId> duplicates = new ArrayList<>();
+					for (Message<T> message : messages) {
+						if (this.deduplicator.isDuplicate(message)) {
+							duplicates.add(message.getMessageId());
+						}
+						else {
+							invokeRecordListenerInTransaction(message);
+						}
 					}
+					acknowledgeDiscarded(duplicates);
 				}
 				else {
+					List<MessageId> duplicates = new ArrayList<>();
 					for (Message<T> message : messages) {
-						try {
-							if (this.listener instanceof PulsarAcknowledgingMessageListener) {
-								this.listener.received(this.consumer, message,
-										this.containerProperties.getAckMode() == PulsarContainerProperties.AckMode.MANUAL ?
-												new ConsumerAcknowledgment(this.consumer, message) : null);
-							}
-							else if (this.listener != null) {
-								this.listener.received(this.consumer, message);
-							}
-							if (this.containerProperties.getAckMode() == PulsarContainerProperties.AckMode.RECORD) {
-								handleAck(message);
-							}
+						if (this.deduplicator.isDuplicate(message)) {
+							duplicates.add(message.getMessageId());
 						}
-						catch (Exception e) {
-							if (this.containerProperties.getAckMode() == PulsarContainerProperties.AckMode.RECORD) {
-								this.consumer.negativeAcknowledge(message);
-							}
-							else if (this.containerProperties.getAckMode() == PulsarContainerProperties.AckMode.BATCH) {
-								this.nackableMessages.add(message.getMessageId());
-							}
+						else {
+							invokeRecordListener(message);
 						}
 					}
 					// All the records are processed at this point. Handle acks.
 					if (this.containerProperties.getAckMode() == PulsarContainerProperties.AckMode.BATCH) {
+						// the duplicates are acknowledged along with the batch.
 						handleAcks(messages);
 					}
+					else {
+						acknowledgeDiscarded(duplicates);
+						if (this.containerProperties.getAckMode() == PulsarContainerProperties.AckMode.RECORD) {
+							handleRecordNacks(messages);
+						}
+					}
+				}
+				commitTransactionIfDue();
+				if (this.adaptiveBatchReceiveController != null) {
+					this.adaptiveBatchReceiveController.recordBatch(receivedCount, this.lastBatchWaitNanos,
+							System.nanoTime() - processingStart);
 				}
 			}
+			if (this.batchWindow != null && !this.batchWindow.isEmpty()) {
+				processWindow();
+			}
+			if (this.transaction != null && this.transaction.isActive()) {
+				this.transaction.commit(this.consumer);
+			}
 		}
 
-		private void handleAcks(Messages<T> messages) {
-			if (this.nackableMessages.isEmpty()) {
+		private void processBatch(Messages<T> messages) {
+			if (this.transaction != null) {
+				processBatchInTransaction(messages);
+				return;
+			}
+			Messages<T> messagesToProcess = messages;
+			while (messagesToProcess.size() > 0) {
 				try {
-					if (messages.size() > 0) {
-						this.consumer.acknowledge(messages);
-					}
+					invokeBatchListener(messagesToProcess);
+					break;
 				}
-				catch (PulsarClientException pce) {
-					this.consumer.negativeAcknowledge(messages);
+				catch (Exception e) {
+					messagesToProcess = handleBatchListenerFailure(messagesToProcess, e);
 				}
 			}
-			else {
+		}
+
+		/**
+		 * Hands the batch to the listener in the current transaction. A failure aborts
+		 * the transaction, so the whole batch is redelivered along with the messages
+		 * already processed in the transaction.
+		 */
+		private void processBatchInTransaction(Messages<T> messages) {
+			if (messages.size() == 0) {
+				return;
+			}
+			try {
+				this.transaction.beginIfNecessary();
+				invokeBatchListener(messages);
+				this.deduplicator.record(messages);
 				for (Message<T> message : messages) {
-					if (this.nackableMessages.contains(message.getMessageId())) {
-						this.consumer.negativeAcknowledge(message);
-						this.nackableMessages.remove(message.getMessageId());
-					}
-					else {
-						handleAck(message);
-					}
+					this.transaction.acknowledge(this.consumer, message, null);
 				}
 			}
+			catch (Exception e) {
+				this.transaction.abort(this.consumer, messages, e);
+				return;
+			}
+			commitTransactionIfDue();
 		}
 
-		private void handleAck(Message<T> message) {
+		/**
+		 * Hands the message to the listener in the current transaction. The listener is
+		 * not retried in place, as its messages would be sent again in the same
+		 * transaction; a failure aborts the transaction instead, so that the message is
+		 * redelivered along with the messages already processed in the transaction.
+		 */
+		private void invokeRecordListenerInTransaction(Message<T> message) {
 			try {
-				this.consumer.acknowledge(message);
+				this.transaction.beginIfNecessary();
+				CompletableFuture<?> completion = doInvokeRecordListener(message);
+				if (completion == null) {
+					this.deduplicator.record(List.of(message));
+				}
+				else {
+					completion = completion.whenComplete((result, ex) -> this.inFlightPermits.release());
+				}
+				this.transaction.acknowledge(this.consumer, message, completion);
 			}
-			catch (PulsarClientException pce) {
-				this.consumer.negativeAcknowledge(message);
+			catch (Exception e) {
+				this.transaction.abort(this.consumer, List.of(message), e);
+				return;
 			}
+			commitTransactionIfDue();
 		}
-	}
 
-	private static final class ConsumerAcknowledgment implements Acknowledgement {
+		private void commitTransactionIfDue() {
+			if (this.transaction != null) {
+				this.transaction.commitIfDue(this.consumer);
+			}
+		}
 
-		private final Consumer<?> consumer;
+		private void processWindow() {
+			this.batchWindow.drain().forEach(this::processBatch);
+		}
 
-		private final Message<?> message;
+		/**
+		 * Removes the messages discarded by the filter strategy and acknowledges them
+		 * together, without touching their payload. For batch listeners, the messages
+		 * found by the deduplicator are removed as well; record listeners check them one
+		 * at a time, so that a duplicate of a message processed earlier in the same batch
+		 * is also found.
+		 */
+		private Messages<T> filterMessages(Messages<T> messages) {
+			RecordFilterStrategy<T> recordFilterStrategy = getRecordFilterStrategy();
+			boolean deduplicate = this.deduplicator.isEnabled() && this.containerProperties.isBatchListener();
+			if ((recordFilterStrategy == null && !deduplicate) || messages.size() == 0) {
+				return messages;
+			}
+			List<Message<T>> accepted = new ArrayList<>(messages.size());
+			List<MessageId> discarded = new ArrayList<>();
+			for (Message<T> message : messages) {
+				if ((recordFilterStrategy != null && isFiltered(recordFilterStrategy, message))
+						|| (deduplicate && this.deduplicator.isDuplicate(message))) {
+					discarded.add(message.getMessageId());
+				}
+				else {
+					accepted.add(message);
+				}
+			}
+			if (discarded.isEmpty()) {
+				return messages;
+			}
+			acknowledgeDiscarded(discarded);
+			return new ListBasedMessages<>(accepted);
+		}
 
-		ConsumerAcknowledgment(Consumer<?> consumer, Message<?> message) {
-			this.consumer = consumer;
-			this.message = message;
+		private void acknowledgeDiscarded(List<MessageId> discarded) {
+			if (discarded.isEmpty()) {
+				return;
+			}
+			trackPendingAck(this.consumer.acknowledgeAsync(discarded).whenComplete((result, ex) -> {
+				if (ex != null) {
+					DefaultPulsarMessageListenerContainer.this.logger.error(ex,
+							() -> "Failed to acknowledge " + discarded.size() + " filtered messages.");
+				}
+			}));
 		}
 
-		@Override
-		public void acknowledge() {
+		private boolean isFiltered(RecordFilterStrategy<T> recordFilterStrategy, Message<T> message) {
 			try {
-				this.consumer.acknowledge(this.message);
+				return recordFilterStrategy.filter(message);
 			}
-			catch (PulsarClientException e) {
-				this.consumer.negativeAcknowledge(this.message);
+			catch (RuntimeException e) {
+				DefaultPulsarMessageListenerContainer.this.logger.error(e,
+						() -> "Record filter strategy failed for message " + message.getMessageId()
+								+ ", passing it to the listener.");
+				return false;
 			}
 		}
 
-		@Override
-		public void acknowledge(MessageId messageId) {
-			throw new UnsupportedOperationException();
+		private void countReceivedMessages(Messages<T> messages) {
+			Map<String, LongAdder> counts = DefaultPulsarMessageListenerContainer.this.receivedMessagesPerTopic;
+			for (Message<T> message : messages) {
+				LongAdder count = counts.get(message.getTopicName());
+				if (count == null) {
+					if (counts.size() >= MAX_COUNTED_TOPICS) {
+						continue;
+					}
+					count = counts.computeIfAbsent(message.getTopicName(), topic -> new LongAdder());
+				}
+				count.increment();
+			}
 		}
 
-		@Override
-		public void acknowledge(List<MessageId> messageIds) {
-			throw new UnsupportedOperationException();
+		/**
+		 * Waits, without receiving, until the configured rate limits allow more messages,
+		 * leaving the receiver queue full so that the broker stops dispatching.
+		 */
+		private void throttle() {
+			if (this.rateLimiter == null) {
+				return;
+			}
+			long waitNanos = this.rateLimiter.nanosUntilPermitted();
+			while (waitNanos > 0 && isRunning()) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(Math.min(waitNanos, MAX_THROTTLE_SLEEP_NANOS));
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					setRunning(false);
+					return;
+				}
+				waitNanos = this.rateLimiter.nanosUntilPermitted();
+			}
 		}
 
-		@Override
-		public void nack() {
-			this.consumer.negativeAcknowledge(this.message);
+		@Nullable
+		private BatchWindow<T> createBatchWindow() {
+			PulsarContainerProperties properties = getPulsarContainerProperties();
+			if (!properties.isBatchListener() || properties.getBatchWindow() == null) {
+				return null;
+			}
+			return new BatchWindow<>(properties.getBatchWindow(), properties.getBatchWindowMaxMessages(),
+					properties.isBatchWindowGroupByKey());
 		}
 
-		@Override
-		public void nack(MessageId messageId) {
-			throw new UnsupportedOperationException();
+		@Nullable
+		private ListenerTransaction<T> createTransaction() {
+			PulsarContainerProperties properties = getPulsarContainerProperties();
+			if (properties.getTransactionFactory() == null) {
+				return null;
+			}
+			return new ListenerTransaction<>(properties.getTransactionFactory(), properties, this.deduplicator,
+					DefaultPulsarMessageListenerContainer.this.logger);
 		}
-	}
 
-	private static final class ConsumerBatchAcknowledgment implements Acknowledgement {
+		@Nullable
+		private AdaptiveBatchReceiveController createAdaptiveBatchReceiveController() {
+			PulsarContainerProperties properties = getPulsarContainerProperties();
+			Duration targetLatency = properties.getBatchReceiveTargetLatency();
+			if (targetLatency == null) {
+				return null;
+			}
+			int maxBatchSize = properties.getMaxNumMessages() > 0 ? properties.getMaxNumMessages()
+					: DEFAULT_ADAPTIVE_MAX_BATCH_SIZE;
+			return new AdaptiveBatchReceiveController(targetLatency, maxBatchSize, targetLatency);
+		}
 
-		private final Consumer<?> consumer;
+		/**
+		 * Blocks for the first message up to the batch timeout and then gathers as many
+		 * messages as the adaptive controller asks for, waiting at most its current batch
+		 * timeout for them to arrive.
+		 */
+		private Messages<T> receiveAdaptively() throws PulsarClientException {
+			Message<T> first = this.consumer.receive(this.containerProperties.getBatchTimeout(), TimeUnit.MILLISECONDS);
+			if (first == null) {
+				this.lastBatchWaitNanos = 0;
+				return new ListBasedMessages<>(Collections.emptyList());
+			}
+			int batchSize = this.adaptiveBatchReceiveController.getBatchSize();
+			long maxBytes = this.containerProperties.getMaxNumBytes();
+			List<Message<T>> received = new ArrayList<>();
+			received.add(first);
+			long bytes = first.size();
+			long waitStart = System.nanoTime();
+			long deadline = waitStart + this.adaptiveBatchReceiveController.getBatchTimeout().toNanos();
+			while (received.size() < batchSize && (maxBytes <= 0 || bytes < maxBytes)) {
+				long remainingMicros = TimeUnit.NANOSECONDS.toMicros(deadline - System.nanoTime());
+				Message<T> next = this.consumer.receive((int) Math.max(0, remainingMicros), TimeUnit.MICROSECONDS);
+				if (next == null) {
+					break;
+				}
+				received.add(next);
+				bytes += next.size();
+			}
+			this.lastBatchWaitNanos = System.nanoTime() - waitStart;
+			return new ListBasedMessages<>(received);
+		}
 
-		ConsumerBatchAcknowledgment(Consumer<?> consumer) {
-			this.consumer = consumer;
+		private void flushAndClose() {
+			CompletableFuture<?>[] pending = this.pendingAcks.toArray(CompletableFuture[]::new);
+			CompletableFuture.allOf(pending)
+					.handle((result, ex) -> null)
+					.thenCompose(ignored -> closeConsumer())
+					.whenComplete((result, ex) -> this.stopFuture.complete(null));
 		}
 
-		@Override
-		public void acknowledge() {
-			throw new UnsupportedOperationException();
+		private CompletableFuture<Void> closeConsumer() {
+			Consumer<T> currentConsumer = this.consumer;
+			if (currentConsumer == null) {
+				return CompletableFuture.completedFuture(null);
+			}
+			DefaultPulsarMessageListenerContainer.this.logger.info("Closing this consumer.");
+			return getPulsarConsumerFactory().closeConsumerAsync(currentConsumer).whenComplete((result, ex) -> {
+				if (ex != null) {
+					DefaultPulsarMessageListenerContainer.this.logger.error(ex, () -> "Error closing Pulsar Client.");
+				}
+			});
 		}
 
-		@Override
-		public void acknowledge(MessageId messageId) {
+		private void handleReceiveFailure(PulsarClientException exception) {
+			int failedAttempts = ++this.failedReceiveAttempts;
+			DefaultPulsarMessageListenerContainer.this.logger.error(exception,
+					() -> "Error receiving messages (attempt " + failedAttempts + ").");
+			publishConsumerFailedEvent(exception, failedAttempts);
+			if (this.receiveFailureBackOff == null) {
+				this.receiveFailureBackOff = this.containerProperties.getReceiveFailureBackOff().start();
+			}
+			long nextBackOff = this.receiveFailureBackOff.nextBackOff();
+			if (nextBackOff == BackOffExecution.STOP) {
+				nextBackOff = this.lastReceiveFailureBackOff;
+			}
+			this.lastReceiveFailureBackOff = nextBackOff;
+			if (awaitBackOff(nextBackOff) && (this.consumer == null || this.containerProperties.isRecreateConsumerOnReceiveFailure())) {
+				recreateConsumer();
+			}
+		}
+
+		private void recreateConsumer() {
+			Consumer<T> previousConsumer = this.consumer;
+			if (previousConsumer != null) {
+				getPulsarConsumerFactory().closeConsumerAsync(previousConsumer);
+			}
+			this.nackableMessages.clear();
+			this.deferredAckMessages.clear();
+			if (this.transaction != null && this.transaction.isActive()) {
+				// The messages of the transaction are redelivered to the new consumer.
+				this.transaction.discard(new PulsarClientException("Consumer recreated"));
+			}
+			if (this.batchWindow != null) {
+				// Messages of an open window are redelivered to the new consumer.
+				this.deduplicator.forget(this.batchWindow.clear());
+			}
 			try {
-				this.consumer.acknowledge(messageId);
+				this.consumer = createConsumer();
+				DefaultPulsarMessageListenerContainer.this.logger.info("Recreated the consumer after a receive failure.");
 			}
 			catch (PulsarClientException e) {
-				this.consumer.negativeAcknowledge(messageId);
+				this.consumer = null;
+				DefaultPulsarMessageListenerContainer.this.logger.error(e, () -> "Failed to recreate the consumer.");
 			}
 		}
 
-		@Override
-		public void acknowledge(List<MessageId> messageIds) {
+		private void handleReceiveRecovery() {
+			int failedAttempts = this.failedReceiveAttempts;
+			DefaultPulsarMessageListenerContainer.this.logger.info(
+					() -> "Receiving messages again after " + failedAttempts + " failed attempts.");
+			this.receiveFailureBackOff = null;
+			this.lastReceiveFailureBackOff = 0;
+			this.failedReceiveAttempts = 0;
+			DefaultPulsarMessageListenerContainer.this.consumerRestarts.incrementAndGet();
+			publishConsumerRecoveredEvent(failedAttempts);
+		}
+
+		private void invokeRecordListener(Message<T> message) {
+			PulsarConsumerErrorHandler<T> errorHandler = getPulsarConsumerErrorHandler();
+			while (true) {
+				try {
+					CompletableFuture<?> completion = doInvokeRecordListener(message);
+					if (errorHandler != null) {
+						errorHandler.clearMessage();
+					}
+					if (completion != null) {
+						handleAsyncCompletion(message, completion);
+					}
+					else if (!isManualAck(this.containerProperties.getAckMode())) {
+						// in the manual ack modes, the message is recorded once the listener acknowledges it.
+						this.deduplicator.record(List.of(message));
+						if (this.containerProperties.getAckMode() == PulsarContainerProperties.AckMode.RECORD) {
+							handleAck(message);
+						}
+					}
+					return;
+				}
+				catch (ContainerStoppedException e) {
+					skipMessage(message);
+					return;
+				}
+				catch (Exception e) {
+					if (errorHandler == null) {
+						handleRecordListenerFailure(message, e, null);
+						return;
+					}
+					if (!isRunning()) {
+						// the message is redelivered rather than recovered before its retries are exhausted.
+						errorHandler.clearMessage();
+						skipMessage(message);
+						return;
+					}
+					long backOff = errorHandler.nextRetryBackOff(e, message);
+					if (backOff == BackOffExecution.STOP) {
+						handleRecordListenerFailure(message, e, errorHandler);
+						return;
+					}
+					if (!awaitBackOff(backOff)) {
+						errorHandler.clearMessage();
+						skipMessage(message);
+						return;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Waits for the back off on the consumer thread, returning as soon as the
+		 * container is stopped.
+		 * @return true if the container is still running after the back off
+		 */
+		private boolean awaitBackOff(long backOffMillis) {
+			Object monitor = DefaultPulsarMessageListenerContainer.this.stopMonitor;
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backOffMillis);
+			synchronized (monitor) {
+				long remaining = deadline - System.nanoTime();
+				while (isRunning() && remaining > 0) {
+					try {
+						TimeUnit.NANOSECONDS.timedWait(monitor, remaining);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						setRunning(false);
+						return false;
+					}
+					remaining = deadline - System.nanoTime();
+				}
+			}
+			return isRunning();
+		}
+
+		@Nullable
+		private CompletableFuture<?> doInvokeRecordListener(Message<T> message) {
+			Acknowledgement acknowledgement = isManualAck(this.containerProperties.getAckMode()) ?
+					new ConsumerAcknowledgment(this.consumer, message, this.cumulativeAckSupported,
+							this.deduplicator) : null;
+			if (this.listener instanceof PulsarAsyncAcknowledgingMessageListener<T> asyncListener) {
+				if (!acquireInFlightPermit()) {
+					throw new ContainerStoppedException();
+				}
+				CompletableFuture<?> completion = null;
+				try {
+					completion = asyncListener.receivedAsync(this.consumer, message, acknowledgement);
+				}
+				finally {
+					if (completion == null) {
+						this.inFlightPermits.release();
+					}
+				}
+				return completion;
+			}
+			if (this.listener instanceof PulsarAcknowledgingMessageListener) {
+				this.listener.received(this.consumer, message, acknowledgement);
+			}
+			else if (this.listener != null) {
+				this.listener.received(this.consumer, message);
+			}
+			return null;
+		}
+
+		/**
+		 * Waits for an in-flight permit while the container is running, with the consumer
+		 * paused so that nothing more is fetched from the broker until enough asynchronous
+		 * completions have finished. Gives up when the container stops, so that a listener
+		 * future that never completes cannot hold the consumer thread past the shutdown.
+		 * @return whether a permit was acquired
+		 */
+		private boolean acquireInFlightPermit() {
+			if (this.inFlightPermits.tryAcquire()) {
+				return true;
+			}
+			this.consumer.pause();
 			try {
-				this.consumer.acknowledge(messageIds);
+				while (isRunning()) {
+					if (this.inFlightPermits.tryAcquire(IN_FLIGHT_PERMIT_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+						return true;
+					}
+				}
+				return false;
 			}
-			catch (PulsarClientException e) {
-				for (MessageId messageId : messageIds) {
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			finally {
+				if (isRunning()) {
+					this.consumer.resume();
+				}
+			}
+		}
+
+		/**
+		 * Leaves a message that was not handed to the listener because the container
+		 * stopped to be redelivered, without acknowledging it with the rest of its batch.
+		 */
+		private void skipMessage(Message<T> message) {
+			this.deduplicator.forget(List.of(message));
+			if (this.containerProperties.getAckMode() == PulsarContainerProperties.AckMode.BATCH) {
+				this.nackableMessages.add(message.getMessageId());
+			}
+		}
+
+		private void handleAsyncCompletion(Message<T> message, CompletableFuture<?> completion) {
+			PulsarContainerProperties.AckMode ackMode = this.containerProperties.getAckMode();
+			final Consumer<T> currentConsumer = this.consumer;
+			if (ackMode == PulsarContainerProperties.AckMode.BATCH) {
+				// the message is acknowledged once its processing completes rather than along with the batch.
+				this.deferredAckMessages.add(message.getMessageId());
+			}
+			CompletableFuture<?> pendingAck = completion
+					.thenCompose(result -> {
+						if (isManualAck(ackMode)) {
+							return CompletableFuture.completedFuture(null);
+						}
+						this.deduplicator.record(List.of(message));
+						return currentConsumer.acknowledgeAsync(message);
+					})
+					.whenComplete((result, ex) -> {
+						this.inFlightPermits.release();
+						if (ex != null) {
+							DefaultPulsarMessageListenerContainer.this.logger.error(ex,
+									() -> "Asynchronous processing failed for message " + message.getMessageId());
+							this.deduplicator.forget(List.of(message));
+							if (!isManualAck(ackMode)) {
+								currentConsumer.negativeAcknowledge(message);
+							}
+						}
+					});
+			trackPendingAck(pendingAck);
+		}
+
+		private void trackPendingAck(CompletableFuture<?> pendingAck) {
+			this.pendingAcks.add(pendingAck);
+			pendingAck.whenComplete((result, ex) -> this.pendingAcks.remove(pendingAck));
+		}
+
+		private void handleRecordListenerFailure(Message<T> message, Exception exception,
+				@Nullable PulsarConsumerErrorHandler<T> errorHandler) {
+			this.deduplicator.forget(List.of(message));
+			PulsarContainerProperties.AckMode ackMode = this.containerProperties.getAckMode();
+			if (errorHandler != null) {
+				final Consumer<T> currentConsumer = this.consumer;
+				CompletableFuture<?> recovery;
+				try {
+					recovery = errorHandler.recoverMessageAsync(currentConsumer, message, exception);
+				}
+				catch (Exception ex) {
+					recovery = CompletableFuture.failedFuture(ex);
+				}
+				if (ackMode == PulsarContainerProperties.AckMode.BATCH) {
+					// the message is acknowledged once recovered rather than along with the batch.
+					this.deferredAckMessages.add(message.getMessageId());
+				}
+				CompletableFuture<?> pendingAck = recovery
+						.thenCompose(result -> {
+							this.deduplicator.record(List.of(message));
+							return currentConsumer.acknowledgeAsync(message);
+						})
+						.whenComplete((result, ex) -> {
+							if (ex != null) {
+								DefaultPulsarMessageListenerContainer.this.logger.error(ex,
+										() -> "Failed to recover message " + message.getMessageId());
+								this.deduplicator.forget(List.of(message));
+								if (!isManualAck(ackMode)) {
+									currentConsumer.negativeAcknowledge(message);
+								}
+							}
+						});
+				trackPendingAck(pendingAck);
+				return;
+			}
+			if (ackMode == PulsarContainerProperties.AckMode.RECORD && !this.batchIndexAckEnabled) {
+				this.consumer.negativeAcknowledge(message);
+			}
+			else if (ackMode == PulsarContainerProperties.AckMode.RECORD
+					|| ackMode == PulsarContainerProperties.AckMode.BATCH) {
+				// negatively acknowledged once the rest of the received messages are acknowledged.
+				this.nackableMessages.add(message.getMessageId());
+			}
+		}
+
+		private void invokeBatchListener(Messages<T> messages) {
+			if (this.batchMessageListener instanceof PulsarBatchAcknowledgingMessageListener) {
+				this.batchMessageListener.received(this.consumer, messages,
+						isManualAck(this.containerProperties.getAckMode()) ?
+								new ConsumerBatchAcknowledgment(this.consumer, messages, this.cumulativeAckSupported,
+										this.deduplicator) : null);
+			}
+			else {
+				this.batchMessageListener.received(this.consumer, messages);
+			}
+			if (this.containerProperties.getAckMode() == PulsarContainerProperties.AckMode.BATCH
+					&& this.transaction == null) {
+				this.deduplicator.record(messages);
+				try {
+					this.consumer.acknowledge(messages);
+				}
+				catch (PulsarClientException pce) {
+					this.deduplicator.forget(messages);
+					this.consumer.negativeAcknowledge(messages);
+				}
+			}
+		}
+
+		/**
+		 * Deal with an exception thrown by the batch listener. Unless the listener reported
+		 * the failed message through a {@link BatchListenerFailedException}, the whole batch
+		 * is negatively acknowledged. Otherwise, the messages before the failed one are
+		 * acknowledged (in BATCH ack mode), the failed message is negatively acknowledged
+		 * and the remaining messages are either negatively acknowledged or returned so that
+		 * they are handed to the listener again.
+		 * @param messages the messages that were passed to the listener
+		 * @param exception the exception thrown by the listener
+		 * @return the messages that still need processing
+		 */
+		private Messages<T> handleBatchListenerFailure(Messages<T> messages, Exception exception) {
+			List<Message<T>> messageList = new ArrayList<>(messages.size());
+			messages.forEach(messageList::add);
+			BatchListenerFailedException batchFailure = findBatchListenerFailedException(exception);
+			int failedIndex = batchFailure != null ? findFailedIndex(batchFailure, messageList) : -1;
+			if (failedIndex < 0) {
+				if (batchFailure != null) {
+					DefaultPulsarMessageListenerContainer.this.logger.warn(() -> "Failed message "
+							+ batchFailure.getMessage() + " is not part of the batch; negatively acknowledging all.");
+				}
+				// the whole batch is negatively acknowledged in the event of an exception from the handler method.
+				this.deduplicator.forget(messages);
+				this.consumer.negativeAcknowledge(messages);
+				return new ListBasedMessages<>(Collections.emptyList());
+			}
+			if (failedIndex > 0 && this.containerProperties.getAckMode() == PulsarContainerProperties.AckMode.BATCH) {
+				List<Message<T>> processed = messageList.subList(0, failedIndex);
+				this.deduplicator.record(processed);
+				try {
+					this.consumer.acknowledge(processed.stream().map(Message::getMessageId).toList());
+				}
+				catch (PulsarClientException pce) {
+					this.deduplicator.forget(processed);
+					processed.forEach(this.consumer::negativeAcknowledge);
+				}
+			}
+			this.deduplicator.forget(List.of(messageList.get(failedIndex)));
+			this.consumer.negativeAcknowledge(messageList.get(failedIndex));
+			List<Message<T>> remaining = messageList.subList(failedIndex + 1, messageList.size());
+			if (this.containerProperties.isNackRemainingOnBatchFailure()) {
+				this.deduplicator.forget(remaining);
+				remaining.forEach(this.consumer::negativeAcknowledge);
+				return new ListBasedMessages<>(Collections.emptyList());
+			}
+			return new ListBasedMessages<>(remaining);
+		}
+
+		@Nullable
+		private BatchListenerFailedException findBatchListenerFailedException(Throwable exception) {
+			Throwable cause = exception;
+			while (cause != null) {
+				if (cause instanceof BatchListenerFailedException batchFailure) {
+					return batchFailure;
+				}
+				cause = cause.getCause();
+			}
+			return null;
+		}
+
+		private int findFailedIndex(BatchListenerFailedException batchFailure, List<Message<T>> messageList) {
+			MessageId failedMessageId = batchFailure.getMessageId();
+			if (failedMessageId == null) {
+				int index = batchFailure.getIndex();
+				return index < messageList.size() ? index : -1;
+			}
+			for (int i = 0; i < messageList.size(); i++) {
+				if (failedMessageId.equals(messageList.get(i).getMessageId())) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private void handleAcks(Messages<T> messages) {
+			if (this.nackableMessages.isEmpty() && this.deferredAckMessages.isEmpty()) {
+				try {
+					if (messages.size() > 0) {
+						this.consumer.acknowledge(messages);
+					}
+				}
+				catch (PulsarClientException pce) {
+					this.deduplicator.forget(messages);
+					this.consumer.negativeAcknowledge(messages);
+				}
+			}
+			else if (this.batchIndexAckEnabled) {
+				// acknowledge the batch indexes of the processed messages before negatively
+				// acknowledging the failed ones, so that only those are redelivered.
+				List<Message<T>> messagesToAck = new ArrayList<>();
+				List<Message<T>> messagesToNack = new ArrayList<>();
+				for (Message<T> message : messages) {
+					if (this.nackableMessages.remove(message.getMessageId())) {
+						messagesToNack.add(message);
+					}
+					else if (!this.deferredAckMessages.remove(message.getMessageId())) {
+						messagesToAck.add(message);
+					}
+				}
+				if (!messagesToAck.isEmpty()) {
 					try {
-						this.consumer.acknowledge(messageId);
+						this.consumer.acknowledge(messagesToAck.stream().map(Message::getMessageId).toList());
+					}
+					catch (PulsarClientException pce) {
+						this.deduplicator.forget(messagesToAck);
+						messagesToAck.forEach(this.consumer::negativeAcknowledge);
+					}
+				}
+				messagesToNack.forEach(this.consumer::negativeAcknowledge);
+			}
+			else {
+				for (Message<T> message : messages) {
+					if (this.nackableMessages.remove(message.getMessageId())) {
+						this.consumer.negativeAcknowledge(message);
 					}
-					catch (PulsarClientException ex) {
-						this.consumer.negativeAcknowledge(messageId);
+					else if (!this.deferredAckMessages.remove(message.getMessageId())) {
+						handleAck(message);
 					}
 				}
 			}
 		}
 
-		@Override
-		public void nack() {
-			throw new UnsupportedOperationException();
+		/**
+		 * Negatively acknowledges the failed records once all the received messages have
+		 * been handed to the listener. The processed records have already been
+		 * acknowledged one by one at that point, so with batch index acks enabled the
+		 * negative acknowledgement of a producer batch is never sent ahead of the
+		 * acknowledgements of its other batch indexes.
+		 */
+		private void handleRecordNacks(Messages<T> messages) {
+			if (this.nackableMessages.isEmpty()) {
+				return;
+			}
+			for (Message<T> message : messages) {
+				if (this.nackableMessages.remove(message.getMessageId())) {
+					this.consumer.negativeAcknowledge(message);
+				}
+			}
 		}
 
-		@Override
-		public void nack(MessageId messageId) {
-			this.consumer.negativeAcknowledge(messageId);
+		private void handleAck(Message<T> message) {
+			try {
+				this.consumer.acknowledge(message);
+			}
+			catch (PulsarClientException pce) {
+				this.deduplicator.forget(List.of(message));
+				this.consumer.negativeAcknowledge(message);
+			}
 		}
 	}
+
+	/**
+	 * Thrown on the consumer thread when the container stops while a message waits for
+	 * an in-flight permit.
+	 */
+	@SuppressWarnings("serial")
+	private static final class ContainerStoppedException extends RuntimeException {
+
+		ContainerStoppedException() {
+			super("The container stopped before the message was handed to the listener");
+		}
+
+	}
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.apache.pulsar.client.api.Message;
+
+import org.springframework.util.Assert;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * {@link MessageDeduplicator} that keeps the keys of the messages seen in a bounded
+ * Caffeine cache on the heap. Keys are evicted once they are older than the time to
+ * live, or according to the cache eviction policy when the maximum number of entries
+ * is reached.
+ * <p>
+ * Suitable for up to a few million entries; see {@link OffHeapMessageDeduplicator} for
+ * larger keyspaces.
+ *
+ * @author agent (agent@local)
+ */
+public class InMemoryMessageDeduplicator extends AbstractMessageDeduplicator {
+
+	private final Cache<Object, Boolean> entries;
+
+	/**
+	 * Construct an instance that deduplicates on the message id.
+	 * @param maxEntries the maximum number of message ids to keep
+	 * @param timeToLive how long a message id is kept
+	 */
+	public InMemoryMessageDeduplicator(long maxEntries, Duration timeToLive) {
+		this(maxEntries, timeToLive, Message::getMessageId);
+	}
+
+	/**
+	 * Construct an instance that deduplicates on a key extracted from the messages.
+	 * @param maxEntries the maximum number of keys to keep
+	 * @param timeToLive how long a key is kept
+	 * @param keyExtractor the function extracting the key of a message
+	 */
+	public InMemoryMessageDeduplicator(long maxEntries, Duration timeToLive, Function<Message<?>, ?> keyExtractor) {
+		super(keyExtractor);
+		Assert.isTrue(maxEntries > 0, "'maxEntries' must be greater than 0");
+		Assert.isTrue(timeToLive != null && !timeToLive.isNegative() && !timeToLive.isZero(),
+				"'timeToLive' must be positive");
+		this.entries = Caffeine.newBuilder()
+				.maximumSize(maxEntries)
+				.expireAfterWrite(timeToLive)
+				.executor(Runnable::run)
+				.build();
+	}
+
+	@Override
+	protected boolean contains(Object key) {
+		return this.entries.getIfPresent(key) != null;
+	}
+
+	@Override
+	protected void add(Object key) {
+		this.entries.put(key, Boolean.TRUE);
+	}
+
+	@Override
+	protected void remove(Object key) {
+		this.entries.invalidate(key);
+	}
+
+	/**
+	 * Return the number of keys currently kept.
+	 * @return the number of entries
+	 */
+	public long size() {
+		this.entries.cleanUp();
+		return this.entries.estimatedSize();
+	}
+}
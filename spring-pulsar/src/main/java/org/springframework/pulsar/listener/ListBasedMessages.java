@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.Messages;
+
+/**
+ * {@link Messages} backed by a list, used when the container hands only a part of a
+ * received batch to a batch listener.
+ *
+ * @param <T> message type.
+ * @author agent (agent@local)
+ */
+final class ListBasedMessages<T> implements Messages<T> {
+
+	private final List<Message<T>> messages;
+
+	ListBasedMessages(List<Message<T>> messages) {
+		this.messages = Collections.unmodifiableList(messages);
+	}
+
+	List<Message<T>> asList() {
+		return this.messages;
+	}
+
+	@Override
+	public int size() {
+		return this.messages.size();
+	}
+
+	@Override
+	public Iterator<Message<T>> iterator() {
+		return this.messages.iterator();
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.apache.pulsar.client.api.transaction.Transaction;
+
+import org.springframework.core.log.LogAccessor;
+import org.springframework.lang.Nullable;
+import org.springframework.pulsar.core.PulsarTransactionFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction in which a listener container acknowledges its messages. The transaction
+ * stays bound to the consumer thread across several messages and is committed once
+ * enough messages or time have passed.
+ * <p>
+ * Instances are not thread-safe and are meant to be used by a single consumer thread.
+ *
+ * @param <T> message type.
+ * @author agent (agent@local)
+ * @see PulsarContainerProperties#setTransactionFactory(PulsarTransactionFactory)
+ */
+final class ListenerTransaction<T> {
+
+	private final PulsarTransactionFactory transactionFactory;
+
+	private final int commitCount;
+
+	@Nullable
+	private final Duration commitInterval;
+
+	private final MessageDeduplicatorInvoker deduplicator;
+
+	private final LogAccessor logger;
+
+	private final List<Message<T>> messages = new ArrayList<>();
+
+	private final List<CompletableFuture<?>> acks = new ArrayList<>();
+
+	private Transaction transaction;
+
+	private long startNanos;
+
+	ListenerTransaction(PulsarTransactionFactory transactionFactory, PulsarContainerProperties containerProperties,
+			MessageDeduplicatorInvoker deduplicator, LogAccessor logger) {
+		this.transactionFactory = transactionFactory;
+		this.commitCount = containerProperties.getTransactionCommitCount();
+		this.commitInterval = containerProperties.getTransactionCommitInterval();
+		this.deduplicator = deduplicator;
+		this.logger = logger;
+	}
+
+	boolean isActive() {
+		return this.transaction != null;
+	}
+
+	/**
+	 * Begin a transaction and bind it to the consumer thread, unless one is active.
+	 * @throws PulsarClientException if the transaction cannot be created
+	 */
+	void beginIfNecessary() throws PulsarClientException {
+		if (this.transaction != null) {
+			return;
+		}
+		this.transaction = this.transactionFactory.createTransaction();
+		this.startNanos = System.nanoTime();
+		TransactionSynchronizationManager.bindResource(this.transactionFactory, this.transaction);
+	}
+
+	/**
+	 * Acknowledge the message in the transaction, once the listener completes its
+	 * processing when it is asynchronous.
+	 * @param consumer the consumer that received the message
+	 * @param message the message
+	 * @param completion the completion of an asynchronous listener, if any
+	 */
+	void acknowledge(Consumer<T> consumer, Message<T> message, @Nullable CompletableFuture<?> completion) {
+		final Transaction currentTransaction = this.transaction;
+		this.messages.add(message);
+		if (completion == null) {
+			this.acks.add(consumer.acknowledgeAsync(message.getMessageId(), currentTransaction));
+			return;
+		}
+		this.acks.add(completion.thenCompose(result -> {
+			this.deduplicator.record(List.of(message));
+			return consumer.acknowledgeAsync(message.getMessageId(), currentTransaction);
+		}));
+	}
+
+	void commitIfDue(Consumer<T> consumer) {
+		if (this.transaction == null) {
+			return;
+		}
+		if (this.messages.size() >= this.commitCount || (this.commitInterval != null
+				&& System.nanoTime() - this.startNanos >= this.commitInterval.toNanos())) {
+			commit(consumer);
+		}
+	}
+
+	/**
+	 * Waits for the pending acknowledgements, including the ones of asynchronous
+	 * listeners, before committing the transaction. The transaction is aborted if any
+	 * of them or the commit fails.
+	 * @param consumer the consumer that received the messages
+	 */
+	void commit(Consumer<T> consumer) {
+		final Transaction currentTransaction = this.transaction;
+		CompletableFuture<?>[] pendingAcks = this.acks.toArray(CompletableFuture[]::new);
+		try {
+			CompletableFuture.allOf(pendingAcks).thenCompose(ignored -> currentTransaction.commit()).get();
+			reset();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			abort(consumer, Collections.emptyList(), e);
+		}
+		catch (ExecutionException e) {
+			abort(consumer, Collections.emptyList(), e.getCause());
+		}
+	}
+
+	/**
+	 * Aborts the current transaction and negatively acknowledges its messages along
+	 * with the failed ones, so that they are all processed again.
+	 * @param consumer the consumer that received the messages
+	 * @param failedMessages the messages the listener failed to process
+	 * @param cause the failure
+	 */
+	void abort(Consumer<T> consumer, Iterable<Message<T>> failedMessages, Throwable cause) {
+		List<Message<T>> messagesToNack = new ArrayList<>(this.messages);
+		failedMessages.forEach(messagesToNack::add);
+		discard(cause);
+		this.deduplicator.forget(failedMessages);
+		messagesToNack.forEach(consumer::negativeAcknowledge);
+	}
+
+	/**
+	 * Aborts the current transaction, whose messages are then redelivered, and removes
+	 * them from the deduplicator so that they are processed again.
+	 * @param cause the reason for the abort
+	 */
+	void discard(Throwable cause) {
+		final Transaction currentTransaction = this.transaction;
+		this.deduplicator.forget(this.messages);
+		reset();
+		this.logger.error(cause, () -> "Aborting transaction"
+				+ (currentTransaction != null ? " " + currentTransaction.getTxnID() : "") + ".");
+		if (currentTransaction != null) {
+			currentTransaction.abort().whenComplete((result, ex) -> {
+				if (ex != null) {
+					this.logger.error(ex, () -> "Failed to abort transaction " + currentTransaction.getTxnID());
+				}
+			});
+		}
+	}
+
+	private void reset() {
+		if (this.transaction != null) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(this.transactionFactory);
+		}
+		this.transaction = null;
+		this.messages.clear();
+		this.acks.clear();
+	}
+}
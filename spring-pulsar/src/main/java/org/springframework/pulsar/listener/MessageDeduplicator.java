@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import org.apache.pulsar.client.api.Message;
+
+/**
+ * Strategy invoked by the message listener container for each received message, before
+ * the listener, to discard messages that have already been seen, such as messages
+ * redelivered by the broker after a negative acknowledgement, an acknowledgement timeout
+ * or a consumer restart.
+ * <p>
+ * A message is only {@link #record(Message) recorded} once it has been processed
+ * successfully and is being acknowledged, so that a message that fails, or that is
+ * dropped before being acknowledged, is processed again when redelivered. The container
+ * calls {@link #forget(Message)} when a recorded message ends up not being acknowledged.
+ * As a consequence, copies of a message received while it is still being processed are
+ * not considered duplicates. Duplicates are acknowledged by the container.
+ * <p>
+ * Implementations must be thread-safe.
+ *
+ * @author agent (agent@local)
+ * @see InMemoryMessageDeduplicator
+ * @see OffHeapMessageDeduplicator
+ */
+public interface MessageDeduplicator {
+
+	/**
+	 * Return whether the message has already been processed.
+	 * @param message the message
+	 * @return true if the message is a duplicate
+	 */
+	boolean isDuplicate(Message<?> message);
+
+	/**
+	 * Record a message that has been processed successfully, so that it is considered a
+	 * duplicate when it is received again.
+	 * @param message the message
+	 */
+	void record(Message<?> message);
+
+	/**
+	 * Remove a recorded message, so that it is not considered a duplicate when it is
+	 * received again.
+	 * @param message the message
+	 */
+	void forget(Message<?> message);
+
+	/**
+	 * Return the number of messages checked so far.
+	 * @return the lookup count
+	 */
+	long getLookupCount();
+
+	/**
+	 * Return the number of messages found to be duplicates so far.
+	 * @return the duplicate count
+	 */
+	long getDuplicateCount();
+
+	/**
+	 * Return the ratio of duplicates to the messages checked so far.
+	 * @return the hit rate, between 0 and 1
+	 */
+	default double getHitRate() {
+		long lookups = getLookupCount();
+		return lookups == 0 ? 0 : (double) getDuplicateCount() / lookups;
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import org.apache.pulsar.client.api.Message;
+
+import org.springframework.core.log.LogAccessor;
+import org.springframework.lang.Nullable;
+
+/**
+ * Invokes the {@link MessageDeduplicator} of a listener container, if any, logging its
+ * failures rather than letting them stop the consumer thread. A message the
+ * deduplicator fails to check is passed to the listener.
+ *
+ * @author agent (agent@local)
+ */
+final class MessageDeduplicatorInvoker {
+
+	@Nullable
+	private final MessageDeduplicator messageDeduplicator;
+
+	private final LogAccessor logger;
+
+	MessageDeduplicatorInvoker(@Nullable MessageDeduplicator messageDeduplicator, LogAccessor logger) {
+		this.messageDeduplicator = messageDeduplicator;
+		this.logger = logger;
+	}
+
+	boolean isEnabled() {
+		return this.messageDeduplicator != null;
+	}
+
+	boolean isDuplicate(Message<?> message) {
+		if (this.messageDeduplicator == null) {
+			return false;
+		}
+		try {
+			return this.messageDeduplicator.isDuplicate(message);
+		}
+		catch (RuntimeException e) {
+			this.logger.error(e, () -> "Message deduplicator failed for message " + message.getMessageId()
+					+ ", passing it to the listener.");
+			return false;
+		}
+	}
+
+	/**
+	 * Records the messages the listener processed successfully, so that they are
+	 * discarded when redelivered.
+	 * @param messages the processed messages
+	 */
+	void record(Iterable<? extends Message<?>> messages) {
+		if (this.messageDeduplicator == null) {
+			return;
+		}
+		for (Message<?> message : messages) {
+			try {
+				this.messageDeduplicator.record(message);
+			}
+			catch (RuntimeException e) {
+				this.logger.error(e, () -> "Message deduplicator failed to record message " + message.getMessageId());
+			}
+		}
+	}
+
+	/**
+	 * Removes messages that are not acknowledged after all, so that they are processed
+	 * again when redelivered.
+	 * @param messages the messages to forget
+	 */
+	void forget(Iterable<? extends Message<?>> messages) {
+		if (this.messageDeduplicator == null) {
+			return;
+		}
+		for (Message<?> message : messages) {
+			try {
+				this.messageDeduplicator.forget(message);
+			}
+			catch (RuntimeException e) {
+				this.logger.error(e, () -> "Message deduplicator failed to forget message " + message.getMessageId());
+			}
+		}
+	}
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link MessageDeduplicator} for tens of millions of entries that keeps a 64-bit hash
+ * of each key, with the time it was recorded, in an open-addressing table allocated
+ * outside of the heap, so that it neither adds objects nor GC pressure per message.
+ * <p>
+ * The table takes 20 bytes per slot, with twice as many slots as entries rounded up to
+ * a power of two, plus 16 bytes per entry for the eviction queue; for example about 830
+ * MB of direct memory for 10 million entries. Keys are evicted once they are older than
+ * the time to live, or in the order they were first recorded when the maximum number of
+ * entries is reached. A forgotten key is marked as removed in the eviction queue, so
+ * that it neither evicts the key if it is recorded again nor counts towards the maximum
+ * number of entries.
+ * <p>
+ * As only hashes are kept, two distinct keys may collide, in which case the second one
+ * is wrongly considered a duplicate; with 64-bit hashes, the probability is about
+ * {@code n^2 / 2^65} for {@code n} entries, or one in 370,000 for 10 million entries.
+ *
+ * @author agent (agent@local)
+ */
+public class OffHeapMessageDeduplicator extends AbstractMessageDeduplicator {
+
+	/**
+	 * The maximum number of entries, bounded by the size of a direct buffer.
+	 */
+	public static final int MAX_ENTRIES = 1 << 26;
+
+	private static final long EMPTY = 0;
+
+	private final int maxEntries;
+
+	private final long timeToLiveMillis;
+
+	private final int mask;
+
+	private final LongBuffer hashes;
+
+	private final LongBuffer timestamps;
+
+	// the position of each entry in the eviction queue, so that it can be marked as removed there.
+	private final IntBuffer queuePositions;
+
+	private final LongBuffer insertionQueue;
+
+	private final int queueCapacity;
+
+	private int queueHead;
+
+	private int queueSize;
+
+	private int size;
+
+	/**
+	 * Construct an instance that deduplicates on the message id.
+	 * @param maxEntries the maximum number of message ids to keep
+	 * @param timeToLive how long a message id is kept
+	 */
+	public OffHeapMessageDeduplicator(int maxEntries, Duration timeToLive) {
+		this(maxEntries, timeToLive, Message::getMessageId);
+	}
+
+	/**
+	 * Construct an instance that deduplicates on a key extracted from the messages.
+	 * Keys are hashed from their bytes when they are a {@link MessageId} or a
+	 * {@code byte[]}, and from their {@code toString()} representation otherwise.
+	 * @param maxEntries the maximum number of keys to keep
+	 * @param timeToLive how long a key is kept
+	 * @param keyExtractor the function extracting the key of a message
+	 */
+	public OffHeapMessageDeduplicator(int maxEntries, Duration timeToLive, Function<Message<?>, ?> keyExtractor) {
+		super(keyExtractor);
+		Assert.isTrue(maxEntries > 0 && maxEntries <= MAX_ENTRIES,
+				() -> "'maxEntries' must be between 1 and " + MAX_ENTRIES);
+		Assert.isTrue(timeToLive != null && !timeToLive.isNegative() && !timeToLive.isZero(),
+				"'timeToLive' must be positive");
+		this.maxEntries = maxEntries;
+		this.timeToLiveMillis = timeToLive.toMillis();
+		int slots = Integer.highestOneBit(maxEntries * 2 - 1) << 1;
+		this.mask = slots - 1;
+		this.hashes = allocate(slots);
+		this.timestamps = allocate(slots);
+		this.queuePositions = ByteBuffer.allocateDirect(slots * Integer.BYTES).order(ByteOrder.nativeOrder())
+				.asIntBuffer();
+		// room for as many removed entries as live ones keeps the compaction of the queue amortized.
+		this.queueCapacity = maxEntries * 2;
+		this.insertionQueue = allocate(this.queueCapacity);
+	}
+
+	private static LongBuffer allocate(int longs) {
+		return ByteBuffer.allocateDirect(longs * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+	}
+
+	@Override
+	protected synchronized boolean contains(Object key) {
+		int slot = find(hash(key));
+		return slot >= 0 && System.currentTimeMillis() - this.timestamps.get(slot) < this.timeToLiveMillis;
+	}
+
+	@Override
+	protected synchronized void add(Object key) {
+		long hash = hash(key);
+		long now = System.currentTimeMillis();
+		int slot = find(hash);
+		if (slot >= 0) {
+			// already recorded, possibly expired but not evicted yet: record it again in place.
+			this.timestamps.put(slot, now);
+			return;
+		}
+		if (this.size == this.maxEntries) {
+			evictOldest();
+		}
+		if (this.queueSize == this.queueCapacity) {
+			compactQueue();
+		}
+		int position = (this.queueHead + this.queueSize) % this.queueCapacity;
+		this.insertionQueue.put(position, hash);
+		this.queueSize++;
+		insert(hash, now, position);
+	}
+
+	@Override
+	protected synchronized void remove(Object key) {
+		int slot = find(hash(key));
+		if (slot >= 0) {
+			this.insertionQueue.put(this.queuePositions.get(slot), EMPTY);
+			delete(slot);
+		}
+	}
+
+	private void evictOldest() {
+		long hash;
+		do {
+			hash = this.insertionQueue.get(this.queueHead);
+			this.queueHead = (this.queueHead + 1) % this.queueCapacity;
+			this.queueSize--;
+		}
+		while (hash == EMPTY);
+		delete(find(hash));
+	}
+
+	/**
+	 * Drops the entries marked as removed from the eviction queue, keeping the order of
+	 * the others.
+	 */
+	private void compactQueue() {
+		int live = 0;
+		for (int i = 0; i < this.queueSize; i++) {
+			long hash = this.insertionQueue.get((this.queueHead + i) % this.queueCapacity);
+			if (hash != EMPTY) {
+				int position = (this.queueHead + live) % this.queueCapacity;
+				this.insertionQueue.put(position, hash);
+				this.queuePositions.put(find(hash), position);
+				live++;
+			}
+		}
+		this.queueSize = live;
+	}
+
+	private int find(long hash) {
+		int slot = home(hash);
+		long current;
+		while ((current = this.hashes.get(slot)) != EMPTY) {
+			if (current == hash) {
+				return slot;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return -1;
+	}
+
+	private void insert(long hash, long timestamp, int queuePosition) {
+		int slot = home(hash);
+		while (this.hashes.get(slot) != EMPTY) {
+			slot = (slot + 1) & this.mask;
+		}
+		this.hashes.put(slot, hash);
+		this.timestamps.put(slot, timestamp);
+		this.queuePositions.put(slot, queuePosition);
+		this.size++;
+	}
+
+	/**
+	 * Removes the entry of a slot with backward shift deletion, moving the following
+	 * entries of the probe sequence up so that no tombstones are needed.
+	 */
+	private void delete(int slot) {
+		this.size--;
+		int next = slot;
+		while (true) {
+			next = (next + 1) & this.mask;
+			long nextHash = this.hashes.get(next);
+			if (nextHash == EMPTY) {
+				this.hashes.put(slot, EMPTY);
+				return;
+			}
+			int nextHome = home(nextHash);
+			boolean reachable = slot <= next ? (slot < nextHome && nextHome <= next)
+					: (slot < nextHome || nextHome <= next);
+			if (!reachable) {
+				this.hashes.put(slot, nextHash);
+				this.timestamps.put(slot, this.timestamps.get(next));
+				this.queuePositions.put(slot, this.queuePositions.get(next));
+				slot = next;
+			}
+		}
+	}
+
+	private int home(long hash) {
+		return (int) (hash ^ (hash >>> 32)) & this.mask;
+	}
+
+	private static long hash(Object key) {
+		byte[] bytes;
+		if (key instanceof MessageId messageId) {
+			bytes = messageId.toByteArray();
+		}
+		else if (key instanceof byte[] keyBytes) {
+			bytes = keyBytes;
+		}
+		else {
+			bytes = key.toString().getBytes(StandardCharsets.UTF_8);
+		}
+		// FNV-1a followed by the MurmurHash3 finalizer for a good bit distribution.
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : bytes) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash == EMPTY ? 1 : hash;
+	}
+
+	/**
+	 * Return the number of keys currently kept, including expired ones that have not
+	 * been evicted yet.
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return this.size;
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.pulsar.listener;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Record message listener whose processing may complete asynchronously. When the
+ * returned future is not null, the container keeps receiving messages and acknowledges
+ * or negatively acknowledges the message once the future completes.
+ *
+ * @param <T> message payload type
+ * @author agent (agent@local)
+ */
+@FunctionalInterface
+public interface PulsarAsyncAcknowledgingMessageListener<T> extends PulsarAcknowledgingMessageListener<T> {
+
+	/**
+	 * Invoke the listener and wait for the processing to complete.
+	 * @param consumer the Pulsar consumer
+	 * @param msg the message
+	 * @param acknowledgement the acknowledgement to use in manual ack mode, otherwise null
+	 */
+	@Override
+	default void received(Consumer<T> consumer, Message<T> msg, @Nullable Acknowledgement acknowledgement) {
+		CompletableFuture<?> completion = receivedAsync(consumer, msg, acknowledgement);
+		if (completion != null) {
+			completion.join();
+		}
+	}
+
+	/**
+	 * Invoke the listener with the message.
+	 * @param consumer the Pulsar consumer
+	 * @param msg the message
+	 * @param acknowledgement the acknowledgement to use in manual ack mode, otherwise null
+	 * @return a future completed when the message is processed, or null when the message
+	 * was processed synchronously
+	 */
+	@Nullable
+	CompletableFuture<?> receivedAsync(Consumer<T> consumer, Message<T> msg, @Nullable Acknowledgement acknowledgement);
+}
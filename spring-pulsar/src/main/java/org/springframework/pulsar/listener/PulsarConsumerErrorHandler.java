@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+
+import org.springframework.util.backoff.BackOffExecution;
+
+/**
+ * Error handler invoked by the message listener container when a record listener
+ * throws an exception. The handler decides whether the message is retried in-process
+ * and how it is recovered once retries are exhausted, before the container falls back
+ * to a negative acknowledgement.
+ *
+ * @param <T> payload type managed by the Pulsar consumer
+ * @author agent (agent@local)
+ */
+public interface PulsarConsumerErrorHandler<T> {
+
+	/**
+	 * Decide whether the message should be delivered to the listener again, and after
+	 * how long. The container waits for the returned back off on the consumer thread,
+	 * and stops waiting as soon as it is stopped, in which case the message is left for
+	 * redelivery rather than recovered.
+	 * @param exception the exception thrown by the listener
+	 * @param message the message that failed
+	 * @return the time to wait in milliseconds before the listener is invoked again with
+	 * the same message, or {@link BackOffExecution#STOP} if the message should be
+	 * recovered
+	 */
+	long nextRetryBackOff(Exception exception, Message<T> message);
+
+	/**
+	 * Recover the message once retries are exhausted.
+	 * @param consumer the Pulsar consumer
+	 * @param message the message that failed
+	 * @param exception the exception thrown by the listener
+	 */
+	void recoverMessage(Consumer<T> consumer, Message<T> message, Exception exception);
+
+	/**
+	 * Recover the message once retries are exhausted without blocking the consumer
+	 * thread. The container acknowledges the message once the returned future completes
+	 * successfully and negatively acknowledges it if the future completes exceptionally.
+	 * By default, this delegates to {@link #recoverMessage(Consumer, Message, Exception)}.
+	 * @param consumer the Pulsar consumer
+	 * @param message the message that failed
+	 * @param exception the exception thrown by the listener
+	 * @return a future completed once the message is recovered
+	 */
+	default CompletableFuture<?> recoverMessageAsync(Consumer<T> consumer, Message<T> message, Exception exception) {
+		try {
+			recoverMessage(consumer, message, exception);
+			return CompletableFuture.completedFuture(null);
+		}
+		catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	/**
+	 * Clear any retry state held for the message currently being processed on the
+	 * calling thread. Called by the container when the listener succeeds.
+	 */
+	void clearMessage();
+}
@@ -19,12 +19,19 @@ package org.springframework.pulsar.listener;
 import java.time.Duration;
 import java.util.regex.Pattern;
 
+import org.apache.pulsar.client.api.DeadLetterPolicy;
+import org.apache.pulsar.client.api.RedeliveryBackoff;
+import org.apache.pulsar.client.api.RegexSubscriptionMode;
 import org.apache.pulsar.client.api.Schema;
 import org.apache.pulsar.client.api.SubscriptionType;
 import org.apache.pulsar.common.schema.SchemaType;
 
 import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.pulsar.core.PulsarTransactionFactory;
 import org.springframework.util.Assert;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 /**
  * Contains runtime properties for a listener container.
@@ -35,8 +42,12 @@ public class PulsarContainerProperties {
 
 	private static final Duration DEFAULT_CONSUMER_START_TIMEOUT = Duration.ofSeconds(30);
 
+	private static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
 	private Duration consumerStartTimeout = DEFAULT_CONSUMER_START_TIMEOUT;
 
+	private Duration shutdownTimeout = DEFAULT_SHUTDOWN_TIMEOUT;
+
 	/**
 	 * Enumeration for ack mode.
 	 */
@@ -52,13 +63,23 @@ public class PulsarContainerProperties {
 		/**
 		 * Manual ack mode.
 		 */
-		MANUAL;
+		MANUAL,
+		/**
+		 * Manual ack mode where {@link Acknowledgement#acknowledgeCumulative()} is used
+		 * to acknowledge all the messages up to a given one. Only supported for Exclusive
+		 * and Failover subscriptions.
+		 */
+		MANUAL_CUMULATIVE;
 	}
 
 	private String[] topics;
 
 	private Pattern topicsPattern;
 
+	private Duration patternAutoDiscoveryPeriod;
+
+	private RegexSubscriptionMode regexSubscriptionMode;
+
 	private String subscriptionName;
 
 	private SubscriptionType subscriptionType;
@@ -77,10 +98,44 @@ public class PulsarContainerProperties {
 
 	private int batchTimeout = 100;
 
+	private Duration batchReceiveTargetLatency;
+
+	private double maxMessagesPerSecond;
+
+	private long maxBytesPerSecond;
+
+	private Duration batchWindow;
+
+	private int batchWindowMaxMessages = -1;
+
+	private boolean batchWindowGroupByKey;
+
 	private boolean batchListener;
 
 	private AckMode ackMode = AckMode.BATCH;
 
+	private boolean nackRemainingOnBatchFailure;
+
+	private DeadLetterPolicy deadLetterPolicy;
+
+	private RedeliveryBackoff negativeAckRedeliveryBackoff;
+
+	private RedeliveryBackoff ackTimeoutRedeliveryBackoff;
+
+	private BackOff receiveFailureBackOff = createDefaultReceiveFailureBackOff();
+
+	private boolean recreateConsumerOnReceiveFailure;
+
+	private int maxInFlightMessages = 100;
+
+	private Boolean batchIndexAckEnabled;
+
+	private PulsarTransactionFactory transactionFactory;
+
+	private int transactionCommitCount = 1;
+
+	private Duration transactionCommitInterval;
+
 	public PulsarContainerProperties(String... topics) {
 		this.topics = topics.clone();
 		this.topicsPattern = null;
@@ -155,6 +210,124 @@ public class PulsarContainerProperties {
 		this.ackMode = ackMode;
 	}
 
+	public boolean isNackRemainingOnBatchFailure() {
+		return this.nackRemainingOnBatchFailure;
+	}
+
+	/**
+	 * Set to true to negatively acknowledge the messages following the failed one when a
+	 * batch listener throws a {@link BatchListenerFailedException}. By default, those
+	 * messages are handed to the listener again without a broker redelivery.
+	 * @param nackRemainingOnBatchFailure true to negatively acknowledge the remaining
+	 * messages.
+	 */
+	public void setNackRemainingOnBatchFailure(boolean nackRemainingOnBatchFailure) {
+		this.nackRemainingOnBatchFailure = nackRemainingOnBatchFailure;
+	}
+
+	public DeadLetterPolicy getDeadLetterPolicy() {
+		return this.deadLetterPolicy;
+	}
+
+	/**
+	 * Set the Pulsar native dead letter policy of the consumer.
+	 * @param deadLetterPolicy the dead letter policy.
+	 */
+	public void setDeadLetterPolicy(DeadLetterPolicy deadLetterPolicy) {
+		this.deadLetterPolicy = deadLetterPolicy;
+	}
+
+	public RedeliveryBackoff getNegativeAckRedeliveryBackoff() {
+		return this.negativeAckRedeliveryBackoff;
+	}
+
+	/**
+	 * Set the back off used by the consumer to delay the redelivery of negatively
+	 * acknowledged messages.
+	 * @param negativeAckRedeliveryBackoff the redelivery back off.
+	 */
+	public void setNegativeAckRedeliveryBackoff(RedeliveryBackoff negativeAckRedeliveryBackoff) {
+		this.negativeAckRedeliveryBackoff = negativeAckRedeliveryBackoff;
+	}
+
+	public RedeliveryBackoff getAckTimeoutRedeliveryBackoff() {
+		return this.ackTimeoutRedeliveryBackoff;
+	}
+
+	/**
+	 * Set the back off used by the consumer to delay the redelivery of messages whose
+	 * acknowledgement timed out.
+	 * @param ackTimeoutRedeliveryBackoff the redelivery back off.
+	 */
+	public void setAckTimeoutRedeliveryBackoff(RedeliveryBackoff ackTimeoutRedeliveryBackoff) {
+		this.ackTimeoutRedeliveryBackoff = ackTimeoutRedeliveryBackoff;
+	}
+
+	public BackOff getReceiveFailureBackOff() {
+		return this.receiveFailureBackOff;
+	}
+
+	/**
+	 * Set the back off applied by the consumer thread between attempts when receiving
+	 * messages fails, for example during a broker failover. The consumer thread keeps
+	 * retrying until the container is stopped; when the back off is exhausted, its last
+	 * interval is reused. Defaults to an exponential back off starting at 1 second and
+	 * capped at 30 seconds.
+	 * @param receiveFailureBackOff the back off.
+	 */
+	public void setReceiveFailureBackOff(BackOff receiveFailureBackOff) {
+		Assert.notNull(receiveFailureBackOff, "'receiveFailureBackOff' cannot be null");
+		this.receiveFailureBackOff = receiveFailureBackOff;
+	}
+
+	public boolean isRecreateConsumerOnReceiveFailure() {
+		return this.recreateConsumerOnReceiveFailure;
+	}
+
+	/**
+	 * Set to true to close the consumer and subscribe a new one after receiving messages
+	 * fails. By default, the same consumer is used again and relies on the Pulsar client
+	 * to reconnect.
+	 * @param recreateConsumerOnReceiveFailure true to recreate the consumer.
+	 */
+	public void setRecreateConsumerOnReceiveFailure(boolean recreateConsumerOnReceiveFailure) {
+		this.recreateConsumerOnReceiveFailure = recreateConsumerOnReceiveFailure;
+	}
+
+	public int getMaxInFlightMessages() {
+		return this.maxInFlightMessages;
+	}
+
+	/**
+	 * Set the maximum number of messages whose asynchronous processing may be in flight
+	 * at once, for listeners returning a {@code CompletableFuture} or a {@code Mono}. When
+	 * the limit is reached, the consumer is paused until processing completes for some of
+	 * them. Default 100.
+	 * @param maxInFlightMessages the maximum number of in-flight messages.
+	 */
+	public void setMaxInFlightMessages(int maxInFlightMessages) {
+		Assert.isTrue(maxInFlightMessages > 0, "'maxInFlightMessages' must be greater than 0");
+		this.maxInFlightMessages = maxInFlightMessages;
+	}
+
+	@Nullable
+	public Boolean getBatchIndexAckEnabled() {
+		return this.batchIndexAckEnabled;
+	}
+
+	/**
+	 * Set to true to acknowledge the individual messages of a producer batch, so that a
+	 * partially processed batch is not redelivered as a whole. In the {@code BATCH} and
+	 * {@code RECORD} ack modes, the failed messages are negatively acknowledged after
+	 * the processed messages of the same receive are acknowledged. Requires
+	 * {@code acknowledgmentAtBatchIndexLevelEnabled} to be enabled on the broker. When
+	 * not set, the consumer factory configuration applies.
+	 * @param batchIndexAckEnabled true to enable batch index acknowledgement.
+	 */
+	public void setBatchIndexAckEnabled(Boolean batchIndexAckEnabled) {
+		this.batchIndexAckEnabled = batchIndexAckEnabled;
+	}
+
 	public Duration getConsumerStartTimeout() {
 		return this.consumerStartTimeout;
 	}
@@ -169,6 +342,183 @@ public class PulsarContainerProperties {
 		this.consumerStartTimeout = consumerStartTimeout;
 	}
 
+	public Duration getShutdownTimeout() {
+		return this.shutdownTimeout;
+	}
+
+	/**
+	 * Set the timeout to wait, when the container stops, for the consumer thread to
+	 * finish the messages it is processing, flush pending acknowledgements and close the
+	 * consumer. When the timeout elapses, the consumer is closed regardless. Default 10
+	 * seconds.
+	 * @param shutdownTimeout the shutdown timeout.
+	 */
+	public void setShutdownTimeout(Duration shutdownTimeout) {
+		Assert.notNull(shutdownTimeout, "'shutdownTimeout' cannot be null");
+		this.shutdownTimeout = shutdownTimeout;
+	}
+
+	@Nullable
+	public Duration getBatchReceiveTargetLatency() {
+		return this.batchReceiveTargetLatency;
+	}
+
+	/**
+	 * Set a target latency to enable adaptive batch receive. Instead of waiting for a
+	 * fixed batch policy to fill up, the container then adjusts the number of messages
+	 * to gather and how long to wait for them from the observed arrival rate and listener
+	 * latency, so that messages are processed within the target latency after they are
+	 * received. {@link #setMaxNumMessages(int) maxNumMessages} and
+	 * {@link #setMaxNumBytes(int) maxNumBytes} remain upper bounds. Not set by default.
+	 * @param batchReceiveTargetLatency the target latency or {@code null} to use the
+	 * fixed batch receive policy.
+	 */
+	public void setBatchReceiveTargetLatency(@Nullable Duration batchReceiveTargetLatency) {
+		Assert.isTrue(batchReceiveTargetLatency == null
+				|| (!batchReceiveTargetLatency.isNegative() && !batchReceiveTargetLatency.isZero()),
+				"'batchReceiveTargetLatency' must be positive");
+		this.batchReceiveTargetLatency = batchReceiveTargetLatency;
+	}
+
+	public double getMaxMessagesPerSecond() {
+		return this.maxMessagesPerSecond;
+	}
+
+	/**
+	 * Set the maximum rate at which messages are received. The container waits before
+	 * receiving more messages when the rate is exceeded, so that the receiver queue fills
+	 * up and broker-side flow control throttles delivery. Not limited by default.
+	 * @param maxMessagesPerSecond the maximum number of messages per second or 0 for no
+	 * limit.
+	 */
+	public void setMaxMessagesPerSecond(double maxMessagesPerSecond) {
+		Assert.isTrue(maxMessagesPerSecond >= 0, "'maxMessagesPerSecond' cannot be negative");
+		this.maxMessagesPerSecond = maxMessagesPerSecond;
+	}
+
+	public long getMaxBytesPerSecond() {
+		return this.maxBytesPerSecond;
+	}
+
+	/**
+	 * Set the maximum rate, in payload bytes, at which messages are received. Not limited
+	 * by default.
+	 * @param maxBytesPerSecond the maximum number of bytes per second or 0 for no limit.
+	 * @see #setMaxMessagesPerSecond(double)
+	 */
+	public void setMaxBytesPerSecond(long maxBytesPerSecond) {
+		Assert.isTrue(maxBytesPerSecond >= 0, "'maxBytesPerSecond' cannot be negative");
+		this.maxBytesPerSecond = maxBytesPerSecond;
+	}
+
+	@Nullable
+	public Duration getBatchWindow() {
+		return this.batchWindow;
+	}
+
+	/**
+	 * Set a time window over which a batch listener's messages are accumulated, across
+	 * as many receives as needed, before the listener is invoked once with all of them.
+	 * The window starts with its first message and also closes when
+	 * {@link #setBatchWindowMaxMessages(int) batchWindowMaxMessages} is reached or the
+	 * container stops. In BATCH ack mode, the messages of the window are acknowledged
+	 * together once the listener returns. Only applies to batch listeners; not set by
+	 * default, in which case the listener receives what each batch receive returns.
+	 * @param batchWindow the window duration or {@code null} to disable windowing.
+	 */
+	public void setBatchWindow(@Nullable Duration batchWindow) {
+		Assert.isTrue(batchWindow == null || (!batchWindow.isNegative() && !batchWindow.isZero()),
+				"'batchWindow' must be positive");
+		this.batchWindow = batchWindow;
+	}
+
+	public int getBatchWindowMaxMessages() {
+		return this.batchWindowMaxMessages;
+	}
+
+	/**
+	 * Set the maximum number of messages in a {@link #setBatchWindow(Duration) batch
+	 * window}. The window is closed as soon as it holds that many messages. Note that the
+	 * messages of an open window are not acknowledged yet and count towards the broker's
+	 * limit of unacknowledged messages per consumer. Default -1 (no limit).
+	 * @param batchWindowMaxMessages the maximum number of messages or -1 for no limit.
+	 */
+	public void setBatchWindowMaxMessages(int batchWindowMaxMessages) {
+		this.batchWindowMaxMessages = batchWindowMaxMessages;
+	}
+
+	public boolean isBatchWindowGroupByKey() {
+		return this.batchWindowGroupByKey;
+	}
+
+	/**
+	 * Set to true to invoke the batch listener once per message key when a
+	 * {@link #setBatchWindow(Duration) batch window} closes, rather than once with all
+	 * the messages of the window. Messages without a key are grouped together. Default
+	 * false.
+	 * @param batchWindowGroupByKey true to group the messages of a window by key.
+	 */
+	public void setBatchWindowGroupByKey(boolean batchWindowGroupByKey) {
+		this.batchWindowGroupByKey = batchWindowGroupByKey;
+	}
+
+	@Nullable
+	public PulsarTransactionFactory getTransactionFactory() {
+		return this.transactionFactory;
+	}
+
+	/**
+	 * Set the factory of the transactions the messages are acknowledged in. The
+	 * transaction is bound to the consumer thread so that a
+	 * {@link org.springframework.pulsar.core.PulsarTemplate} configured with the same
+	 * factory sends the listener's messages in it, and is committed according to
+	 * {@link #setTransactionCommitCount(int) transactionCommitCount} and
+	 * {@link #setTransactionCommitInterval(Duration) transactionCommitInterval}. When the
+	 * listener fails, the transaction is aborted and all its messages are negatively
+	 * acknowledged. Only RECORD and BATCH ack modes are supported. Not set by default.
+	 * @param transactionFactory the transaction factory or {@code null} to disable
+	 * transactions.
+	 */
+	public void setTransactionFactory(@Nullable PulsarTransactionFactory transactionFactory) {
+		this.transactionFactory = transactionFactory;
+	}
+
+	public int getTransactionCommitCount() {
+		return this.transactionCommitCount;
+	}
+
+	/**
+	 * Set the number of messages after which the current transaction is committed.
+	 * Committing every few hundred messages rather than every message amortizes the cost
+	 * of the commit, at the expense of more messages being redelivered when the listener
+	 * fails. Default 1.
+	 * @param transactionCommitCount the number of messages per transaction.
+	 */
+	public void setTransactionCommitCount(int transactionCommitCount) {
+		Assert.isTrue(transactionCommitCount > 0, "'transactionCommitCount' must be positive");
+		this.transactionCommitCount = transactionCommitCount;
+	}
+
+	@Nullable
+	public Duration getTransactionCommitInterval() {
+		return this.transactionCommitInterval;
+	}
+
+	/**
+	 * Set the time after which the current transaction is committed, even when it holds
+	 * fewer than {@link #setTransactionCommitCount(int) transactionCommitCount} messages.
+	 * The interval should be well below the timeout of the transactions. Not set by
+	 * default.
+	 * @param transactionCommitInterval the interval or {@code null} to only commit based
+	 * on the number of messages.
+	 */
+	public void setTransactionCommitInterval(@Nullable Duration transactionCommitInterval) {
+		Assert.isTrue(transactionCommitInterval == null
+				|| (!transactionCommitInterval.isNegative() && !transactionCommitInterval.isZero()),
+				"'transactionCommitInterval' must be positive");
+		this.transactionCommitInterval = transactionCommitInterval;
+	}
+
 	public Schema<?> getSchema() {
 		return this.schema;
 	}
@@ -193,6 +543,40 @@ public class PulsarContainerProperties {
 		this.topicsPattern = topicsPattern;
 	}
 
+	@Nullable
+	public Duration getPatternAutoDiscoveryPeriod() {
+		return this.patternAutoDiscoveryPeriod;
+	}
+
+	/**
+	 * Set how often the topics matching the {@link #setTopicsPattern(Pattern) topics
+	 * pattern} are looked up, so that new topics are subscribed to and deleted ones
+	 * unsubscribed from. When not set, the consumer factory configuration applies (one
+	 * minute by default).
+	 * @param patternAutoDiscoveryPeriod the discovery period, with second granularity and
+	 * at least one second.
+	 */
+	public void setPatternAutoDiscoveryPeriod(@Nullable Duration patternAutoDiscoveryPeriod) {
+		Assert.isTrue(patternAutoDiscoveryPeriod == null || patternAutoDiscoveryPeriod.toSeconds() >= 1,
+				"'patternAutoDiscoveryPeriod' must be at least one second");
+		this.patternAutoDiscoveryPeriod = patternAutoDiscoveryPeriod;
+	}
+
+	@Nullable
+	public RegexSubscriptionMode getRegexSubscriptionMode() {
+		return this.regexSubscriptionMode;
+	}
+
+	/**
+	 * Set whether the {@link #setTopicsPattern(Pattern) topics pattern} matches
+	 * persistent topics, non-persistent topics or both. When not set, the consumer
+	 * factory configuration applies (persistent topics only by default).
+	 * @param regexSubscriptionMode the regex subscription mode.
+	 */
+	public void setRegexSubscriptionMode(@Nullable RegexSubscriptionMode regexSubscriptionMode) {
+		this.regexSubscriptionMode = regexSubscriptionMode;
+	}
+
 	public String getSubscriptionName() {
 		return this.subscriptionName;
 	}
@@ -208,4 +592,10 @@ public class PulsarContainerProperties {
 	public void setSchemaType(SchemaType schemaType) {
 		this.schemaType = schemaType;
 	}
+
+	private static BackOff createDefaultReceiveFailureBackOff() {
+		ExponentialBackOff backOff = new ExponentialBackOff(1000, 2.0);
+		backOff.setMaxInterval(30_000);
+		return backOff;
+	}
 }
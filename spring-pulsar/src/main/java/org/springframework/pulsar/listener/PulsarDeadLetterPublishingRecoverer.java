@@ -0,0 +1,190 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
+
+import org.apache.commons.logging.LogFactory;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.PulsarClientException;
+
+import org.springframework.core.log.LogAccessor;
+import org.springframework.pulsar.PulsarException;
+import org.springframework.pulsar.core.PulsarTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * {@link PulsarMessageRecovererFactory} that publishes failed messages to a dead letter
+ * topic using a {@link PulsarTemplate}.
+ * <p>
+ * The original payload bytes, key, event time and properties are published along with
+ * properties describing the failure. Messages are sent asynchronously, so that several
+ * failed messages can share a producer batch when the template uses a caching producer
+ * factory, and the container acknowledges the original message only once the dead
+ * letter message is persisted.
+ * <p>
+ * By default, the dead letter topic is named after the original topic and the
+ * subscription, suffixed with {@code -DLT}.
+ *
+ * @param <T> payload type of the Pulsar message
+ * @author agent (agent@local)
+ */
+public class PulsarDeadLetterPublishingRecoverer<T> implements PulsarMessageRecovererFactory<T> {
+
+	/**
+	 * Property holding the fully qualified class name of the exception.
+	 */
+	public static final String EXCEPTION_FQCN = "pulsar_dlt-exception-fqcn";
+
+	/**
+	 * Property holding the message of the exception.
+	 */
+	public static final String EXCEPTION_MESSAGE = "pulsar_dlt-exception-message";
+
+	/**
+	 * Property holding the stack trace of the exception.
+	 */
+	public static final String EXCEPTION_STACKTRACE = "pulsar_dlt-exception-stacktrace";
+
+	/**
+	 * Property holding the fully qualified class name of the exception cause.
+	 */
+	public static final String EXCEPTION_CAUSE_FQCN = "pulsar_dlt-exception-cause-fqcn";
+
+	/**
+	 * Property holding the topic of the original message.
+	 */
+	public static final String ORIGINAL_TOPIC = "pulsar_dlt-original-topic";
+
+	/**
+	 * Property holding the message id of the original message.
+	 */
+	public static final String ORIGINAL_MESSAGE_ID = "pulsar_dlt-original-message-id";
+
+	/**
+	 * Property holding the subscription that failed to process the original message.
+	 */
+	public static final String ORIGINAL_SUBSCRIPTION = "pulsar_dlt-original-subscription";
+
+	/**
+	 * Property holding the publish time of the original message.
+	 */
+	public static final String ORIGINAL_PUBLISH_TIME = "pulsar_dlt-original-publish-time";
+
+	private static final String DEFAULT_DEAD_LETTER_TOPIC_SUFFIX = "-DLT";
+
+	private final LogAccessor logger = new LogAccessor(LogFactory.getLog(this.getClass()));
+
+	private final PulsarTemplate<byte[]> pulsarTemplate;
+
+	private final BiFunction<Consumer<?>, Message<?>, String> destinationResolver;
+
+	/**
+	 * Construct an instance that publishes to the default dead letter topic.
+	 * @param pulsarTemplate the template used to publish the raw message bytes
+	 */
+	public PulsarDeadLetterPublishingRecoverer(PulsarTemplate<byte[]> pulsarTemplate) {
+		this(pulsarTemplate, (consumer, message) -> message.getTopicName() + "-" + consumer.getSubscription()
+				+ DEFAULT_DEAD_LETTER_TOPIC_SUFFIX);
+	}
+
+	/**
+	 * Construct an instance that publishes to the topic returned by the resolver.
+	 * @param pulsarTemplate the template used to publish the raw message bytes
+	 * @param destinationResolver function returning the dead letter topic for a failed
+	 * message and the consumer that received it
+	 */
+	public PulsarDeadLetterPublishingRecoverer(PulsarTemplate<byte[]> pulsarTemplate,
+			BiFunction<Consumer<?>, Message<?>, String> destinationResolver) {
+		Assert.notNull(pulsarTemplate, "'pulsarTemplate' cannot be null");
+		Assert.notNull(destinationResolver, "'destinationResolver' cannot be null");
+		this.pulsarTemplate = pulsarTemplate;
+		this.destinationResolver = destinationResolver;
+	}
+
+	@Override
+	public PulsarMessageRecoverer<T> recovererForConsumer(Consumer<T> consumer) {
+		return new PulsarMessageRecoverer<>() {
+
+			@Override
+			public void recoverMessage(Message<T> message, Exception exception) {
+				try {
+					recoverMessageAsync(message, exception).get();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new PulsarException("Interrupted while publishing to the dead letter topic", e);
+				}
+				catch (ExecutionException e) {
+					throw new PulsarException("Failed to publish to the dead letter topic", e.getCause());
+				}
+			}
+
+			@Override
+			public CompletableFuture<?> recoverMessageAsync(Message<T> message, Exception exception) {
+				return publish(consumer, message, exception);
+			}
+
+		};
+	}
+
+	private CompletableFuture<MessageId> publish(Consumer<T> consumer, Message<T> message, Exception exception) {
+		String destination = this.destinationResolver.apply(consumer, message);
+		this.logger.debug(() -> "Publishing message " + message.getMessageId() + " to dead letter topic " + destination);
+		try {
+			return this.pulsarTemplate.sendAsync(destination, message.getData(), null, messageBuilder -> {
+				if (message.hasKey()) {
+					messageBuilder.key(message.getKey());
+				}
+				if (message.getEventTime() > 0) {
+					messageBuilder.eventTime(message.getEventTime());
+				}
+				messageBuilder.properties(createProperties(consumer, message, exception));
+			});
+		}
+		catch (PulsarClientException ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	private Map<String, String> createProperties(Consumer<T> consumer, Message<T> message, Exception exception) {
+		Map<String, String> properties = new HashMap<>(message.getProperties());
+		properties.put(EXCEPTION_FQCN, exception.getClass().getName());
+		if (exception.getMessage() != null) {
+			properties.put(EXCEPTION_MESSAGE, exception.getMessage());
+		}
+		if (exception.getCause() != null) {
+			properties.put(EXCEPTION_CAUSE_FQCN, exception.getCause().getClass().getName());
+		}
+		StringWriter stackTrace = new StringWriter();
+		exception.printStackTrace(new PrintWriter(stackTrace));
+		properties.put(EXCEPTION_STACKTRACE, stackTrace.toString());
+		properties.put(ORIGINAL_TOPIC, message.getTopicName());
+		properties.put(ORIGINAL_MESSAGE_ID, message.getMessageId().toString());
+		properties.put(ORIGINAL_SUBSCRIPTION, consumer.getSubscription());
+		properties.put(ORIGINAL_PUBLISH_TIME, String.valueOf(message.getPublishTime()));
+		return properties;
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.pulsar.client.api.Message;
+
+/**
+ * Strategy to recover a message that could not be processed by the listener.
+ *
+ * @param <T> payload type of the Pulsar message
+ * @author agent (agent@local)
+ */
+@FunctionalInterface
+public interface PulsarMessageRecoverer<T> {
+
+	/**
+	 * Recover the failed message, for example by publishing it to a dead letter topic.
+	 * @param message the message that failed
+	 * @param exception the exception thrown by the listener
+	 */
+	void recoverMessage(Message<T> message, Exception exception);
+
+	/**
+	 * Recover the failed message without blocking the consumer thread. The container
+	 * acknowledges the message only once the returned future completes successfully.
+	 * By default, this delegates to {@link #recoverMessage(Message, Exception)}.
+	 * @param message the message that failed
+	 * @param exception the exception thrown by the listener
+	 * @return a future completed once the message is recovered
+	 */
+	default CompletableFuture<?> recoverMessageAsync(Message<T> message, Exception exception) {
+		try {
+			recoverMessage(message, exception);
+			return CompletableFuture.completedFuture(null);
+		}
+		catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+}
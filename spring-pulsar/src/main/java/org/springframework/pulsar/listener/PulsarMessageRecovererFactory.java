@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import org.apache.pulsar.client.api.Consumer;
+
+/**
+ * Factory that provides a {@link PulsarMessageRecoverer} for a given Pulsar consumer.
+ *
+ * @param <T> payload type of the Pulsar message
+ * @author agent (agent@local)
+ */
+@FunctionalInterface
+public interface PulsarMessageRecovererFactory<T> {
+
+	/**
+	 * Provide a recoverer for the consumer.
+	 * @param consumer the Pulsar consumer
+	 * @return the recoverer
+	 */
+	PulsarMessageRecoverer<T> recovererForConsumer(Consumer<T> consumer);
+}
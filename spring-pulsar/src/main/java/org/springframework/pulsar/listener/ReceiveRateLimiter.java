@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.Messages;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Enforces the maximum message and byte rates of a listener container by telling the
+ * consumer thread how long to hold back its next receive.
+ * <p>
+ * Instances are not thread-safe and are meant to be used by a single consumer thread.
+ *
+ * @author agent (agent@local)
+ * @see PulsarContainerProperties#setMaxMessagesPerSecond(double)
+ * @see PulsarContainerProperties#setMaxBytesPerSecond(long)
+ */
+final class ReceiveRateLimiter {
+
+	@Nullable
+	private final TokenBucketRateLimiter messageRateLimiter;
+
+	@Nullable
+	private final TokenBucketRateLimiter byteRateLimiter;
+
+	private ReceiveRateLimiter(@Nullable TokenBucketRateLimiter messageRateLimiter,
+			@Nullable TokenBucketRateLimiter byteRateLimiter) {
+		this.messageRateLimiter = messageRateLimiter;
+		this.byteRateLimiter = byteRateLimiter;
+	}
+
+	/**
+	 * Create a rate limiter for the limits of the container properties.
+	 * @param containerProperties the container properties
+	 * @return the rate limiter or {@code null} if no rate is limited
+	 */
+	@Nullable
+	static ReceiveRateLimiter create(PulsarContainerProperties containerProperties) {
+		TokenBucketRateLimiter messageRateLimiter = createRateLimiter(containerProperties.getMaxMessagesPerSecond());
+		TokenBucketRateLimiter byteRateLimiter = createRateLimiter(containerProperties.getMaxBytesPerSecond());
+		if (messageRateLimiter == null && byteRateLimiter == null) {
+			return null;
+		}
+		return new ReceiveRateLimiter(messageRateLimiter, byteRateLimiter);
+	}
+
+	@Nullable
+	private static TokenBucketRateLimiter createRateLimiter(double permitsPerSecond) {
+		return permitsPerSecond > 0 ? new TokenBucketRateLimiter(permitsPerSecond) : null;
+	}
+
+	/**
+	 * Return how long to wait until the configured rates allow more messages.
+	 * @return the time to wait in nanoseconds, zero if messages can be received
+	 */
+	long nanosUntilPermitted() {
+		long waitNanos = this.messageRateLimiter != null ? this.messageRateLimiter.nanosUntilAvailable() : 0;
+		if (this.byteRateLimiter != null) {
+			waitNanos = Math.max(waitNanos, this.byteRateLimiter.nanosUntilAvailable());
+		}
+		return waitNanos;
+	}
+
+	/**
+	 * Consume the permits of received messages.
+	 * @param messages the received messages
+	 */
+	void consume(Messages<?> messages) {
+		if (this.messageRateLimiter != null) {
+			this.messageRateLimiter.consume(messages.size());
+		}
+		if (this.byteRateLimiter != null) {
+			long bytes = 0;
+			for (Message<?> message : messages) {
+				bytes += message.size();
+			}
+			this.byteRateLimiter.consume(bytes);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import org.apache.pulsar.client.api.Message;
+
+/**
+ * Strategy invoked by the message listener container for each received message,
+ * before the listener, to discard messages that do not need to be processed.
+ * <p>
+ * Pulsar decodes the payload lazily, so implementations that only look at the key,
+ * properties, publish or event time of the message avoid deserializing it. Discarded
+ * messages are acknowledged by the container.
+ *
+ * @param <T> payload type managed by the Pulsar consumer
+ * @author agent (agent@local)
+ */
+@FunctionalInterface
+public interface RecordFilterStrategy<T> {
+
+	/**
+	 * Return true if the message should be discarded.
+	 * @param message the message
+	 * @return true to discard the message
+	 */
+	boolean filter(Message<T> message);
+}
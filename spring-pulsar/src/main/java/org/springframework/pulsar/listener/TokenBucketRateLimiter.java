@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.listener;
+
+import org.springframework.util.Assert;
+
+/**
+ * Token bucket refilled at a fixed rate, holding at most one second worth of permits.
+ * <p>
+ * Permits are consumed after the fact, since the number of messages a receive returns
+ * is not known in advance, so the bucket may go into debt; callers wait for it to refill
+ * before receiving again.
+ *
+ * @author agent (agent@local)
+ */
+final class TokenBucketRateLimiter {
+
+	private final double permitsPerSecond;
+
+	private final double capacity;
+
+	private double permits;
+
+	private long lastRefillNanos;
+
+	TokenBucketRateLimiter(double permitsPerSecond) {
+		Assert.isTrue(permitsPerSecond > 0, "'permitsPerSecond' must be greater than 0");
+		this.permitsPerSecond = permitsPerSecond;
+		this.capacity = Math.max(1, permitsPerSecond);
+		this.permits = this.capacity;
+		this.lastRefillNanos = System.nanoTime();
+	}
+
+	/**
+	 * Return how long to wait until at least one permit is available.
+	 * @return the time to wait in nanoseconds, zero if a permit is available
+	 */
+	long nanosUntilAvailable() {
+		refill();
+		if (this.permits >= 1) {
+			return 0;
+		}
+		return (long) Math.ceil((1 - this.permits) / this.permitsPerSecond * 1e9);
+	}
+
+	/**
+	 * Consume permits, possibly going into debt.
+	 * @param count the number of permits to consume
+	 */
+	void consume(long count) {
+		refill();
+		this.permits -= count;
+	}
+
+	private void refill() {
+		long now = System.nanoTime();
+		this.permits = Math.min(this.capacity,
+				this.permits + (now - this.lastRefillNanos) / 1e9 * this.permitsPerSecond);
+		this.lastRefillNanos = now;
+	}
+}
@@ -93,9 +93,11 @@ public class PulsarBatchMessagingMessageListenerAdapter<V> extends PulsarMessagi
 		Message<?> message = messageArg;
 		try {
 			Object result = invokeHandler(records, message, consumer, acknowledgement);
-//			if (result != null) {
-//				handleResult(result, records, message);
-//			}
+			if (result != null && isReplyEnabled()) {
+				// wait for the pipelined sends so that the batch is acknowledged only once
+				// all the replies have been published.
+				sendReplies(result, null).join();
+			}
 		}
 		catch (Exception e) {
 			throw e;
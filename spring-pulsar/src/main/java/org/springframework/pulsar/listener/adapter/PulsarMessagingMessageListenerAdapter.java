@@ -20,8 +20,10 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.logging.LogFactory;
 import org.apache.pulsar.client.api.Consumer;
@@ -35,13 +37,18 @@ import org.springframework.expression.BeanResolver;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.expression.spel.support.StandardTypeConverter;
+import org.springframework.lang.Nullable;
 import org.springframework.messaging.converter.MessageConversionException;
 import org.springframework.messaging.converter.SmartMessageConverter;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.pulsar.core.PulsarTemplate;
+import org.springframework.pulsar.core.TypedMessageBuilderCustomizer;
 import org.springframework.pulsar.listener.Acknowledgement;
+import org.springframework.pulsar.support.PulsarHeaders;
 import org.springframework.pulsar.support.converter.PulsarMessagingMessageConverter;
 import org.springframework.pulsar.support.converter.PulsarRecordMessageConverter;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 /**
  * An abstract {@link org.apache.pulsar.client.api.MessageListener} adapter
@@ -82,6 +89,10 @@ public abstract class PulsarMessagingMessageListenerAdapter<V> {
 
 	private Type fallbackType = Object.class;
 
+	private PulsarTemplate<Object> replyTemplate;
+
+	private String replyTopic;
+
 	public PulsarMessagingMessageListenerAdapter(Object bean, Method method) {
 		this.bean = bean;
 		this.inferredType = determineInferredType(method);
@@ -114,6 +125,32 @@ public abstract class PulsarMessagingMessageListenerAdapter<V> {
 		this.handlerMethod = handlerMethod;
 	}
 
+	/**
+	 * Set the template used to publish the values returned by the listener method.
+	 * Use a template backed by a caching producer factory so that a producer is not
+	 * created for each reply.
+	 * @param replyTemplate the reply template
+	 */
+	@SuppressWarnings("unchecked")
+	public void setReplyTemplate(PulsarTemplate<?> replyTemplate) {
+		this.replyTemplate = (PulsarTemplate<Object>) replyTemplate;
+	}
+
+	/**
+	 * Set the topic the values returned by the listener method are published to. An
+	 * empty topic publishes each reply to the topic set in the
+	 * {@link PulsarHeaders#REPLY_TOPIC} property of the message it answers, while
+	 * {@code null}, the default, discards the returned values.
+	 * @param replyTopic the reply topic
+	 */
+	public void setReplyTopic(@Nullable String replyTopic) {
+		this.replyTopic = replyTopic;
+	}
+
+	protected boolean isReplyEnabled() {
+		return this.replyTopic != null;
+	}
+
 	protected boolean isConsumerRecordList() {
 		return this.isConsumerRecordList;
 	}
@@ -158,6 +195,52 @@ public abstract class PulsarMessagingMessageListenerAdapter<V> {
 	}
 
 
+	/**
+	 * Publish the value returned by the listener method, or each of its elements when it
+	 * is a collection, to the reply topic. The replies are sent asynchronously and
+	 * carry the correlation id of the message they answer, if any.
+	 * @param result the value returned by the listener method
+	 * @param request the message the reply answers or {@code null} for a batch
+	 * @return a future completed once all the replies have been sent
+	 */
+	protected CompletableFuture<Void> sendReplies(@Nullable Object result,
+			@Nullable Message<V> request) {
+		if (result == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		try {
+			Assert.state(this.replyTemplate != null, "A reply template is required to publish listener results");
+			String topic = resolveReplyTopic(request);
+			String correlationId = request != null ? request.getProperty(PulsarHeaders.CORRELATION_ID) : null;
+			TypedMessageBuilderCustomizer<Object> customizer = correlationId == null ? null
+					: messageBuilder -> messageBuilder.property(PulsarHeaders.CORRELATION_ID, correlationId);
+			Collection<?> values = result instanceof Collection<?> collection ? collection : List.of(result);
+			List<CompletableFuture<?>> sends = new ArrayList<>(values.size());
+			for (Object value : values) {
+				if (value instanceof org.springframework.messaging.Message<?> message) {
+					value = message.getPayload();
+				}
+				if (value != null) {
+					sends.add(this.replyTemplate.sendAsync(topic, value, null, customizer));
+				}
+			}
+			return CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]));
+		}
+		catch (Exception ex) {
+			return CompletableFuture.failedFuture(ex);
+		}
+	}
+
+	private String resolveReplyTopic(@Nullable Message<V> request) {
+		if (StringUtils.hasText(this.replyTopic)) {
+			return this.replyTopic;
+		}
+		String requestReplyTopic = request != null ? request.getProperty(PulsarHeaders.REPLY_TOPIC) : null;
+		Assert.state(StringUtils.hasText(requestReplyTopic), () -> "No reply topic: set it on @SendTo or in the '"
+				+ PulsarHeaders.REPLY_TOPIC + "' property of the request");
+		return requestReplyTopic;
+	}
+
 	protected Type determineInferredType(Method method) { // NOSONAR complexity
 		if (method == null) {
 			return null;
@@ -292,5 +375,4 @@ public abstract class PulsarMessagingMessageListenerAdapter<V> {
 	}
 
 
-
 }
@@ -17,6 +17,8 @@
 package org.springframework.pulsar.listener.adapter;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.pulsar.client.api.Consumer;
 import org.apache.pulsar.client.api.Message;
@@ -24,7 +26,10 @@ import org.apache.pulsar.client.api.MessageListener;
 
 import org.springframework.lang.Nullable;
 import org.springframework.pulsar.listener.Acknowledgement;
-import org.springframework.pulsar.listener.PulsarAcknowledgingMessageListener;
+import org.springframework.pulsar.listener.PulsarAsyncAcknowledgingMessageListener;
+import org.springframework.util.ClassUtils;
+
+import reactor.core.publisher.Mono;
 
 /**
  * A {@link MessageListener MessageListener}
@@ -37,14 +42,19 @@ import org.springframework.pulsar.listener.PulsarAcknowledgingMessageListener;
  */
 @SuppressWarnings("serial")
 public class PulsarRecordMessagingMessageListenerAdapter<V> extends PulsarMessagingMessageListenerAdapter<V>
-		implements PulsarAcknowledgingMessageListener<V> {
+		implements PulsarAsyncAcknowledgingMessageListener<V> {
+
+	private static final boolean MONO_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono",
+			PulsarRecordMessagingMessageListenerAdapter.class.getClassLoader());
 
 	public PulsarRecordMessagingMessageListenerAdapter(Object bean, Method method) {
 		super(bean, method);
 	}
 
 	@Override
-	public void received(Consumer<V> consumer, Message<V> record, @Nullable Acknowledgement acknowledgement) {
+	@Nullable
+	public CompletableFuture<?> receivedAsync(Consumer<V> consumer, Message<V> record,
+			@Nullable Acknowledgement acknowledgement) {
 		org.springframework.messaging.Message<?> message = null;
 		if (isConversionNeeded()) {
 			message = toMessagingMessage(record, consumer);
@@ -57,13 +67,46 @@ public class PulsarRecordMessagingMessageListenerAdapter<V> extends PulsarMessag
 		}
 		try {
 			Object result = invokeHandler(record, message, consumer, acknowledgement);
-			if (result != null) {
-				//handleResult(result, record, message);
+			CompletableFuture<?> completion = toCompletableFuture(result);
+			if (!isReplyEnabled()) {
+				return completion;
 			}
+			// the container acknowledges the message once the reply has been sent.
+			if (completion != null) {
+				return completion.thenCompose(value -> sendReplies(value, record));
+			}
+			return result != null ? sendReplies(result, record) : null;
 		}
 		catch (Exception e) { // NOSONAR ex flow control
 			throw e;
 		}
 	}
 
+	@Nullable
+	private CompletableFuture<?> toCompletableFuture(@Nullable Object result) {
+		if (result instanceof CompletionStage<?> completionStage) {
+			return completionStage.toCompletableFuture();
+		}
+		if (MONO_PRESENT && MonoAdapter.isMono(result)) {
+			return MonoAdapter.toFuture(result);
+		}
+		return null;
+	}
+
+	/**
+	 * Keeps the reference to Reactor types out of the adapter when Reactor is not on the
+	 * classpath.
+	 */
+	private static final class MonoAdapter {
+
+		static boolean isMono(@Nullable Object result) {
+			return result instanceof Mono;
+		}
+
+		static CompletableFuture<?> toFuture(Object result) {
+			return ((Mono<?>) result).toFuture();
+		}
+
+	}
+
 }
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.reader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.LogFactory;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.apache.pulsar.client.api.Reader;
+import org.apache.pulsar.client.api.Schema;
+
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.pulsar.PulsarException;
+import org.springframework.pulsar.core.PulsarReaderFactory;
+import org.springframework.pulsar.support.CheckpointRestoreCallback;
+import org.springframework.pulsar.support.CheckpointRestoreRegistrar;
+import org.springframework.util.Assert;
+
+/**
+ * Default implementation for {@link PulsarMessageReaderContainer}.
+ * <p>
+ * A single thread reads the topics sequentially from the configured start position,
+ * gathering up to {@link PulsarReaderContainerProperties#getMaxNumMessages()} messages
+ * per read before handing them to the listener in order. There is no subscription and
+ * nothing is acknowledged, so the container is suited to replays and full scans. A
+ * listener exception is logged and the next message is processed. A running container
+ * is stopped before a CRaC checkpoint and started again after restore, resuming after
+ * the last message read before the checkpoint.
+ *
+ * @param <T> message type.
+ * @author agent (agent@local)
+ */
+public class DefaultPulsarMessageReaderContainer<T>
+		implements PulsarMessageReaderContainer, BeanNameAware, CheckpointRestoreCallback {
+
+	private static final long STOP_TIMEOUT_MILLIS = 10_000;
+
+	private final LogAccessor logger = new LogAccessor(LogFactory.getLog(this.getClass()));
+
+	private final PulsarReaderFactory<T> pulsarReaderFactory;
+
+	private final PulsarReaderContainerProperties containerProperties;
+
+	private final Object lifecycleMonitor = new Object();
+
+	private final AtomicLong readMessages = new AtomicLong();
+
+	// Keeps the CRaC resource reachable, the CRaC context only holds weak references.
+	private final Object checkpointRestoreResource;
+
+	private volatile boolean runningBeforeCheckpoint;
+
+	private volatile boolean running;
+
+	private volatile Reader<T> reader;
+
+	@Nullable
+	private volatile MessageId lastMessageId;
+
+	@Nullable
+	private volatile MessageId restoreMessageId;
+
+	private volatile CompletableFuture<Void> stopFuture = CompletableFuture.completedFuture(null);
+
+	private String beanName;
+
+	private boolean autoStartup = true;
+
+	private int phase = DEFAULT_PHASE;
+
+	public DefaultPulsarMessageReaderContainer(PulsarReaderFactory<T> pulsarReaderFactory,
+			PulsarReaderContainerProperties containerProperties) {
+		Assert.notNull(pulsarReaderFactory, "'pulsarReaderFactory' cannot be null");
+		Assert.notNull(containerProperties, "'containerProperties' cannot be null");
+		this.pulsarReaderFactory = pulsarReaderFactory;
+		this.containerProperties = containerProperties;
+		this.checkpointRestoreResource = CheckpointRestoreRegistrar.register(this);
+	}
+
+	public PulsarReaderContainerProperties getContainerProperties() {
+		return this.containerProperties;
+	}
+
+	@Override
+	public void setBeanName(String name) {
+		this.beanName = name;
+	}
+
+	@Nullable
+	public String getBeanName() {
+		return this.beanName;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return this.autoStartup;
+	}
+
+	@Override
+	public void setAutoStartup(boolean autoStartup) {
+		this.autoStartup = autoStartup;
+	}
+
+	@Override
+	public int getPhase() {
+		return this.phase;
+	}
+
+	public void setPhase(int phase) {
+		this.phase = phase;
+	}
+
+	/**
+	 * Return the number of messages read since the container was created.
+	 * @return the number of messages read
+	 */
+	public long getReadMessageCount() {
+		return this.readMessages.get();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void start() {
+		synchronized (this.lifecycleMonitor) {
+			if (this.running) {
+				return;
+			}
+			PulsarReaderMessageListener<T> listener = (PulsarReaderMessageListener<T>) this.containerProperties
+					.getReaderListener();
+			Assert.state(listener != null, "A reader listener is required");
+			Assert.state(this.containerProperties.getSchema() != null, "A schema is required");
+			this.reader = createReader();
+			AsyncListenableTaskExecutor readerExecutor = this.containerProperties.getReaderTaskExecutor();
+			if (readerExecutor == null) {
+				readerExecutor = new SimpleAsyncTaskExecutor((this.beanName == null ? "" : this.beanName) + "-R-");
+				this.containerProperties.setReaderTaskExecutor(readerExecutor);
+			}
+			CompletableFuture<Void> loopFuture = new CompletableFuture<>();
+			this.stopFuture = loopFuture;
+			this.running = true;
+			Reader<T> currentReader = this.reader;
+			readerExecutor.execute(() -> {
+				try {
+					readAndInvoke(currentReader, listener);
+				}
+				finally {
+					loopFuture.complete(null);
+				}
+			});
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Reader<T> createReader() {
+		MessageId restoreFrom = this.restoreMessageId;
+		this.restoreMessageId = null;
+		Long startMessageTimestamp = this.containerProperties.getStartMessageTimestamp();
+		try {
+			Reader<T> newReader = this.pulsarReaderFactory.createReader(
+					(Schema<T>) this.containerProperties.getSchema(), this.containerProperties.getTopics(),
+					restoreFrom != null ? restoreFrom : this.containerProperties.getStartMessageId(),
+					Collections.emptyList());
+			if (restoreFrom == null && startMessageTimestamp != null) {
+				newReader.seek(startMessageTimestamp);
+			}
+			return newReader;
+		}
+		catch (PulsarClientException ex) {
+			throw new PulsarException("Failed to create a reader for " + this.containerProperties.getTopics(), ex);
+		}
+	}
+
+	private void readAndInvoke(Reader<T> currentReader, PulsarReaderMessageListener<T> listener) {
+		int readTimeoutMillis = (int) this.containerProperties.getReadTimeout().toMillis();
+		List<Message<T>> messages = new ArrayList<>(this.containerProperties.getMaxNumMessages());
+		while (this.running) {
+			messages.clear();
+			try {
+				readMessages(currentReader, messages, readTimeoutMillis);
+			}
+			catch (PulsarClientException ex) {
+				if (!this.running) {
+					break;
+				}
+				this.logger.error(ex, () -> "Error reading messages from " + currentReader.getTopic());
+				pause(readTimeoutMillis);
+				continue;
+			}
+			for (Message<T> message : messages) {
+				try {
+					listener.received(currentReader, message);
+				}
+				catch (RuntimeException ex) {
+					this.logger.error(ex, () -> "Reader listener failed for message " + message.getMessageId());
+				}
+				this.lastMessageId = message.getMessageId();
+			}
+			this.readMessages.addAndGet(messages.size());
+		}
+	}
+
+	/**
+	 * Waits for the first message and then drains the messages the reader has already
+	 * prefetched, without waiting, up to the configured batch size.
+	 */
+	private void readMessages(Reader<T> currentReader, List<Message<T>> messages, int readTimeoutMillis)
+			throws PulsarClientException {
+		Message<T> message = currentReader.readNext(readTimeoutMillis, TimeUnit.MILLISECONDS);
+		while (message != null) {
+			messages.add(message);
+			if (messages.size() >= this.containerProperties.getMaxNumMessages()) {
+				return;
+			}
+			message = currentReader.readNext(0, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void pause(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.running = false;
+		}
+	}
+
+	@Override
+	public void beforeCheckpoint() {
+		this.runningBeforeCheckpoint = this.running;
+		if (this.runningBeforeCheckpoint) {
+			this.logger.info(() -> "Stopping reader container " + this.beanName + " before checkpoint");
+			stop();
+			// the reader is exclusive of its start message, so the restored one resumes after it.
+			this.restoreMessageId = this.lastMessageId;
+		}
+	}
+
+	@Override
+	public void afterRestore() {
+		if (this.runningBeforeCheckpoint) {
+			this.runningBeforeCheckpoint = false;
+			this.logger.info(() -> "Starting reader container " + this.beanName + " after restore");
+			start();
+		}
+	}
+
+	@Override
+	public void stop() {
+		synchronized (this.lifecycleMonitor) {
+			if (!this.running) {
+				return;
+			}
+			this.running = false;
+			try {
+				this.stopFuture.get(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			catch (TimeoutException | ExecutionException e) {
+				this.logger.warn(() -> "Reader thread did not stop in time, closing the reader anyway.");
+			}
+			Reader<T> currentReader = this.reader;
+			this.reader = null;
+			if (currentReader != null) {
+				this.pulsarReaderFactory.closeReaderAsync(currentReader).whenComplete((result, ex) -> {
+					if (ex != null) {
+						this.logger.error(ex, () -> "Error closing the reader.");
+					}
+				});
+			}
+		}
+	}
+}
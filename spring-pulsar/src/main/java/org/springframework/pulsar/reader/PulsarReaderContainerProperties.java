@@ -0,0 +1,148 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.reader;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.Schema;
+
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Contains runtime properties for a reader container.
+ *
+ * @author agent (agent@local)
+ */
+public class PulsarReaderContainerProperties {
+
+	private static final Duration DEFAULT_READ_TIMEOUT = Duration.ofMillis(100);
+
+	private List<String> topics = new ArrayList<>();
+
+	private Schema<?> schema;
+
+	private PulsarReaderMessageListener<?> readerListener;
+
+	private MessageId startMessageId = MessageId.earliest;
+
+	private Long startMessageTimestamp;
+
+	private int maxNumMessages = 100;
+
+	private Duration readTimeout = DEFAULT_READ_TIMEOUT;
+
+	private AsyncListenableTaskExecutor readerTaskExecutor;
+
+	public PulsarReaderContainerProperties(String... topics) {
+		this.topics = new ArrayList<>(Arrays.asList(topics));
+	}
+
+	public List<String> getTopics() {
+		return this.topics;
+	}
+
+	public void setTopics(List<String> topics) {
+		this.topics = new ArrayList<>(topics);
+	}
+
+	public Schema<?> getSchema() {
+		return this.schema;
+	}
+
+	public void setSchema(Schema<?> schema) {
+		this.schema = schema;
+	}
+
+	public PulsarReaderMessageListener<?> getReaderListener() {
+		return this.readerListener;
+	}
+
+	public void setReaderListener(PulsarReaderMessageListener<?> readerListener) {
+		this.readerListener = readerListener;
+	}
+
+	public MessageId getStartMessageId() {
+		return this.startMessageId;
+	}
+
+	/**
+	 * Set the position to start reading from. Default {@link MessageId#earliest}.
+	 * @param startMessageId the start message id.
+	 */
+	public void setStartMessageId(MessageId startMessageId) {
+		Assert.notNull(startMessageId, "'startMessageId' cannot be null");
+		this.startMessageId = startMessageId;
+	}
+
+	@Nullable
+	public Long getStartMessageTimestamp() {
+		return this.startMessageTimestamp;
+	}
+
+	/**
+	 * Set a publish time, in milliseconds since the epoch, to start reading from. When
+	 * set, the reader seeks to the first message published at or after that time once
+	 * created, instead of starting from the {@link #setStartMessageId(MessageId) start
+	 * message id}.
+	 * @param startMessageTimestamp the publish time to start from.
+	 */
+	public void setStartMessageTimestamp(@Nullable Long startMessageTimestamp) {
+		this.startMessageTimestamp = startMessageTimestamp;
+	}
+
+	public int getMaxNumMessages() {
+		return this.maxNumMessages;
+	}
+
+	/**
+	 * Set the maximum number of messages read in one go before they are handed to the
+	 * listener. Default 100.
+	 * @param maxNumMessages the maximum number of messages per read.
+	 */
+	public void setMaxNumMessages(int maxNumMessages) {
+		Assert.isTrue(maxNumMessages > 0, "'maxNumMessages' must be greater than 0");
+		this.maxNumMessages = maxNumMessages;
+	}
+
+	public Duration getReadTimeout() {
+		return this.readTimeout;
+	}
+
+	/**
+	 * Set how long to wait for a message when none is available, before checking
+	 * whether the container is still running. Default 100 milliseconds.
+	 * @param readTimeout the read timeout.
+	 */
+	public void setReadTimeout(Duration readTimeout) {
+		Assert.notNull(readTimeout, "'readTimeout' cannot be null");
+		this.readTimeout = readTimeout;
+	}
+
+	public AsyncListenableTaskExecutor getReaderTaskExecutor() {
+		return this.readerTaskExecutor;
+	}
+
+	public void setReaderTaskExecutor(AsyncListenableTaskExecutor readerTaskExecutor) {
+		this.readerTaskExecutor = readerTaskExecutor;
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.reader;
+
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.Reader;
+
+/**
+ * Listener invoked by a reader container for each message read from the topic.
+ *
+ * @param <T> message payload type
+ * @author agent (agent@local)
+ */
+@FunctionalInterface
+public interface PulsarReaderMessageListener<T> {
+
+	/**
+	 * Invoked with each message read, in order.
+	 * @param reader the reader the message was read from
+	 * @param message the message
+	 */
+	void received(Reader<T> reader, Message<T> message);
+}
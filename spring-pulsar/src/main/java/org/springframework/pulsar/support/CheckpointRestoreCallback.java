@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.support;
+
+/**
+ * Callback for the components that hold connections to the broker, which must be
+ * released before a Coordinated Restore at Checkpoint (CRaC) checkpoint and established
+ * again after restore.
+ * <p>
+ * The components register themselves through {@link CheckpointRestoreRegistrar}. CRaC
+ * notifies the resources in the reverse order of their registration before a
+ * checkpoint, and in the order of their registration after restore, so a component is
+ * quiesced before the components it was created from.
+ *
+ * @author agent (agent@local)
+ */
+public interface CheckpointRestoreCallback {
+
+	/**
+	 * Release the connections to the broker before a checkpoint.
+	 * @throws Exception if the connections cannot be released
+	 */
+	void beforeCheckpoint() throws Exception;
+
+	/**
+	 * Establish the connections to the broker again after restore.
+	 * @throws Exception if the connections cannot be established
+	 */
+	void afterRestore() throws Exception;
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.support;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Registers {@link CheckpointRestoreCallback callbacks} as CRaC resources when the
+ * optional {@code org.crac} library is on the classpath. The library turns the
+ * registration into a no-op on JVMs that do not support CRaC.
+ *
+ * @author agent (agent@local)
+ */
+public final class CheckpointRestoreRegistrar {
+
+	private static final boolean CRAC_PRESENT = ClassUtils.isPresent("org.crac.Core",
+			CheckpointRestoreRegistrar.class.getClassLoader());
+
+	private CheckpointRestoreRegistrar() {
+
+	}
+
+	/**
+	 * Return whether the optional {@code org.crac} library is on the classpath, that is
+	 * whether registered callbacks can be notified at all.
+	 * @return true if {@code org.crac} is present
+	 */
+	public static boolean isCracPresent() {
+		return CRAC_PRESENT;
+	}
+
+	/**
+	 * Register the callback with the global CRaC context. CRaC only keeps a weak
+	 * reference to its resources, so the caller must keep a reference to the returned
+	 * resource for as long as the callback should be notified.
+	 * @param callback the callback to register
+	 * @return the registered resource or {@code null} if {@code org.crac} is not on the
+	 * classpath
+	 */
+	@Nullable
+	public static Object register(CheckpointRestoreCallback callback) {
+		Assert.notNull(callback, "'callback' cannot be null");
+		return CRAC_PRESENT ? CracResourceAdapter.register(callback) : null;
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.support;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+
+/**
+ * Adapts a {@link CheckpointRestoreCallback} to a CRaC {@link Resource}. Kept separate
+ * from {@link CheckpointRestoreRegistrar} so that the CRaC types are only loaded when
+ * {@code org.crac} is on the classpath.
+ *
+ * @author agent (agent@local)
+ */
+final class CracResourceAdapter implements Resource {
+
+	private final CheckpointRestoreCallback callback;
+
+	private CracResourceAdapter(CheckpointRestoreCallback callback) {
+		this.callback = callback;
+	}
+
+	static CracResourceAdapter register(CheckpointRestoreCallback callback) {
+		CracResourceAdapter resource = new CracResourceAdapter(callback);
+		Core.getGlobalContext().register(resource);
+		return resource;
+	}
+
+	@Override
+	public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+		this.callback.beforeCheckpoint();
+	}
+
+	@Override
+	public void afterRestore(Context<? extends Resource> context) throws Exception {
+		this.callback.afterRestore();
+	}
+}
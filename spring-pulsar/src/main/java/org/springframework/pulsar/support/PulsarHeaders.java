@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.support;
+
+/**
+ * The names of the message properties used by Spring Pulsar.
+ *
+ * @author agent (agent@local)
+ */
+public final class PulsarHeaders {
+
+	/**
+	 * The prefix of the properties set by Spring Pulsar.
+	 */
+	public static final String PREFIX = "pulsar_";
+
+	/**
+	 * The property correlating a reply with the request it answers.
+	 */
+	public static final String CORRELATION_ID = PREFIX + "correlationId";
+
+	/**
+	 * The property holding the topic a reply to the message should be sent to.
+	 */
+	public static final String REPLY_TOPIC = PREFIX + "replyTopic";
+
+	private PulsarHeaders() {
+	}
+}
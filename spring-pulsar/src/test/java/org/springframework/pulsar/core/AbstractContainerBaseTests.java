@@ -26,7 +26,7 @@ abstract class AbstractContainerBaseTests {
 	static PulsarContainer PULSAR_CONTAINER;
 
 	static {
-		PULSAR_CONTAINER = new PulsarContainer(PULSAR_IMAGE);
+		PULSAR_CONTAINER = new PulsarContainer(PULSAR_IMAGE).withTransactions();
 		PULSAR_CONTAINER.start();
 	}
 
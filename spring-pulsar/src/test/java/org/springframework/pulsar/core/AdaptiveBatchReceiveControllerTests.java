@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.pulsar.listener.AdaptiveBatchReceiveController;
+
+/**
+ * Tests for {@link AdaptiveBatchReceiveController}.
+ *
+ * @author agent (agent@local)
+ */
+class AdaptiveBatchReceiveControllerTests {
+
+	private final AdaptiveBatchReceiveController controller = new AdaptiveBatchReceiveController(
+			Duration.ofMillis(100), 1_000, Duration.ofMillis(100));
+
+	@Test
+	void testLowTrafficDoesNotWait() {
+		for (int i = 0; i < 20; i++) {
+			this.controller.recordBatch(1, TimeUnit.MILLISECONDS.toNanos(5), TimeUnit.MICROSECONDS.toNanos(100));
+		}
+		assertThat(this.controller.getBatchTimeout()).isZero();
+		assertThat(this.controller.getArrivalRate()).isLessThan(1);
+	}
+
+	@Test
+	void testHighTrafficWaitsWithinTargetLatency() {
+		// 100 messages arriving within 10ms, 10 microseconds of processing each.
+		for (int i = 0; i < 20; i++) {
+			this.controller.recordBatch(100, TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(1));
+		}
+		assertThat(this.controller.getBatchSize()).isEqualTo(1_000);
+		assertThat(this.controller.getBatchTimeout()).isPositive().isLessThanOrEqualTo(Duration.ofMillis(100));
+	}
+
+	@Test
+	void testSlowListenerShrinksBatch() {
+		// 10 milliseconds of processing per message leaves room for 5 messages in 50ms.
+		for (int i = 0; i < 20; i++) {
+			this.controller.recordBatch(10, TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(100));
+		}
+		assertThat(this.controller.getBatchSize()).isEqualTo(5);
+		assertThat(this.controller.getProcessingTimePerMessage()).isEqualTo(Duration.ofMillis(10));
+	}
+}
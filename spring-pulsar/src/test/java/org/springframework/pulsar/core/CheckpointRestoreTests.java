@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.Schema;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.pulsar.config.PulsarClientConfiguration;
+import org.springframework.pulsar.config.PulsarClientFactoryBean;
+import org.springframework.pulsar.listener.DefaultPulsarMessageListenerContainer;
+import org.springframework.pulsar.listener.PulsarContainerProperties;
+import org.springframework.pulsar.listener.PulsarRecordMessageListener;
+import org.springframework.pulsar.reader.DefaultPulsarMessageReaderContainer;
+import org.springframework.pulsar.reader.PulsarReaderContainerProperties;
+import org.springframework.pulsar.reader.PulsarReaderMessageListener;
+
+/**
+ * Tests for the CRaC checkpoint and restore callbacks of the client, producer cache,
+ * template, listener and reader containers, and table view.
+ *
+ * @author agent (agent@local)
+ */
+class CheckpointRestoreTests extends AbstractContainerBaseTests {
+
+	@Test
+	void testReconnectAfterRestore() throws Exception {
+		PulsarClientFactoryBean clientFactoryBean = new PulsarClientFactoryBean(
+				new PulsarClientConfiguration(Map.of("serviceUrl", getPulsarBrokerUrl())));
+		clientFactoryBean.afterPropertiesSet();
+		PulsarClient pulsarClient = clientFactoryBean.getObject();
+
+		CachingPulsarProducerFactory<String> producerFactory = new CachingPulsarProducerFactory<>(pulsarClient,
+				Map.of("topicName", "foobar-037"), Duration.ofMinutes(1), 10L, 10);
+		PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(producerFactory);
+		DefaultPulsarConsumerFactory<String> consumerFactory = new DefaultPulsarConsumerFactory<>(pulsarClient,
+				Map.of("topicNames", Set.of("foobar-037"), "subscriptionName", "foobar-sb-037"));
+		PulsarContainerProperties containerProperties = new PulsarContainerProperties();
+		List<String> received = new CopyOnWriteArrayList<>();
+		containerProperties.setMessageListener(
+				(PulsarRecordMessageListener<String>) (consumer, msg) -> received.add(msg.getValue()));
+		containerProperties.setSchema(Schema.STRING);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				consumerFactory, containerProperties);
+		container.start();
+
+		pulsarTemplate.send("before checkpoint");
+		await().atMost(Duration.ofSeconds(10)).until(() -> received.contains("before checkpoint"));
+
+		// Notified the way CRaC does: in the reverse order of registration before the checkpoint.
+		container.beforeCheckpoint();
+		pulsarTemplate.beforeCheckpoint();
+		producerFactory.beforeCheckpoint();
+		clientFactoryBean.beforeCheckpoint();
+		assertThat(container.isRunning()).isFalse();
+		assertThat(pulsarClient.isClosed()).isTrue();
+
+		clientFactoryBean.afterRestore();
+		producerFactory.afterRestore();
+		pulsarTemplate.afterRestore();
+		container.afterRestore();
+		assertThat(pulsarClient.isClosed()).isFalse();
+		assertThat(container.isRunning()).isTrue();
+
+		pulsarTemplate.send("after restore");
+		await().atMost(Duration.ofSeconds(10)).until(() -> received.contains("after restore"));
+
+		container.stop();
+		producerFactory.destroy();
+		clientFactoryBean.destroy();
+	}
+
+	@Test
+	void testReaderAndTableViewResumeAfterRestore() throws Exception {
+		PulsarClient pulsarClient = PulsarClient.builder().serviceUrl(getPulsarBrokerUrl()).build();
+		PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(
+				new DefaultPulsarProducerFactory<>(pulsarClient, Map.of("topicName", "foobar-043")));
+		pulsarTemplate.newMessage("v1").withKey("k1").send();
+		pulsarTemplate.newMessage("v2").withKey("k2").send();
+
+		PulsarTableView<String> tableView = new PulsarTableView<>(pulsarClient, Schema.STRING, "foobar-043");
+		tableView.setMaxEntries(10);
+		tableView.setInitialLoadTimeout(Duration.ofSeconds(10));
+		List<String> updatedKeys = new CopyOnWriteArrayList<>();
+		tableView.addListener((key, value) -> updatedKeys.add(key));
+		tableView.afterPropertiesSet();
+		PulsarReaderContainerProperties containerProperties = new PulsarReaderContainerProperties("foobar-043");
+		containerProperties.setSchema(Schema.STRING);
+		containerProperties.setStartMessageId(MessageId.earliest);
+		List<String> payloads = new CopyOnWriteArrayList<>();
+		containerProperties.setReaderListener(
+				(PulsarReaderMessageListener<String>) (reader, message) -> payloads.add(message.getValue()));
+		DefaultPulsarMessageReaderContainer<String> container = new DefaultPulsarMessageReaderContainer<>(
+				new DefaultPulsarReaderFactory<>(pulsarClient, Collections.emptyMap()), containerProperties);
+		container.start();
+		await().atMost(Duration.ofSeconds(10)).until(() -> payloads.size() == 2);
+
+		container.beforeCheckpoint();
+		tableView.beforeCheckpoint();
+		pulsarTemplate.newMessage("v3").withKey("k3").send();
+		tableView.afterRestore();
+		container.afterRestore();
+
+		await().atMost(Duration.ofSeconds(10)).until(() -> payloads.size() == 3 && "v3".equals(tableView.get("k3")));
+		assertThat(payloads).containsExactly("v1", "v2", "v3");
+		assertThat(updatedKeys).containsExactly("k1", "k2", "k3");
+
+		container.stop();
+		tableView.destroy();
+		pulsarClient.close();
+	}
+}
@@ -16,6 +16,9 @@
 
 package org.springframework.pulsar.core;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -23,9 +26,11 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.pulsar.client.api.Consumer;
 import org.apache.pulsar.client.api.MessageId;
 import org.apache.pulsar.client.api.PulsarClient;
 import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.api.SubscriptionType;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.pulsar.listener.DefaultPulsarMessageListenerContainer;
@@ -64,4 +69,32 @@ class DefaultConsumerTests extends AbstractContainerBaseTests {
 		latch.await(10, TimeUnit.SECONDS);
 		pulsarClient.close();
 	}
+
+	@Test
+	void testConsumerFactoryTracksConsumersUntilClosed() throws Exception {
+		Map<String, Object> config = new HashMap<>();
+		config.put("topicNames", Collections.singleton("foobar-022"));
+		config.put("subscriptionName", "foobar-sb-022");
+		config.put("subscriptionType", SubscriptionType.Shared);
+		config.put("consumerName", "foobar-consumer-022");
+		final PulsarClient pulsarClient = PulsarClient.builder()
+				.serviceUrl(getPulsarBrokerUrl())
+				.build();
+		final DefaultPulsarConsumerFactory<String> pulsarConsumerFactory = new DefaultPulsarConsumerFactory<>(pulsarClient, config);
+		Consumer<String> first = pulsarConsumerFactory.createConsumer(Schema.STRING, Collections.emptyMap());
+		Consumer<String> second = pulsarConsumerFactory.createConsumer(Schema.STRING, Collections.emptyMap());
+		assertThat(pulsarConsumerFactory.getConsumers()).containsExactlyInAnyOrder(first, second);
+		// consumers sharing the configured name keep their own statistics
+		assertThat(pulsarConsumerFactory.getConsumerStats()).hasSize(2).allSatisfy((key, stats) ->
+				assertThat(key).startsWith(first.getTopic() + "/foobar-sb-022/foobar-consumer-022#"));
+
+		pulsarConsumerFactory.closeConsumerAsync(first).get(10, TimeUnit.SECONDS);
+		assertThat(pulsarConsumerFactory.getConsumers()).containsExactly(second);
+		assertThat(first.isConnected()).isFalse();
+
+		pulsarConsumerFactory.destroy();
+		assertThat(pulsarConsumerFactory.getConsumers()).isEmpty();
+		assertThat(second.isConnected()).isFalse();
+		pulsarClient.close();
+	}
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.pulsar.config.DefaultPulsarListenerContainerFactory;
+import org.springframework.pulsar.listener.DefaultPulsarMessageListenerContainer;
+import org.springframework.pulsar.listener.PulsarContainerProperties;
+
+/**
+ * Tests for {@link DefaultPulsarListenerContainerFactory}.
+ *
+ * @author agent (agent@local)
+ */
+class DefaultPulsarListenerContainerFactoryTests {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testFactoryContainerPropertiesPropagatedToContainers() {
+		DefaultPulsarListenerContainerFactory<?, String> factory = new DefaultPulsarListenerContainerFactory<>();
+		factory.setPulsarConsumerFactory(mock(PulsarConsumerFactory.class));
+		PulsarContainerProperties factoryProperties = factory.getContainerProperties();
+		factoryProperties.setShutdownTimeout(Duration.ofSeconds(3));
+		factoryProperties.setPatternAutoDiscoveryPeriod(Duration.ofSeconds(5));
+		factoryProperties.setMaxInFlightMessages(7);
+		factoryProperties.setBatchIndexAckEnabled(true);
+		factoryProperties.setBatchWindow(Duration.ofMillis(200));
+		factoryProperties.setTopics(new String[] { "factory-topic" });
+
+		DefaultPulsarMessageListenerContainer<String> container = factory.createContainer("container-topic");
+
+		PulsarContainerProperties properties = container.getPulsarContainerProperties();
+		assertThat(properties).isNotSameAs(factoryProperties);
+		assertThat(properties.getShutdownTimeout()).isEqualTo(Duration.ofSeconds(3));
+		assertThat(properties.getPatternAutoDiscoveryPeriod()).isEqualTo(Duration.ofSeconds(5));
+		assertThat(properties.getMaxInFlightMessages()).isEqualTo(7);
+		assertThat(properties.getBatchIndexAckEnabled()).isTrue();
+		assertThat(properties.getBatchWindow()).isEqualTo(Duration.ofMillis(200));
+		assertThat(properties.getTopics()).containsExactly("container-topic");
+	}
+}
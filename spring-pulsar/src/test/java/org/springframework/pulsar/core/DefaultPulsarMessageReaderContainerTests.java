@@ -0,0 +1,190 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.apache.pulsar.client.api.Reader;
+import org.apache.pulsar.client.api.Schema;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.pulsar.annotation.EnablePulsar;
+import org.springframework.pulsar.annotation.PulsarReader;
+import org.springframework.pulsar.reader.DefaultPulsarMessageReaderContainer;
+import org.springframework.pulsar.reader.PulsarReaderContainerProperties;
+import org.springframework.pulsar.reader.PulsarReaderMessageListener;
+
+/**
+ * Tests for {@link DefaultPulsarMessageReaderContainer}.
+ *
+ * @author agent (agent@local)
+ */
+class DefaultPulsarMessageReaderContainerTests extends AbstractContainerBaseTests {
+
+	@Test
+	void testReaderReplaysTopicFromEarliest() throws Exception {
+		final PulsarClient pulsarClient = PulsarClient.builder()
+				.serviceUrl(getPulsarBrokerUrl())
+				.build();
+		Map<String, Object> prodConfig = new HashMap<>();
+		prodConfig.put("topicName", "foobar-032");
+		final DefaultPulsarProducerFactory<String> pulsarProducerFactory = new DefaultPulsarProducerFactory<>(pulsarClient, prodConfig);
+		final PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(pulsarProducerFactory);
+		for (int i = 0; i < 10; i++) {
+			pulsarTemplate.send("hello john doe " + i);
+		}
+
+		final DefaultPulsarReaderFactory<String> pulsarReaderFactory = new DefaultPulsarReaderFactory<>(pulsarClient,
+				Collections.emptyMap());
+		PulsarReaderContainerProperties containerProperties = new PulsarReaderContainerProperties("foobar-032");
+		containerProperties.setSchema(Schema.STRING);
+		containerProperties.setStartMessageId(MessageId.earliest);
+		containerProperties.setMaxNumMessages(4);
+		List<String> payloads = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(10);
+		containerProperties.setReaderListener((PulsarReaderMessageListener<String>) (reader, message) -> {
+			payloads.add(message.getValue());
+			latch.countDown();
+		});
+		DefaultPulsarMessageReaderContainer<String> container = new DefaultPulsarMessageReaderContainer<>(
+				pulsarReaderFactory, containerProperties);
+		container.start();
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(payloads).hasSize(10).startsWith("hello john doe 0").endsWith("hello john doe 9");
+		assertThat(pulsarReaderFactory.getReaders()).hasSize(1);
+		container.stop();
+		assertThat(container.getReadMessageCount()).isEqualTo(10);
+		assertThat(pulsarReaderFactory.getReaders()).isEmpty();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testReaderStartsFromMessageTimestamp() throws Exception {
+		final PulsarClient pulsarClient = PulsarClient.builder()
+				.serviceUrl(getPulsarBrokerUrl())
+				.build();
+		Map<String, Object> prodConfig = new HashMap<>();
+		prodConfig.put("topicName", "foobar-040");
+		final DefaultPulsarProducerFactory<String> pulsarProducerFactory = new DefaultPulsarProducerFactory<>(pulsarClient, prodConfig);
+		final PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(pulsarProducerFactory);
+		MessageId lastBefore = null;
+		for (int i = 0; i < 5; i++) {
+			lastBefore = pulsarTemplate.send("before " + i);
+		}
+		// the reader starts right after the publish time of the last message before the delimiter
+		long lastBeforePublishTime;
+		try (Reader<String> reader = pulsarClient.newReader(Schema.STRING).topic("foobar-040")
+				.startMessageId(lastBefore).startMessageIdInclusive().create()) {
+			lastBeforePublishTime = reader.readNext(10, TimeUnit.SECONDS).getPublishTime();
+		}
+		long startMessageTimestamp = lastBeforePublishTime + 1;
+		// publish times are set by the producer, so the later messages are sent once its clock has moved on.
+		await().atMost(Duration.ofSeconds(10)).until(() -> System.currentTimeMillis() >= startMessageTimestamp);
+		for (int i = 0; i < 5; i++) {
+			pulsarTemplate.send("after " + i);
+		}
+
+		final DefaultPulsarReaderFactory<String> pulsarReaderFactory = new DefaultPulsarReaderFactory<>(pulsarClient,
+				Collections.emptyMap());
+		PulsarReaderContainerProperties containerProperties = new PulsarReaderContainerProperties("foobar-040");
+		containerProperties.setSchema(Schema.STRING);
+		containerProperties.setStartMessageTimestamp(startMessageTimestamp);
+		List<String> payloads = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		containerProperties.setReaderListener((PulsarReaderMessageListener<String>) (reader, message) -> {
+			payloads.add(message.getValue());
+			if ("after 4".equals(message.getValue())) {
+				latch.countDown();
+			}
+		});
+		DefaultPulsarMessageReaderContainer<String> container = new DefaultPulsarMessageReaderContainer<>(
+				pulsarReaderFactory, containerProperties);
+		container.start();
+		// the messages are read in order, so any earlier message would have been read before the last one
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(payloads).containsExactly("after 0", "after 1", "after 2", "after 3", "after 4");
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testPulsarReaderMethodRunsInReaderContainer() throws Exception {
+		final PulsarClient pulsarClient = PulsarClient.builder()
+				.serviceUrl(getPulsarBrokerUrl())
+				.build();
+		Map<String, Object> prodConfig = new HashMap<>();
+		prodConfig.put("topicName", "foobar-041");
+		final DefaultPulsarProducerFactory<String> pulsarProducerFactory = new DefaultPulsarProducerFactory<>(pulsarClient, prodConfig);
+		final PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(pulsarProducerFactory);
+		for (int i = 0; i < 5; i++) {
+			pulsarTemplate.send("hello john doe " + i);
+		}
+		pulsarClient.close();
+
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(ReaderConfig.class)) {
+			DefaultPulsarMessageReaderContainer<?> container = context.getBean("foobar-041-reader",
+					DefaultPulsarMessageReaderContainer.class);
+			assertThat(container.isRunning()).isTrue();
+			assertThat(container.getContainerProperties().getTopics()).containsExactly("foobar-041");
+			assertThat(container.getContainerProperties().getSchema()).isInstanceOf(Schema.STRING.getClass());
+			ReaderConfig readerConfig = context.getBean(ReaderConfig.class);
+			assertThat(readerConfig.latch.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(readerConfig.payloads).startsWith("hello john doe 0").endsWith("hello john doe 4");
+		}
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@EnablePulsar
+	static class ReaderConfig {
+
+		final List<String> payloads = new CopyOnWriteArrayList<>();
+
+		final CountDownLatch latch = new CountDownLatch(5);
+
+		@Bean
+		PulsarClient pulsarClient() throws PulsarClientException {
+			return PulsarClient.builder().serviceUrl(getPulsarBrokerUrl()).build();
+		}
+
+		@Bean
+		DefaultPulsarReaderFactory<Object> pulsarReaderFactory(PulsarClient pulsarClient) {
+			return new DefaultPulsarReaderFactory<>(pulsarClient, Collections.emptyMap());
+		}
+
+		@PulsarReader(id = "foobar-041-reader", topics = "foobar-041", startMessageId = "earliest")
+		void read(String payload) {
+			this.payloads.add(payload);
+			this.latch.countDown();
+		}
+	}
+}
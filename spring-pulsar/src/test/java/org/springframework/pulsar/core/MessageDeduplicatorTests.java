@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+
+import org.apache.pulsar.client.api.Message;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.pulsar.listener.InMemoryMessageDeduplicator;
+import org.springframework.pulsar.listener.MessageDeduplicator;
+import org.springframework.pulsar.listener.OffHeapMessageDeduplicator;
+
+/**
+ * Tests for {@link InMemoryMessageDeduplicator} and {@link OffHeapMessageDeduplicator}.
+ *
+ * @author agent (agent@local)
+ */
+class MessageDeduplicatorTests {
+
+	@Test
+	void testInMemoryDeduplicator() {
+		InMemoryMessageDeduplicator deduplicator = new InMemoryMessageDeduplicator(100, Duration.ofMinutes(1),
+				Message::getKey);
+		assertDeduplicates(deduplicator);
+		assertThat(deduplicator.size()).isEqualTo(3);
+	}
+
+	@Test
+	void testInMemoryDeduplicatorIsBounded() {
+		InMemoryMessageDeduplicator deduplicator = new InMemoryMessageDeduplicator(1_000, Duration.ofMinutes(1),
+				Message::getKey);
+		for (int i = 0; i < 100_000; i++) {
+			deduplicator.record(message("key-" + i));
+		}
+		assertThat(deduplicator.size()).isEqualTo(1_000);
+	}
+
+	@Test
+	void testOffHeapDeduplicator() {
+		OffHeapMessageDeduplicator deduplicator = new OffHeapMessageDeduplicator(100, Duration.ofMinutes(1),
+				Message::getKey);
+		assertDeduplicates(deduplicator);
+		assertThat(deduplicator.size()).isEqualTo(3);
+	}
+
+	@Test
+	void testOffHeapDeduplicatorKeepsLatestEntriesUnderChurn() {
+		OffHeapMessageDeduplicator deduplicator = new OffHeapMessageDeduplicator(1_000, Duration.ofMinutes(1),
+				Message::getKey);
+		for (int i = 0; i < 100_000; i++) {
+			deduplicator.record(message("key-" + i));
+		}
+		assertThat(deduplicator.size()).isEqualTo(1_000);
+		for (int i = 99_000; i < 100_000; i++) {
+			assertThat(deduplicator.isDuplicate(message("key-" + i))).isTrue();
+		}
+		assertThat(deduplicator.isDuplicate(message("key-98999"))).isFalse();
+	}
+
+	@Test
+	void testOffHeapDeduplicatorEvictsOldestLiveEntryAfterForget() {
+		OffHeapMessageDeduplicator deduplicator = new OffHeapMessageDeduplicator(3, Duration.ofMinutes(1),
+				Message::getKey);
+		deduplicator.record(message("a"));
+		deduplicator.record(message("b"));
+		deduplicator.forget(message("a"));
+		deduplicator.record(message("a"));
+		deduplicator.record(message("c"));
+		// the forgotten entry of "a" neither evicts it again nor counts towards the maximum
+		assertThat(deduplicator.size()).isEqualTo(3);
+		assertThat(deduplicator.isDuplicate(message("a"))).isTrue();
+		assertThat(deduplicator.isDuplicate(message("b"))).isTrue();
+		assertThat(deduplicator.isDuplicate(message("c"))).isTrue();
+		deduplicator.record(message("d"));
+		assertThat(deduplicator.size()).isEqualTo(3);
+		assertThat(deduplicator.isDuplicate(message("b"))).isFalse();
+		assertThat(deduplicator.isDuplicate(message("a"))).isTrue();
+		assertThat(deduplicator.isDuplicate(message("c"))).isTrue();
+		assertThat(deduplicator.isDuplicate(message("d"))).isTrue();
+	}
+
+	@Test
+	void testOffHeapDeduplicatorCompactsForgottenEntries() {
+		OffHeapMessageDeduplicator deduplicator = new OffHeapMessageDeduplicator(10, Duration.ofMinutes(1),
+				Message::getKey);
+		deduplicator.record(message("kept"));
+		for (int i = 0; i < 1_000; i++) {
+			deduplicator.record(message("key-" + i));
+			deduplicator.forget(message("key-" + i));
+		}
+		assertThat(deduplicator.size()).isEqualTo(1);
+		assertThat(deduplicator.isDuplicate(message("kept"))).isTrue();
+	}
+
+	@Test
+	void testExpiredEntriesAreNotDuplicates() {
+		MessageDeduplicator inMemory = new InMemoryMessageDeduplicator(10, Duration.ofMillis(200), Message::getKey);
+		MessageDeduplicator offHeap = new OffHeapMessageDeduplicator(10, Duration.ofMillis(200), Message::getKey);
+		inMemory.record(message("a"));
+		offHeap.record(message("a"));
+		assertThat(inMemory.isDuplicate(message("a"))).isTrue();
+		assertThat(offHeap.isDuplicate(message("a"))).isTrue();
+		await().atMost(Duration.ofSeconds(5)).until(() -> !inMemory.isDuplicate(message("a")));
+		await().atMost(Duration.ofSeconds(5)).until(() -> !offHeap.isDuplicate(message("a")));
+		inMemory.record(message("a"));
+		offHeap.record(message("a"));
+		assertThat(inMemory.isDuplicate(message("a"))).isTrue();
+		assertThat(offHeap.isDuplicate(message("a"))).isTrue();
+	}
+
+	private void assertDeduplicates(MessageDeduplicator deduplicator) {
+		// messages are only duplicates once recorded as processed
+		assertThat(deduplicator.isDuplicate(message("a"))).isFalse();
+		assertThat(deduplicator.isDuplicate(message("a"))).isFalse();
+		deduplicator.record(message("a"));
+		assertThat(deduplicator.isDuplicate(message("a"))).isTrue();
+		deduplicator.record(message(null));
+		assertThat(deduplicator.isDuplicate(message(null))).isFalse();
+		deduplicator.record(message("b"));
+		deduplicator.forget(message("b"));
+		assertThat(deduplicator.isDuplicate(message("b"))).isFalse();
+		deduplicator.record(message("c"));
+		assertThat(deduplicator.isDuplicate(message("c"))).isTrue();
+		assertThat(deduplicator.getLookupCount()).isEqualTo(5);
+		assertThat(deduplicator.getDuplicateCount()).isEqualTo(2);
+		assertThat(deduplicator.getHitRate()).isEqualTo(2 / 6.0);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Message<String> message(String key) {
+		Message<String> message = mock(Message.class);
+		given(message.getKey()).willReturn(key);
+		return message;
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.pulsar.config.PulsarListenerContainerFactory;
+import org.springframework.pulsar.config.PulsarListenerEndpoint;
+import org.springframework.pulsar.config.PulsarListenerEndpointRegistry;
+import org.springframework.pulsar.listener.AbstractPulsarMessageListenerContainer;
+import org.springframework.pulsar.listener.PulsarMessageListenerContainer;
+
+/**
+ * Startup concurrency tests for {@link PulsarListenerEndpointRegistry} with many listeners.
+ *
+ * @author agent (agent@local)
+ */
+class PulsarListenerEndpointRegistryTests {
+
+	private static final int LISTENER_COUNT = 40;
+
+	private static final int STARTUP_CONCURRENCY = 10;
+
+	private final AtomicInteger activeStarts = new AtomicInteger();
+
+	private final AtomicInteger maxActiveStarts = new AtomicInteger();
+
+	private final AtomicInteger missedRendezvous = new AtomicInteger();
+
+	private final Set<Thread> startThreads = ConcurrentHashMap.newKeySet();
+
+	private CountDownLatch rendezvous = new CountDownLatch(0);
+
+	@Test
+	void testContainersStartedConcurrently() {
+		PulsarListenerEndpointRegistry registry = new PulsarListenerEndpointRegistry();
+		registry.setStartupConcurrency(STARTUP_CONCURRENCY);
+		// the first starts only complete once as many starts as allowed are in progress
+		this.rendezvous = new CountDownLatch(STARTUP_CONCURRENCY);
+		List<PulsarMessageListenerContainer> containers = registerContainers(registry);
+
+		registry.start();
+
+		containers.forEach(container -> verify(container).start());
+		assertThat(registry.isRunning()).isTrue();
+		assertThat(this.missedRendezvous.get()).isZero();
+		assertThat(this.maxActiveStarts.get()).isEqualTo(STARTUP_CONCURRENCY);
+		assertThat(this.startThreads).doesNotContain(Thread.currentThread());
+	}
+
+	@Test
+	void testContainersStartedSequentially() {
+		PulsarListenerEndpointRegistry registry = new PulsarListenerEndpointRegistry();
+		registry.setStartupConcurrency(1);
+		List<PulsarMessageListenerContainer> containers = registerContainers(registry);
+
+		registry.start();
+
+		containers.forEach(container -> verify(container).start());
+		assertThat(this.maxActiveStarts.get()).isEqualTo(1);
+		assertThat(this.startThreads).containsExactly(Thread.currentThread());
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<PulsarMessageListenerContainer> registerContainers(PulsarListenerEndpointRegistry registry) {
+		List<PulsarMessageListenerContainer> containers = new ArrayList<>();
+		for (int i = 0; i < LISTENER_COUNT; i++) {
+			PulsarMessageListenerContainer container = mock(PulsarMessageListenerContainer.class);
+			given(container.isAutoStartup()).willReturn(true);
+			given(container.getPhase()).willReturn(AbstractPulsarMessageListenerContainer.DEFAULT_PHASE);
+			willAnswer(invocation -> {
+				this.startThreads.add(Thread.currentThread());
+				int active = this.activeStarts.incrementAndGet();
+				this.maxActiveStarts.accumulateAndGet(active, Math::max);
+				this.rendezvous.countDown();
+				if (!this.rendezvous.await(30, TimeUnit.SECONDS)) {
+					this.missedRendezvous.incrementAndGet();
+				}
+				this.activeStarts.decrementAndGet();
+				return null;
+			}).given(container).start();
+			PulsarListenerContainerFactory<PulsarMessageListenerContainer> factory = mock(
+					PulsarListenerContainerFactory.class);
+			given(factory.createListenerContainer(any())).willReturn(container);
+			PulsarListenerEndpoint endpoint = mock(PulsarListenerEndpoint.class);
+			given(endpoint.getId()).willReturn("listener-" + i);
+			given(endpoint.getSubscriptionName()).willReturn("subscription-" + i);
+			registry.registerListenerContainer(endpoint, factory);
+			containers.add(container);
+		}
+		return containers;
+	}
+}
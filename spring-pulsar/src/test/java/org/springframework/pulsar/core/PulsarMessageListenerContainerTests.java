@@ -17,39 +17,67 @@
 package org.springframework.pulsar.core;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 import org.apache.pulsar.client.api.Consumer;
 import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
 import org.apache.pulsar.client.api.Messages;
 import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.PulsarClientException;
 import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.api.SubscriptionType;
+import org.apache.pulsar.client.impl.MessageIdImpl;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.pulsar.event.ConsumerFailedEvent;
+import org.springframework.pulsar.event.ConsumerRecoveredEvent;
+import org.springframework.pulsar.event.PulsarEvent;
 import org.springframework.pulsar.listener.Acknowledgement;
+import org.springframework.pulsar.listener.AdaptiveBatchReceiveController;
+import org.springframework.pulsar.listener.BatchListenerFailedException;
+import org.springframework.pulsar.listener.DefaultPulsarConsumerErrorHandler;
 import org.springframework.pulsar.listener.DefaultPulsarMessageListenerContainer;
+import org.springframework.pulsar.listener.InMemoryMessageDeduplicator;
 import org.springframework.pulsar.listener.PulsarAcknowledgingMessageListener;
+import org.springframework.pulsar.listener.PulsarAsyncAcknowledgingMessageListener;
 import org.springframework.pulsar.listener.PulsarBatchMessageListener;
 import org.springframework.pulsar.listener.PulsarContainerProperties;
+import org.springframework.pulsar.listener.PulsarDeadLetterPublishingRecoverer;
 import org.springframework.pulsar.listener.PulsarRecordMessageListener;
 import org.springframework.util.Assert;
+import org.springframework.util.backoff.FixedBackOff;
 
 
 /**
@@ -59,24 +87,13 @@ class PulsarMessageListenerContainerTests extends AbstractContainerBaseTests {
 
 	@Test
 	void testRecordAck() throws Exception {
-		Map<String, Object> config = new HashMap<>();
-		final Set<String> strings = new HashSet<>();
-		strings.add("foobar-011");
-		config.put("topicNames", strings);
-		config.put("subscriptionName", "foobar-sb-011");
-		final PulsarClient pulsarClient = PulsarClient.builder()
-				.serviceUrl(getPulsarBrokerUrl())
-				.build();
-		final DefaultPulsarConsumerFactory<String> pulsarConsumerFactory = new DefaultPulsarConsumerFactory<>(pulsarClient, config);
-
-		PulsarContainerProperties pulsarContainerProperties = new PulsarContainerProperties();
-		pulsarContainerProperties.setMessageListener(
+		final PulsarClient pulsarClient = createPulsarClient();
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
 				(PulsarRecordMessageListener<?>) (consumer, msg) -> {
 				});
-		pulsarContainerProperties.setSchema(Schema.STRING);
 		pulsarContainerProperties.setAckMode(PulsarContainerProperties.AckMode.RECORD);
 		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
-				pulsarConsumerFactory, pulsarContainerProperties);
+				createConsumerFactory(pulsarClient, "foobar-011", "foobar-sb-011"), pulsarContainerProperties);
 		container.start();
 		final Consumer<?> containerConsumer = spyOnConsumer(container);
 
@@ -88,10 +105,7 @@ class PulsarMessageListenerContainerTests extends AbstractContainerBaseTests {
 		}).given(containerConsumer)
 				.acknowledge(any(Message.class));
 
-		Map<String, Object> prodConfig = new HashMap<>();
-		prodConfig.put("topicName", "foobar-011");
-		final DefaultPulsarProducerFactory<String> pulsarProducerFactory = new DefaultPulsarProducerFactory<>(pulsarClient, prodConfig);
-		final PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(pulsarProducerFactory);
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-011");
 		for (int i = 0; i < 10; i++) {
 			pulsarTemplate.sendAsync("hello john doe");
 		}
@@ -102,55 +116,31 @@ class PulsarMessageListenerContainerTests extends AbstractContainerBaseTests {
 
 	@Test
 	void testBatchAck() throws Exception {
-		Map<String, Object> config = new HashMap<>();
-		final Set<String> strings = new HashSet<>();
-		strings.add("foobar-012");
-		config.put("topicNames", strings);
-		config.put("subscriptionName", "foobar-sb-012");
-		final PulsarClient pulsarClient = PulsarClient.builder()
-				.serviceUrl(getPulsarBrokerUrl())
-				.build();
-		final DefaultPulsarConsumerFactory<String> pulsarConsumerFactory = new DefaultPulsarConsumerFactory<>(pulsarClient, config);
-
-		PulsarContainerProperties pulsarContainerProperties = new PulsarContainerProperties();
+		final PulsarClient pulsarClient = createPulsarClient();
 		CountDownLatch latch = new CountDownLatch(10);
-		pulsarContainerProperties.setMessageListener(
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
 				(PulsarRecordMessageListener<?>) (consumer, msg) -> latch.countDown());
-		pulsarContainerProperties.setSchema(Schema.STRING);
 		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
-				pulsarConsumerFactory, pulsarContainerProperties);
+				createConsumerFactory(pulsarClient, "foobar-012", "foobar-sb-012"), pulsarContainerProperties);
 		container.start();
 		final Consumer<?> containerConsumer = spyOnConsumer(container);
 
-		Map<String, Object> prodConfig = new HashMap<>();
-		prodConfig.put("topicName", "foobar-012");
-		final DefaultPulsarProducerFactory<String> pulsarProducerFactory = new DefaultPulsarProducerFactory<>(pulsarClient, prodConfig);
-		final PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(pulsarProducerFactory);
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-012");
 		for (int i = 0; i < 10; i++) {
 			pulsarTemplate.sendAsync("hello john doe");
 		}
 		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+		verify(containerConsumer, timeout(10_000).atLeastOnce()).acknowledge(any(Messages.class));
 		verify(containerConsumer, never()).acknowledge(any(Message.class));
-		verify(containerConsumer, atLeastOnce()).acknowledge(any(Messages.class));
 		container.stop();
 		pulsarClient.close();
 	}
 
 	@Test
 	void testBatchAckButSomeRecordsFail() throws Exception {
-		Map<String, Object> config = new HashMap<>();
-		final Set<String> strings = new HashSet<>();
-		strings.add("foobar-013");
-		config.put("topicNames", strings);
-		config.put("subscriptionName", "foobar-sb-013");
-		final PulsarClient pulsarClient = PulsarClient.builder()
-				.serviceUrl(getPulsarBrokerUrl())
-				.build();
-		final DefaultPulsarConsumerFactory<String> pulsarConsumerFactory = new DefaultPulsarConsumerFactory<>(pulsarClient, config);
-
-		PulsarContainerProperties pulsarContainerProperties = new PulsarContainerProperties();
+		final PulsarClient pulsarClient = createPulsarClient();
 		CountDownLatch latch = new CountDownLatch(10);
-		pulsarContainerProperties.setMessageListener(
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
 				(PulsarRecordMessageListener<?>) (consumer, msg) -> {
 					latch.countDown();
 					if (latch.getCount() % 2 == 0) {
@@ -158,54 +148,413 @@ class PulsarMessageListenerContainerTests extends AbstractContainerBaseTests {
 					}
 				}
 		);
-		pulsarContainerProperties.setSchema(Schema.STRING);
 		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
-				pulsarConsumerFactory, pulsarContainerProperties);
+				createConsumerFactory(pulsarClient, "foobar-013", "foobar-sb-013"), pulsarContainerProperties);
 		container.start();
 		final Consumer<?> containerConsumer = spyOnConsumer(container);
 
-		Map<String, Object> prodConfig = new HashMap<>();
-		prodConfig.put("topicName", "foobar-013");
-		final DefaultPulsarProducerFactory<String> pulsarProducerFactory = new DefaultPulsarProducerFactory<>(pulsarClient, prodConfig);
-		final PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(pulsarProducerFactory);
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-013");
 		for (int i = 0; i < 10; i++) {
 			pulsarTemplate.sendAsync("hello john doe");
 		}
 		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
-		Thread.sleep(1_000);
 		// Half of the message get acknowledged, and the other half gets negatively acknowledged.
+		verify(containerConsumer, timeout(10_000).times(5)).acknowledge(any(Message.class));
+		verify(containerConsumer, timeout(10_000).times(5)).negativeAcknowledge(any(Message.class));
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testBatchIndexAckButSomeRecordsFail() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		CountDownLatch latch = new CountDownLatch(10);
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarRecordMessageListener<?>) (consumer, msg) -> {
+					latch.countDown();
+					if (latch.getCount() % 2 == 0) {
+						throw new RuntimeException("fail");
+					}
+				}
+		);
+		pulsarContainerProperties.setBatchIndexAckEnabled(true);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-026", "foobar-sb-026"), pulsarContainerProperties);
+		container.start();
+		final Consumer<?> containerConsumer = spyOnConsumer(container);
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-026");
+		for (int i = 0; i < 10; i++) {
+			pulsarTemplate.sendAsync("hello john doe");
+		}
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+		// The last message fails, so the acks of its batch are sent by the time it is negatively acknowledged.
+		verify(containerConsumer, timeout(10_000).times(5)).negativeAcknowledge(any(Message.class));
+		// The processed messages are acknowledged together, before the failed ones are negatively acknowledged.
+		ArgumentCaptor<List<MessageId>> ackedIds = ArgumentCaptor.forClass(List.class);
+		verify(containerConsumer, atLeastOnce()).acknowledge(ackedIds.capture());
+		assertThat(ackedIds.getAllValues().stream().mapToInt(List::size).sum()).isEqualTo(5);
+		verify(containerConsumer, never()).acknowledge(any(Message.class));
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testBatchIndexAckInRecordAckModeButSomeRecordsFail() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		CountDownLatch latch = new CountDownLatch(10);
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarRecordMessageListener<?>) (consumer, msg) -> {
+					latch.countDown();
+					if (latch.getCount() % 2 == 0) {
+						throw new RuntimeException("fail");
+					}
+				}
+		);
+		pulsarContainerProperties.setAckMode(PulsarContainerProperties.AckMode.RECORD);
+		pulsarContainerProperties.setBatchIndexAckEnabled(true);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-039", "foobar-sb-039"), pulsarContainerProperties);
+		container.start();
+		final Consumer<?> containerConsumer = spyOnConsumer(container);
+		assertThat(getPropertyValue(containerConsumer, "conf.batchIndexAckEnabled", Boolean.class)).isTrue();
+		List<String> acks = new CopyOnWriteArrayList<>();
+		willAnswer(invocation -> {
+			acks.add("ack " + entryOf(invocation.getArgument(0)));
+			return invocation.callRealMethod();
+		}).given(containerConsumer).acknowledge(any(Message.class));
+		willAnswer(invocation -> {
+			acks.add("nack " + entryOf(invocation.getArgument(0)));
+			return invocation.callRealMethod();
+		}).given(containerConsumer).negativeAcknowledge(any(Message.class));
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-039");
+		for (int i = 0; i < 10; i++) {
+			pulsarTemplate.sendAsync("hello john doe");
+		}
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+		await().atMost(Duration.ofSeconds(10)).until(() -> acks.size() == 10);
+		// The processed records are acknowledged one by one, and no record of a producer batch is
+		// acknowledged after a failed record of that batch is negatively acknowledged.
 		verify(containerConsumer, times(5)).acknowledge(any(Message.class));
 		verify(containerConsumer, times(5)).negativeAcknowledge(any(Message.class));
+		for (int i = 0; i < acks.size(); i++) {
+			if (acks.get(i).startsWith("nack ")) {
+				String nackedEntry = acks.get(i).substring(5);
+				assertThat(acks.subList(i, acks.size())).doesNotContain("ack " + nackedEntry);
+			}
+		}
 		container.stop();
 		pulsarClient.close();
 	}
 
+	private static String entryOf(Message<?> message) {
+		MessageIdImpl messageId = (MessageIdImpl) message.getMessageId();
+		return messageId.getLedgerId() + ":" + messageId.getEntryId();
+	}
+
 	@Test
-	@SuppressWarnings("unchecked")
-	void testManualAckForRecordListener() throws Exception {
+	void testAdaptiveBatchReceive() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		CountDownLatch latch = new CountDownLatch(100);
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarRecordMessageListener<?>) (consumer, msg) -> latch.countDown());
+		pulsarContainerProperties.setMaxNumMessages(50);
+		pulsarContainerProperties.setBatchReceiveTargetLatency(Duration.ofMillis(50));
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-027", "foobar-sb-027"), pulsarContainerProperties);
+		container.start();
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-027");
+		for (int i = 0; i < 100; i++) {
+			pulsarTemplate.sendAsync("hello john doe");
+		}
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		AdaptiveBatchReceiveController controller = container.getAdaptiveBatchReceiveController();
+		assertThat(controller).isNotNull();
+		assertThat(controller.getBatchSize()).isBetween(1, 50);
+		assertThat(controller.getBatchTimeout()).isLessThanOrEqualTo(Duration.ofMillis(50));
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testRateLimitedListener() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		List<Long> receiveTimes = new CopyOnWriteArrayList<>();
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarRecordMessageListener<?>) (consumer, msg) -> receiveTimes.add(System.nanoTime()));
+		pulsarContainerProperties.setMaxNumMessages(10);
+		pulsarContainerProperties.setMaxMessagesPerSecond(10);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-028", "foobar-sb-028"), pulsarContainerProperties);
+		container.start();
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-028");
+		for (int i = 0; i < 30; i++) {
+			pulsarTemplate.sendAsync("hello john doe");
+		}
+		await().atMost(Duration.ofSeconds(10)).until(() -> receiveTimes.size() == 30);
+		// One second worth of burst, then 10 messages per second. The spacing is measured where the
+		// messages are received, so a slow producer or broker cannot make up for a missing throttle.
+		assertThat(receiveTimes.get(29) - receiveTimes.get(0))
+				.isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(1_000));
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testTopicsPatternSubscription() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
 		Map<String, Object> config = new HashMap<>();
-		final Set<String> strings = new HashSet<>();
-		strings.add("foobar-014");
-		config.put("topicNames", strings);
-		config.put("subscriptionName", "foobar-sb-014");
+		config.put("subscriptionName", "foobar-sb-029");
+		final DefaultPulsarConsumerFactory<String> pulsarConsumerFactory = new DefaultPulsarConsumerFactory<>(pulsarClient, config);
+		for (String topic : List.of("foobar-029-a", "foobar-029-b")) {
+			pulsarClient.newProducer(Schema.STRING).topic(topic).create().close();
+		}
+
+		PulsarContainerProperties pulsarContainerProperties = new PulsarContainerProperties(
+				Pattern.compile("persistent://public/default/foobar-029-.*"));
+		CountDownLatch latch = new CountDownLatch(10);
+		pulsarContainerProperties.setMessageListener((PulsarRecordMessageListener<?>) (consumer, msg) -> latch.countDown());
+		pulsarContainerProperties.setSchema(Schema.STRING);
+		pulsarContainerProperties.setPatternAutoDiscoveryPeriod(Duration.ofSeconds(5));
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				pulsarConsumerFactory, pulsarContainerProperties);
+		container.start();
+
+		final PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(
+				new DefaultPulsarProducerFactory<>(pulsarClient, new HashMap<>()));
+		for (int i = 0; i < 5; i++) {
+			pulsarTemplate.send("foobar-029-a", "hello john doe");
+			pulsarTemplate.send("foobar-029-b", "hello alice doe");
+		}
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(container.getReceivedMessageCounts())
+				.containsEntry("persistent://public/default/foobar-029-a", 5L)
+				.containsEntry("persistent://public/default/foobar-029-b", 5L);
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testPatternAutoDiscoveryPeriodBelowOneSecondRejected() {
+		PulsarContainerProperties pulsarContainerProperties = new PulsarContainerProperties(Pattern.compile("foobar-.*"));
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> pulsarContainerProperties.setPatternAutoDiscoveryPeriod(Duration.ofMillis(500)))
+				.withMessageContaining("patternAutoDiscoveryPeriod");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testFilteredMessagesAcknowledgedWithoutReachingListener() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		List<String> received = new CopyOnWriteArrayList<>();
+		CountDownLatch lastReceived = new CountDownLatch(1);
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarRecordMessageListener<String>) (consumer, msg) -> {
+					received.add(msg.getKey());
+					if ("last".equals(msg.getKey())) {
+						lastReceived.countDown();
+					}
+				});
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-030", "foobar-sb-030"), pulsarContainerProperties);
+		container.setRecordFilterStrategy(message -> "skip".equals(message.getKey()));
+		container.start();
+		final Consumer<?> containerConsumer = spyOnConsumer(container);
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-030");
+		for (int i = 0; i < 10; i++) {
+			String key = i % 2 == 0 ? "skip" : "keep";
+			pulsarTemplate.sendAsync(null, "hello john doe", null, messageBuilder -> messageBuilder.key(key));
+		}
+		pulsarTemplate.sendAsync(null, "hello john doe", null, messageBuilder -> messageBuilder.key("last"));
+		assertThat(lastReceived.await(10, TimeUnit.SECONDS)).isTrue();
+		// The last message is received after all the others, so the filtered ones never reach the listener.
+		assertThat(received).containsExactly("keep", "keep", "keep", "keep", "keep", "last");
+		verify(containerConsumer, atLeastOnce()).acknowledgeAsync(anyList());
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testDuplicateMessagesAcknowledgedWithoutReachingListener() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		List<String> received = new CopyOnWriteArrayList<>();
+		CountDownLatch lastReceived = new CountDownLatch(1);
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarRecordMessageListener<String>) (consumer, msg) -> {
+					received.add(msg.getKey());
+					if ("last".equals(msg.getKey())) {
+						lastReceived.countDown();
+					}
+				});
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-035", "foobar-sb-035"), pulsarContainerProperties);
+		InMemoryMessageDeduplicator deduplicator = new InMemoryMessageDeduplicator(100, Duration.ofMinutes(1),
+				Message::getKey);
+		container.setMessageDeduplicator(deduplicator);
+		container.start();
+		final Consumer<?> containerConsumer = spyOnConsumer(container);
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-035");
+		for (String key : List.of("a", "a", "b", "c", "b", "last")) {
+			pulsarTemplate.sendAsync(null, "hello john doe", null, messageBuilder -> messageBuilder.key(key));
+		}
+		assertThat(lastReceived.await(10, TimeUnit.SECONDS)).isTrue();
+		// The last message is received after all the others, so the duplicates never reach the listener.
+		assertThat(received).containsExactly("a", "b", "c", "last");
+		assertThat(deduplicator.getDuplicateCount()).isEqualTo(2);
+		assertThat(deduplicator.getHitRate()).isEqualTo(2.0 / 6);
+		// In BATCH ack mode, the duplicates are acknowledged along with the rest of their batch.
+		verify(containerConsumer, timeout(10_000).atLeastOnce()).acknowledge(any(Messages.class));
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testDeduplicatorProcessesRedeliveredUnacknowledgedMessagesAgain() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		Map<String, Object> config = createConsumerConfig("foobar-042", "foobar-sb-042");
+		config.put("ackTimeoutMillis", 1_000L);
+		final DefaultPulsarConsumerFactory<String> pulsarConsumerFactory = new DefaultPulsarConsumerFactory<>(pulsarClient, config);
+
+		List<String> received = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(2);
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarAcknowledgingMessageListener<String>) (consumer, msg, acknowledgement) -> {
+					received.add(msg.getKey());
+					// the first delivery is left unacknowledged, so that it is redelivered after the ack timeout.
+					if (received.size() > 1) {
+						acknowledgement.acknowledge();
+					}
+					latch.countDown();
+				});
+		pulsarContainerProperties.setAckMode(PulsarContainerProperties.AckMode.MANUAL);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				pulsarConsumerFactory, pulsarContainerProperties);
+		InMemoryMessageDeduplicator deduplicator = new InMemoryMessageDeduplicator(100, Duration.ofMinutes(1),
+				Message::getKey);
+		container.setMessageDeduplicator(deduplicator);
+		container.start();
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-042");
+		pulsarTemplate.sendAsync(null, "hello john doe", null, messageBuilder -> messageBuilder.key("a"));
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(received).containsExactly("a", "a");
+		assertThat(deduplicator.getDuplicateCount()).isZero();
+		// the message is only recorded once acknowledged
+		assertThat(deduplicator.size()).isEqualTo(1);
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testTransactionalConsumeTransformProduce() throws Exception {
+		Map<String, Object> config = createConsumerConfig("foobar-036", "foobar-sb-036");
+		config.put("negativeAckRedeliveryDelayMicros", TimeUnit.MILLISECONDS.toMicros(100));
 		final PulsarClient pulsarClient = PulsarClient.builder()
 				.serviceUrl(getPulsarBrokerUrl())
+				.enableTransaction(true)
 				.build();
 		final DefaultPulsarConsumerFactory<String> pulsarConsumerFactory = new DefaultPulsarConsumerFactory<>(pulsarClient, config);
+		final PulsarTransactionFactory transactionFactory = new DefaultPulsarTransactionFactory(pulsarClient);
+		final PulsarTemplate<String> outputTemplate = new PulsarTemplate<>(new DefaultPulsarProducerFactory<>(
+				pulsarClient, Collections.singletonMap("sendTimeoutMs", 0)));
+		outputTemplate.setTransactionFactory(transactionFactory);
 
-		PulsarContainerProperties pulsarContainerProperties = new PulsarContainerProperties();
-		final List<Acknowledgement> acksObjects = new ArrayList<>();
+		AtomicInteger failures = new AtomicInteger();
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarRecordMessageListener<String>) (consumer, msg) -> {
+					if (msg.getValue().equals("msg-7") && failures.getAndIncrement() == 0) {
+						throw new IllegalStateException("fail once");
+					}
+					try {
+						outputTemplate.send("foobar-036-out", msg.getValue().toUpperCase());
+					}
+					catch (PulsarClientException ex) {
+						throw new IllegalStateException(ex);
+					}
+				});
+		pulsarContainerProperties.setTransactionFactory(transactionFactory);
+		pulsarContainerProperties.setTransactionCommitCount(5);
+		pulsarContainerProperties.setTransactionCommitInterval(Duration.ofMillis(200));
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				pulsarConsumerFactory, pulsarContainerProperties);
+
+		try (Consumer<String> outputConsumer = pulsarClient.newConsumer(Schema.STRING).topic("foobar-036-out")
+				.subscriptionName("foobar-sb-036-out").subscribe()) {
+			container.start();
+			final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-036");
+			for (int i = 0; i < 10; i++) {
+				pulsarTemplate.send("msg-" + i);
+			}
+
+			List<String> output = new ArrayList<>();
+			Message<String> message = outputConsumer.receive(10, TimeUnit.SECONDS);
+			while (message != null) {
+				output.add(message.getValue());
+				message = outputConsumer.receive(2, TimeUnit.SECONDS);
+			}
+			// The sends of the aborted transaction are discarded, so each message is output once.
+			assertThat(output).hasSize(10).doesNotHaveDuplicates();
+			assertThat(failures.get()).isEqualTo(1);
+		}
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testBatchWindowAccumulatesAcrossReceives() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		final PulsarBatchMessageListener<?> pulsarBatchMessageListener = mock(PulsarBatchMessageListener.class);
+		List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		willAnswer(invocation -> {
+			batchSizes.add(invocation.getArgument(1, Messages.class).size());
+			latch.countDown();
+			return null;
+		}).given(pulsarBatchMessageListener).received(any(Consumer.class), any(Messages.class));
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(pulsarBatchMessageListener);
+		pulsarContainerProperties.setMaxNumMessages(5);
+		pulsarContainerProperties.setBatchTimeout(50);
+		pulsarContainerProperties.setBatchListener(true);
+		pulsarContainerProperties.setBatchWindow(Duration.ofSeconds(5));
+		pulsarContainerProperties.setBatchWindowMaxMessages(20);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-031", "foobar-sb-031"), pulsarContainerProperties);
+		container.start();
+		final Consumer<?> containerConsumer = spyOnConsumer(container);
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-031");
+		for (int i = 0; i < 20; i++) {
+			pulsarTemplate.sendAsync("hello john doe");
+		}
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		// Each receive returns at most 5 messages, the window hands all 20 to the listener at once.
+		assertThat(batchSizes).containsExactly(20);
+		verify(containerConsumer, timeout(10_000).times(1)).acknowledge(any(Messages.class));
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testManualAckForRecordListener() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		final List<Acknowledgement> acksObjects = new CopyOnWriteArrayList<>();
 		PulsarAcknowledgingMessageListener<?> pulsarAcknowledgingMessageListener = (consumer, msg, acknowledgement) -> {
 			acksObjects.add(acknowledgement);
 			acknowledgement.acknowledge();
 		};
-
-		pulsarContainerProperties.setMessageListener(pulsarAcknowledgingMessageListener);
-
-		pulsarContainerProperties.setSchema(Schema.STRING);
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				pulsarAcknowledgingMessageListener);
 		pulsarContainerProperties.setAckMode(PulsarContainerProperties.AckMode.MANUAL);
 		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
-				pulsarConsumerFactory, pulsarContainerProperties);
+				createConsumerFactory(pulsarClient, "foobar-014", "foobar-sb-014"), pulsarContainerProperties);
 		container.start();
 		final Consumer<?> containerConsumer = spyOnConsumer(container);
 
@@ -217,10 +566,7 @@ class PulsarMessageListenerContainerTests extends AbstractContainerBaseTests {
 		}).given(containerConsumer)
 				.acknowledge(any(Message.class));
 
-		Map<String, Object> prodConfig = new HashMap<>();
-		prodConfig.put("topicName", "foobar-014");
-		final DefaultPulsarProducerFactory<String> pulsarProducerFactory = new DefaultPulsarProducerFactory<>(pulsarClient, prodConfig);
-		final PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(pulsarProducerFactory);
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-014");
 		for (int i = 0; i < 10; i++) {
 			pulsarTemplate.sendAsync("hello john doe");
 		}
@@ -236,20 +582,7 @@ class PulsarMessageListenerContainerTests extends AbstractContainerBaseTests {
 	@Test
 	@SuppressWarnings("unchecked")
 	void testBatchAckForBatchListener() throws Exception {
-		Map<String, Object> config = new HashMap<>();
-		final Set<String> strings = new HashSet<>();
-		strings.add("foobar-015");
-		config.put("topicNames", strings);
-		config.put("subscriptionName", "foobar-sb-015");
-		final PulsarClient pulsarClient = PulsarClient.builder()
-				.serviceUrl(getPulsarBrokerUrl())
-				.build();
-		final DefaultPulsarConsumerFactory<String> pulsarConsumerFactory = new DefaultPulsarConsumerFactory<>(pulsarClient, config);
-
-		PulsarContainerProperties pulsarContainerProperties = new PulsarContainerProperties();
-		pulsarContainerProperties.setMaxNumMessages(10);
-		pulsarContainerProperties.setBatchTimeout(60_000);
-		pulsarContainerProperties.setBatchListener(true);
+		final PulsarClient pulsarClient = createPulsarClient();
 		CountDownLatch latch = new CountDownLatch(1);
 		final PulsarBatchMessageListener<?> pulsarBatchMessageListener = mock(PulsarBatchMessageListener.class);
 
@@ -258,24 +591,22 @@ class PulsarMessageListenerContainerTests extends AbstractContainerBaseTests {
 			return null;
 		}).given(pulsarBatchMessageListener).received(any(Consumer.class), any(Messages.class));
 
-		pulsarContainerProperties.setMessageListener(
-				pulsarBatchMessageListener);
-		pulsarContainerProperties.setSchema(Schema.STRING);
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(pulsarBatchMessageListener);
+		pulsarContainerProperties.setMaxNumMessages(10);
+		pulsarContainerProperties.setBatchTimeout(60_000);
+		pulsarContainerProperties.setBatchListener(true);
 		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
-				pulsarConsumerFactory, pulsarContainerProperties);
+				createConsumerFactory(pulsarClient, "foobar-015", "foobar-sb-015"), pulsarContainerProperties);
 		container.start();
 		final Consumer<?> containerConsumer = spyOnConsumer(container);
 
-		Map<String, Object> prodConfig = new HashMap<>();
-		prodConfig.put("topicName", "foobar-015");
-		final DefaultPulsarProducerFactory<String> pulsarProducerFactory = new DefaultPulsarProducerFactory<>(pulsarClient, prodConfig);
-		final PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(pulsarProducerFactory);
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-015");
 		for (int i = 0; i < 10; i++) {
 			pulsarTemplate.sendAsync("hello john doe");
 		}
 		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
 		verify(pulsarBatchMessageListener, times(1)).received(any(Consumer.class), any(Messages.class));
-		verify(containerConsumer, times(1)).acknowledge(any(Messages.class));
+		verify(containerConsumer, timeout(10_000).times(1)).acknowledge(any(Messages.class));
 		container.stop();
 		pulsarClient.close();
 	}
@@ -283,51 +614,411 @@ class PulsarMessageListenerContainerTests extends AbstractContainerBaseTests {
 	@Test
 	@SuppressWarnings("unchecked")
 	void testBatchNackForEntireBatchWhenUsingBatchListener() throws Exception {
-		Map<String, Object> config = new HashMap<>();
-		final Set<String> strings = new HashSet<>();
-		strings.add("foobar-016");
-		config.put("topicNames", strings);
-		config.put("subscriptionName", "foobar-sb-016");
-		final PulsarClient pulsarClient = PulsarClient.builder()
-				.serviceUrl(getPulsarBrokerUrl())
-				.build();
-		final DefaultPulsarConsumerFactory<String> pulsarConsumerFactory = new DefaultPulsarConsumerFactory<>(pulsarClient, config);
+		final PulsarClient pulsarClient = createPulsarClient();
+		final PulsarBatchMessageListener<?> pulsarBatchMessageListener = mock(PulsarBatchMessageListener.class);
+		CountDownLatch latch = new CountDownLatch(1);
 
-		PulsarContainerProperties pulsarContainerProperties = new PulsarContainerProperties();
+		willAnswer(invocation -> {
+			latch.countDown();
+			throw new RuntimeException();
+		}).given(pulsarBatchMessageListener).received(any(Consumer.class), any(Messages.class));
+
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(pulsarBatchMessageListener);
 		pulsarContainerProperties.setMaxNumMessages(10);
 		pulsarContainerProperties.setBatchTimeout(60_000);
 		pulsarContainerProperties.setBatchListener(true);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-016", "foobar-sb-016"), pulsarContainerProperties);
+		container.start();
+		final Consumer<?> containerConsumer = spyOnConsumer(container);
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-016");
+		for (int i = 0; i < 10; i++) {
+			pulsarTemplate.sendAsync("hello john doe");
+		}
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+		// The batch is only acknowledged after the listener returns, which it never does.
+		verify(containerConsumer, timeout(10_000).times(1)).negativeAcknowledge(any(Messages.class));
+		verify(containerConsumer, never()).acknowledge(any(Messages.class));
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testBatchListenerFailedExceptionAcksMessagesBeforeFailedOne() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
 		final PulsarBatchMessageListener<?> pulsarBatchMessageListener = mock(PulsarBatchMessageListener.class);
-		CountDownLatch latch = new CountDownLatch(1);
+		final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(2);
 
 		willAnswer(invocation -> {
+			Messages<?> messages = invocation.getArgument(1);
+			batchSizes.add(messages.size());
 			latch.countDown();
-			throw new RuntimeException();
+			if (batchSizes.size() == 1) {
+				throw new BatchListenerFailedException("fail", 5);
+			}
+			return null;
 		}).given(pulsarBatchMessageListener).received(any(Consumer.class), any(Messages.class));
 
-		pulsarContainerProperties.setMessageListener(
-				pulsarBatchMessageListener);
-		pulsarContainerProperties.setSchema(Schema.STRING);
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(pulsarBatchMessageListener);
+		pulsarContainerProperties.setMaxNumMessages(10);
+		pulsarContainerProperties.setBatchTimeout(60_000);
+		pulsarContainerProperties.setBatchListener(true);
 		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
-				pulsarConsumerFactory, pulsarContainerProperties);
+				createConsumerFactory(pulsarClient, "foobar-017", "foobar-sb-017"), pulsarContainerProperties);
 		container.start();
 		final Consumer<?> containerConsumer = spyOnConsumer(container);
 
-		Map<String, Object> prodConfig = new HashMap<>();
-		prodConfig.put("topicName", "foobar-016");
-		final DefaultPulsarProducerFactory<String> pulsarProducerFactory = new DefaultPulsarProducerFactory<>(pulsarClient, prodConfig);
-		final PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(pulsarProducerFactory);
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-017");
 		for (int i = 0; i < 10; i++) {
 			pulsarTemplate.sendAsync("hello john doe");
 		}
 		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
-		Thread.sleep(2_000);
-		verify(containerConsumer, times(1)).negativeAcknowledge(any(Messages.class));
+		// The remaining messages are acknowledged once the listener returns from the second invocation,
+		// after the messages before the failed one were acknowledged and the failed one nacked.
+		verify(containerConsumer, timeout(10_000).times(1)).acknowledge(any(Messages.class));
+		// The messages after the failed one are handed to the listener again without redelivery.
+		assertThat(batchSizes).containsExactly(10, 4);
+		verify(containerConsumer, times(1)).acknowledge(any(List.class));
+		verify(containerConsumer, times(1)).negativeAcknowledge(any(Message.class));
+		verify(containerConsumer, never()).negativeAcknowledge(any(Messages.class));
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testRecordListenerRetriedByErrorHandlerBeforeNack() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		final AtomicInteger attempts = new AtomicInteger();
+		final List<String> recovered = new CopyOnWriteArrayList<>();
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarRecordMessageListener<?>) (consumer, msg) -> {
+					if (attempts.incrementAndGet() < 5) {
+						throw new RuntimeException("fail");
+					}
+				});
+		pulsarContainerProperties.setAckMode(PulsarContainerProperties.AckMode.RECORD);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-018", "foobar-sb-018"), pulsarContainerProperties);
+		// the first message is retried twice and then recovered, the second one succeeds on the second attempt
+		container.setPulsarConsumerErrorHandler(new DefaultPulsarConsumerErrorHandler<>(
+				consumer -> (message, exception) -> recovered.add(message.getValue()), new FixedBackOff(100, 2)));
+		container.start();
+		final Consumer<?> containerConsumer = spyOnConsumer(container);
+
+		CountDownLatch latch = new CountDownLatch(2);
+
+		willAnswer(invocation -> {
+			latch.countDown();
+			return invocation.callRealMethod();
+		}).given(containerConsumer)
+				.acknowledge(any(Message.class));
+		// the recovered message is acknowledged asynchronously once the recoverer completes
+		willAnswer(invocation -> {
+			latch.countDown();
+			return invocation.callRealMethod();
+		}).given(containerConsumer)
+				.acknowledgeAsync(any(Message.class));
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-018");
+		pulsarTemplate.send("hello john doe");
+		pulsarTemplate.send("hello jane doe");
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(attempts.get()).isEqualTo(5);
+		assertThat(recovered).containsExactly("hello john doe");
+		verify(containerConsumer, never()).negativeAcknowledge(any(Message.class));
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testStopInterruptsRetryBackOff() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		CountDownLatch failed = new CountDownLatch(1);
+		final AtomicInteger attempts = new AtomicInteger();
+		final List<String> recovered = new CopyOnWriteArrayList<>();
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarRecordMessageListener<?>) (consumer, msg) -> {
+					attempts.incrementAndGet();
+					failed.countDown();
+					throw new RuntimeException("fail");
+				});
+		pulsarContainerProperties.setAckMode(PulsarContainerProperties.AckMode.RECORD);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-044", "foobar-sb-044"), pulsarContainerProperties);
+		// a back off far longer than the shutdown timeout
+		container.setPulsarConsumerErrorHandler(new DefaultPulsarConsumerErrorHandler<>(
+				consumer -> (message, exception) -> recovered.add(message.getValue()), new FixedBackOff(60_000, 3)));
+		container.start();
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-044");
+		pulsarTemplate.send("hello john doe");
+		assertThat(failed.await(30, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(CompletableFuture.runAsync(container::stop)).succeedsWithin(Duration.ofSeconds(5));
+		assertThat(attempts.get()).isEqualTo(1);
+		assertThat(recovered).isEmpty();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testRecordListenerFailurePublishedToDeadLetterTopic() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		Consumer<byte[]> deadLetterConsumer = pulsarClient.newConsumer(Schema.BYTES)
+				.topic("persistent://public/default/foobar-019-foobar-sb-019-DLT")
+				.subscriptionName("foobar-dlt-sb-019")
+				.subscribe();
+
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarRecordMessageListener<?>) (consumer, msg) -> {
+					throw new RuntimeException("fail");
+				});
+		pulsarContainerProperties.setAckMode(PulsarContainerProperties.AckMode.RECORD);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-019", "foobar-sb-019"), pulsarContainerProperties);
+		final PulsarTemplate<byte[]> deadLetterTemplate = new PulsarTemplate<>(
+				new DefaultPulsarProducerFactory<>(pulsarClient, new HashMap<>()));
+		container.setPulsarConsumerErrorHandler(new DefaultPulsarConsumerErrorHandler<>(
+				new PulsarDeadLetterPublishingRecoverer<>(deadLetterTemplate), new FixedBackOff(100, 1)));
+		container.start();
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-019");
+		pulsarTemplate.send("hello john doe");
+
+		Message<byte[]> deadLetter = deadLetterConsumer.receive(30, TimeUnit.SECONDS);
+		assertThat(deadLetter).isNotNull();
+		assertThat(new String(deadLetter.getValue(), StandardCharsets.UTF_8)).isEqualTo("hello john doe");
+		assertThat(deadLetter.getProperty(PulsarDeadLetterPublishingRecoverer.EXCEPTION_FQCN))
+				.isEqualTo(RuntimeException.class.getName());
+		assertThat(deadLetter.getProperty(PulsarDeadLetterPublishingRecoverer.ORIGINAL_TOPIC))
+				.isEqualTo("persistent://public/default/foobar-019");
+		assertThat(deadLetter.getProperty(PulsarDeadLetterPublishingRecoverer.ORIGINAL_SUBSCRIPTION))
+				.isEqualTo("foobar-sb-019");
+		deadLetterConsumer.close();
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testConsumerRecoversAfterReceiveFailures() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		CountDownLatch receivedLatch = new CountDownLatch(1);
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarRecordMessageListener<?>) (consumer, msg) -> receivedLatch.countDown());
+		pulsarContainerProperties.setReceiveFailureBackOff(new FixedBackOff(100, FixedBackOff.UNLIMITED_ATTEMPTS));
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-020", "foobar-sb-020"), pulsarContainerProperties);
+		final List<PulsarEvent> events = new CopyOnWriteArrayList<>();
+		container.setApplicationEventPublisher(event -> events.add((PulsarEvent) event));
+		container.start();
+		final Consumer<?> containerConsumer = spyOnConsumer(container);
+		willThrow(new PulsarClientException("broker unavailable"))
+				.willThrow(new PulsarClientException("broker unavailable"))
+				.willCallRealMethod()
+				.given(containerConsumer).batchReceive();
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-020");
+		pulsarTemplate.send("hello john doe");
+		assertThat(receivedLatch.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(container.isRunning()).isTrue();
+		assertThat(container.getConsumerRestarts()).isEqualTo(1);
+		assertThat(events).filteredOn(ConsumerFailedEvent.class::isInstance).hasSize(2);
+		assertThat(events).filteredOn(ConsumerRecoveredEvent.class::isInstance).singleElement()
+				.extracting(event -> ((ConsumerRecoveredEvent) event).getFailedAttempts()).isEqualTo(2);
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testStopWaitsForInFlightMessagesToBeAcknowledged() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		CountDownLatch processingLatch = new CountDownLatch(1);
+		CountDownLatch releaseLatch = new CountDownLatch(1);
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarRecordMessageListener<?>) (consumer, msg) -> {
+					processingLatch.countDown();
+					try {
+						releaseLatch.await(30, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+		pulsarContainerProperties.setShutdownTimeout(Duration.ofSeconds(30));
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-021", "foobar-sb-021"), pulsarContainerProperties);
+		container.start();
+		final Consumer<?> containerConsumer = spyOnConsumer(container);
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-021");
+		pulsarTemplate.send("hello john doe");
+		assertThat(processingLatch.await(30, TimeUnit.SECONDS)).isTrue();
+
+		CountDownLatch stopLatch = new CountDownLatch(1);
+		container.stop(stopLatch::countDown);
+		assertThat(container.isRunning()).isFalse();
+		// the container does not complete its stop while the listener is still processing the message
+		assertThat(stopLatch.getCount()).isEqualTo(1);
+		verify(containerConsumer, never()).closeAsync();
+		releaseLatch.countDown();
+		assertThat(stopLatch.await(30, TimeUnit.SECONDS)).isTrue();
+		verify(containerConsumer).acknowledge(any(Messages.class));
+		verify(containerConsumer).closeAsync();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testAsyncListenerAcknowledgedOnCompletion() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		final AtomicInteger inFlight = new AtomicInteger();
+		final AtomicInteger maxInFlight = new AtomicInteger();
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarAsyncAcknowledgingMessageListener<?>) (consumer, msg, acknowledgement) -> {
+					maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+					return CompletableFuture.runAsync(() -> inFlight.decrementAndGet(),
+							CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+				});
+		pulsarContainerProperties.setAckMode(PulsarContainerProperties.AckMode.RECORD);
+		pulsarContainerProperties.setMaxInFlightMessages(2);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-023", "foobar-sb-023"), pulsarContainerProperties);
+		container.start();
+		final Consumer<?> containerConsumer = spyOnConsumer(container);
+
+		CountDownLatch latch = new CountDownLatch(5);
+		willAnswer(invocation -> {
+			latch.countDown();
+			return invocation.callRealMethod();
+		}).given(containerConsumer)
+				.acknowledgeAsync(any(Message.class));
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-023");
+		for (int i = 0; i < 5; i++) {
+			pulsarTemplate.send("hello john doe");
+		}
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(maxInFlight.get()).isBetween(1, 2);
+		verify(containerConsumer, never()).acknowledge(any(Message.class));
+		container.stop();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testStopReleasesConsumerThreadWaitingForInFlightPermit() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		final AtomicInteger invocations = new AtomicInteger();
+		// the listener never completes, so the next message waits for a permit until the container stops
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarAsyncAcknowledgingMessageListener<?>) (consumer, msg, acknowledgement) -> {
+					invocations.incrementAndGet();
+					return new CompletableFuture<>();
+				});
+		pulsarContainerProperties.setMaxInFlightMessages(1);
+		pulsarContainerProperties.setShutdownTimeout(Duration.ofSeconds(1));
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-038", "foobar-sb-038"), pulsarContainerProperties);
+		container.start();
+		final Consumer<?> containerConsumer = spyOnConsumer(container);
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-038");
+		for (int i = 0; i < 3; i++) {
+			pulsarTemplate.send("hello john doe");
+		}
+		verify(containerConsumer, timeout(30_000)).pause();
+		Future<?> consumerThread = getPropertyValue(container, "listenerConsumerFuture", Future.class);
+
+		container.stop();
+
+		await().atMost(Duration.ofSeconds(30)).until(consumerThread::isDone);
+		assertThat(invocations.get()).isEqualTo(1);
 		verify(containerConsumer, never()).acknowledge(any(Messages.class));
+		pulsarClient.close();
+	}
+
+	@Test
+	void testManualCumulativeAckForRecordListener() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		final AtomicInteger received = new AtomicInteger();
+		PulsarAcknowledgingMessageListener<?> pulsarAcknowledgingMessageListener = (consumer, msg, acknowledgement) -> {
+			// acknowledge every fifth message, covering the previous ones as well
+			if (received.incrementAndGet() % 5 == 0) {
+				acknowledgement.acknowledgeCumulative();
+			}
+		};
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				pulsarAcknowledgingMessageListener);
+		pulsarContainerProperties.setAckMode(PulsarContainerProperties.AckMode.MANUAL_CUMULATIVE);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-024", "foobar-sb-024"), pulsarContainerProperties);
+		container.start();
+		final Consumer<?> containerConsumer = spyOnConsumer(container);
+
+		CountDownLatch latch = new CountDownLatch(2);
+		willAnswer(invocation -> {
+			latch.countDown();
+			return invocation.callRealMethod();
+		}).given(containerConsumer)
+				.acknowledgeCumulative(any(MessageId.class));
+
+		final PulsarTemplate<String> pulsarTemplate = createPulsarTemplate(pulsarClient, "foobar-024");
+		for (int i = 0; i < 10; i++) {
+			pulsarTemplate.sendAsync("hello john doe");
+		}
+		assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+		verify(containerConsumer, times(2)).acknowledgeCumulative(any(MessageId.class));
+		verify(containerConsumer, never()).acknowledge(any(Message.class));
 		container.stop();
 		pulsarClient.close();
 	}
 
+	@Test
+	void testManualCumulativeAckRejectedForSharedSubscription() throws Exception {
+		final PulsarClient pulsarClient = createPulsarClient();
+		PulsarContainerProperties pulsarContainerProperties = createContainerProperties(
+				(PulsarAcknowledgingMessageListener<?>) (consumer, msg, acknowledgement) -> acknowledgement.acknowledgeCumulative());
+		pulsarContainerProperties.setSubscriptionType(SubscriptionType.Shared);
+		pulsarContainerProperties.setAckMode(PulsarContainerProperties.AckMode.MANUAL_CUMULATIVE);
+		DefaultPulsarMessageListenerContainer<String> container = new DefaultPulsarMessageListenerContainer<>(
+				createConsumerFactory(pulsarClient, "foobar-025", "foobar-sb-025"), pulsarContainerProperties);
+		assertThatIllegalStateException().isThrownBy(container::start)
+				.withMessageContaining("MANUAL_CUMULATIVE");
+		assertThat(container.isRunning()).isFalse();
+		pulsarClient.close();
+	}
+
+	private static PulsarClient createPulsarClient() throws PulsarClientException {
+		return PulsarClient.builder()
+				.serviceUrl(getPulsarBrokerUrl())
+				.build();
+	}
+
+	private static Map<String, Object> createConsumerConfig(String topic, String subscriptionName) {
+		Map<String, Object> config = new HashMap<>();
+		config.put("topicNames", new HashSet<>(Collections.singleton(topic)));
+		config.put("subscriptionName", subscriptionName);
+		return config;
+	}
+
+	private static DefaultPulsarConsumerFactory<String> createConsumerFactory(PulsarClient pulsarClient, String topic,
+			String subscriptionName) {
+		return new DefaultPulsarConsumerFactory<>(pulsarClient, createConsumerConfig(topic, subscriptionName));
+	}
+
+	private static PulsarContainerProperties createContainerProperties(PulsarRecordMessageListener<?> messageListener) {
+		PulsarContainerProperties pulsarContainerProperties = new PulsarContainerProperties();
+		pulsarContainerProperties.setMessageListener(messageListener);
+		pulsarContainerProperties.setSchema(Schema.STRING);
+		return pulsarContainerProperties;
+	}
+
+	private static PulsarTemplate<String> createPulsarTemplate(PulsarClient pulsarClient, String topic) {
+		Map<String, Object> prodConfig = new HashMap<>();
+		prodConfig.put("topicName", topic);
+		return new PulsarTemplate<>(new DefaultPulsarProducerFactory<>(pulsarClient, prodConfig));
+	}
+
 	private Consumer<?> spyOnConsumer(DefaultPulsarMessageListenerContainer<String> container) {
 		Consumer<?> consumer = getPropertyValue(container, "listenerConsumer.consumer", Consumer.class);
 		consumer = spy(consumer);
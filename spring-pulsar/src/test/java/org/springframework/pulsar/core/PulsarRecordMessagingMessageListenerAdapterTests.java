@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.TypedMessageBuilder;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+import org.springframework.pulsar.config.MethodPulsarListenerEndpoint;
+import org.springframework.pulsar.listener.PulsarMessageListenerContainer;
+import org.springframework.pulsar.listener.adapter.HandlerAdapter;
+import org.springframework.pulsar.listener.adapter.PulsarRecordMessagingMessageListenerAdapter;
+import org.springframework.pulsar.support.PulsarHeaders;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Tests for {@link PulsarRecordMessagingMessageListenerAdapter} replies.
+ *
+ * @author agent (agent@local)
+ */
+@SuppressWarnings("unchecked")
+class PulsarRecordMessagingMessageListenerAdapterTests {
+
+	private final PulsarTemplate<Object> replyTemplate = mock(PulsarTemplate.class);
+
+	private final Consumer<String> consumer = mock(Consumer.class);
+
+	@Test
+	void testReplySentBeforeMessageCompletes() throws Exception {
+		PulsarRecordMessagingMessageListenerAdapter<String> adapter = createAdapter("upperCase", "reply-topic");
+		CompletableFuture<MessageId> sent = new CompletableFuture<>();
+		given(this.replyTemplate.sendAsync(eq("reply-topic"), eq("HELLO"), isNull(), any())).willReturn(sent);
+
+		CompletableFuture<?> completion = adapter.receivedAsync(this.consumer, message("hello", "42", null), null);
+
+		assertThat(completion).isNotDone();
+		sent.complete(MessageId.earliest);
+		assertThat(completion).isCompleted();
+		ArgumentCaptor<TypedMessageBuilderCustomizer<Object>> customizer = ArgumentCaptor
+				.forClass(TypedMessageBuilderCustomizer.class);
+		verify(this.replyTemplate).sendAsync(eq("reply-topic"), eq("HELLO"), isNull(), customizer.capture());
+		TypedMessageBuilder<Object> messageBuilder = mock(TypedMessageBuilder.class);
+		customizer.getValue().customize(messageBuilder);
+		verify(messageBuilder).property(PulsarHeaders.CORRELATION_ID, "42");
+	}
+
+	@Test
+	void testReplySentToRequestedTopic() throws Exception {
+		PulsarRecordMessagingMessageListenerAdapter<String> adapter = createAdapter("upperCase", "");
+		given(this.replyTemplate.sendAsync(eq("requested-topic"), eq("HELLO"), isNull(), any()))
+				.willReturn(CompletableFuture.completedFuture(MessageId.earliest));
+
+		CompletableFuture<?> completion = adapter.receivedAsync(this.consumer,
+				message("hello", "42", "requested-topic"), null);
+
+		assertThat(completion).isCompleted();
+	}
+
+	@Test
+	void testMissingReplyTopicFailsMessage() {
+		PulsarRecordMessagingMessageListenerAdapter<String> adapter = createAdapter("upperCase", "");
+
+		CompletableFuture<?> completion = adapter.receivedAsync(this.consumer, message("hello", null, null), null);
+
+		assertThat(completion).isCompletedExceptionally();
+	}
+
+	@Test
+	void testEmptyReplyTopicRejectedOnBatchListener() {
+		MethodPulsarListenerEndpoint<String> endpoint = new MethodPulsarListenerEndpoint<>();
+		endpoint.setBean(new ReplyingListener());
+		endpoint.setMethod(ReflectionUtils.findMethod(ReplyingListener.class, "upperCaseAll", List.class));
+		endpoint.setMessageHandlerMethodFactory(new DefaultMessageHandlerMethodFactory());
+		endpoint.setBatchListener(true);
+		endpoint.setReplyTemplate(this.replyTemplate);
+		endpoint.setReplyTopic("");
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> endpoint.setupListenerContainer(mock(PulsarMessageListenerContainer.class), null))
+				.withMessageContaining("must name the reply topic");
+	}
+
+	private PulsarRecordMessagingMessageListenerAdapter<String> createAdapter(String methodName, String replyTopic) {
+		ReplyingListener bean = new ReplyingListener();
+		Method method = ReflectionUtils.findMethod(ReplyingListener.class, methodName, String.class);
+		DefaultMessageHandlerMethodFactory messageHandlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+		messageHandlerMethodFactory.afterPropertiesSet();
+		PulsarRecordMessagingMessageListenerAdapter<String> adapter = new PulsarRecordMessagingMessageListenerAdapter<>(
+				bean, method);
+		adapter.setHandlerMethod(new HandlerAdapter(
+				messageHandlerMethodFactory.createInvocableHandlerMethod(bean, method)));
+		adapter.setReplyTemplate(this.replyTemplate);
+		adapter.setReplyTopic(replyTopic);
+		return adapter;
+	}
+
+	private static Message<String> message(String value, String correlationId, String replyTopic) {
+		Message<String> message = mock(Message.class);
+		given(message.getValue()).willReturn(value);
+		given(message.getProperty(PulsarHeaders.CORRELATION_ID)).willReturn(correlationId);
+		given(message.getProperty(PulsarHeaders.REPLY_TOPIC)).willReturn(replyTopic);
+		return message;
+	}
+
+	static class ReplyingListener {
+
+		@SendTo
+		public String upperCase(String value) {
+			return value.toUpperCase();
+		}
+
+		@SendTo
+		public List<String> upperCaseAll(List<String> values) {
+			return values.stream().map(String::toUpperCase).toList();
+		}
+
+	}
+}
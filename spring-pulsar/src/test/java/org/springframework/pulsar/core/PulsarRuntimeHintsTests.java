@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.Producer;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.pulsar.aot.PulsarListenerReflectiveProcessor;
+import org.springframework.pulsar.aot.PulsarRuntimeHints;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Tests for {@link PulsarRuntimeHints} and {@link PulsarListenerReflectiveProcessor}.
+ *
+ * @author agent (agent@local)
+ */
+class PulsarRuntimeHintsTests {
+
+	private final RuntimeHints hints = new RuntimeHints();
+
+	@Test
+	void testClientClassesAndProducerProxyRegistered() {
+		new PulsarRuntimeHints().registerHints(this.hints, getClass().getClassLoader());
+
+		assertThat(RuntimeHintsPredicates.reflection()
+				.onType(TypeReference.of("org.apache.pulsar.client.impl.conf.ConsumerConfigurationData"))
+				.withMemberCategories(MemberCategory.DECLARED_FIELDS)).accepts(this.hints);
+		assertThat(RuntimeHintsPredicates.reflection()
+				.onType(TypeReference.of("org.apache.pulsar.client.impl.auth.AuthenticationToken"))).accepts(this.hints);
+		assertThat(RuntimeHintsPredicates.proxies()
+				.forInterfaces(AopProxyUtils.completeJdkProxyInterfaces(Producer.class))).accepts(this.hints);
+	}
+
+	@Test
+	void testListenerMethodAndPayloadTypesRegistered() {
+		Method method = ReflectionUtils.findMethod(Listener.class, "listen", List.class);
+		new PulsarListenerReflectiveProcessor().registerReflectionHints(this.hints.reflection(), method);
+
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(method)).accepts(this.hints);
+		assertThat(RuntimeHintsPredicates.reflection().onType(Order.class)
+				.withMemberCategories(MemberCategory.DECLARED_FIELDS)).accepts(this.hints);
+		assertThat(RuntimeHintsPredicates.reflection().onType(Receipt.class)).accepts(this.hints);
+	}
+
+	static class Listener {
+
+		Receipt listen(List<Message<Order>> orders) {
+			return new Receipt(orders.size());
+		}
+
+	}
+
+	record Order(String id, String item) {
+	}
+
+	record Receipt(int count) {
+	}
+}
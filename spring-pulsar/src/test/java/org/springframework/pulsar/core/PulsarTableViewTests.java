@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.pulsar.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.apache.pulsar.client.api.Schema;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PulsarTableView}.
+ *
+ * @author agent (agent@local)
+ */
+class PulsarTableViewTests extends AbstractContainerBaseTests {
+
+	@Test
+	void testTableViewLoadsExistingEntriesAndFollowsUpdates() throws Exception {
+		final PulsarClient pulsarClient = PulsarClient.builder()
+				.serviceUrl(getPulsarBrokerUrl())
+				.build();
+		final PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(
+				new DefaultPulsarProducerFactory<>(pulsarClient, Collections.emptyMap()));
+		send(pulsarTemplate, "foobar-033", "a", "1");
+		send(pulsarTemplate, "foobar-033", "b", "2");
+		send(pulsarTemplate, "foobar-033", "a", "3");
+
+		PulsarTableView<String> tableView = new PulsarTableView<>(pulsarClient, Schema.STRING, "foobar-033");
+		Map<String, String> updates = new ConcurrentHashMap<>();
+		tableView.addListener(updates::put);
+		tableView.setInitialLoadTimeout(Duration.ofSeconds(10));
+		tableView.afterPropertiesSet();
+
+		assertThat(tableView.isReady()).isTrue();
+		assertThat(tableView.size()).isEqualTo(2);
+		assertThat(tableView.get("a")).isEqualTo("3");
+		assertThat(tableView.getOrDefault("c", "none")).isEqualTo("none");
+
+		send(pulsarTemplate, "foobar-033", "c", "4");
+		await().atMost(Duration.ofSeconds(10)).until(() -> "4".equals(tableView.get("c")));
+		assertThat(updates).containsEntry("a", "3").containsEntry("b", "2").containsEntry("c", "4");
+		tableView.destroy();
+		pulsarClient.close();
+	}
+
+	@Test
+	void testBoundedTableViewEvictsLeastRecentlyUsedEntries() throws Exception {
+		final PulsarClient pulsarClient = PulsarClient.builder()
+				.serviceUrl(getPulsarBrokerUrl())
+				.build();
+		final PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(
+				new DefaultPulsarProducerFactory<>(pulsarClient, Collections.emptyMap()));
+		send(pulsarTemplate, "foobar-034", "a", "1");
+		send(pulsarTemplate, "foobar-034", "b", "2");
+		send(pulsarTemplate, "foobar-034", "c", "3");
+
+		PulsarTableView<String> tableView = new PulsarTableView<>(pulsarClient, Schema.STRING, "foobar-034");
+		tableView.setMaxEntries(2);
+		tableView.setInitialLoadTimeout(Duration.ofSeconds(10));
+		tableView.afterPropertiesSet();
+
+		assertThat(tableView.toMap()).containsOnlyKeys("b", "c");
+		assertThat(tableView.getEvictionCount()).isEqualTo(1);
+		assertThat(tableView.get("b")).isEqualTo("2");
+
+		send(pulsarTemplate, "foobar-034", "d", "4");
+		await().atMost(Duration.ofSeconds(10)).until(() -> "4".equals(tableView.get("d")));
+		assertThat(tableView.toMap()).containsOnlyKeys("b", "d");
+
+		// evicted values are read back from the topic
+		assertThat(tableView.get("a")).isEqualTo("1");
+		assertThat(tableView.toMap()).containsOnlyKeys("a", "d");
+		assertThat(tableView.getEvictionCount()).isEqualTo(3);
+		assertThat(tableView.get("e")).isNull();
+		tableView.destroy();
+		pulsarClient.close();
+	}
+
+	private void send(PulsarTemplate<String> pulsarTemplate, String topic, String key, String value)
+			throws PulsarClientException {
+		pulsarTemplate.sendAsync(topic, value, null, messageBuilder -> messageBuilder.key(key)).join();
+	}
+}
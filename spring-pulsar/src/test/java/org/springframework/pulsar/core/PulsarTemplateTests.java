@@ -17,34 +17,45 @@
 package org.springframework.pulsar.core;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Stream;
 
 import org.apache.pulsar.client.admin.PulsarAdmin;
+import org.apache.pulsar.client.api.BatcherBuilder;
 import org.apache.pulsar.client.api.Consumer;
 import org.apache.pulsar.client.api.Message;
 import org.apache.pulsar.client.api.MessageId;
 import org.apache.pulsar.client.api.MessageRouter;
+import org.apache.pulsar.client.api.Producer;
 import org.apache.pulsar.client.api.PulsarClient;
 import org.apache.pulsar.client.api.PulsarClientException;
 import org.apache.pulsar.client.api.Schema;
 import org.apache.pulsar.client.api.TopicMetadata;
 import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.Named;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import org.springframework.pulsar.support.PulsarHeaders;
+
 /**
  * Tests for {@code PulsarTemplate}.
  *
@@ -114,6 +125,73 @@ class PulsarTemplateTests extends AbstractContainerBaseTests {
 		);
 	}
 
+	@Test
+	void sendMessageWithBuilderTest() throws Exception {
+		try (PulsarClient client = PulsarClient.builder().serviceUrl(getPulsarBrokerUrl()).build()) {
+			try (Consumer<String> consumer = client.newConsumer(Schema.STRING).topic("smt-topic-9")
+					.subscriptionName("smt-topic-9-sub").subscribe()) {
+				DefaultPulsarProducerFactory<String> producerFactory = new DefaultPulsarProducerFactory<>(client,
+						Collections.emptyMap());
+				producerFactory.setBatcherBuilder(BatcherBuilder.KEY_BASED);
+				PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(producerFactory);
+
+				MessageId msgId = pulsarTemplate.newMessage("smt-topic-9-msg")
+						.withTopic("smt-topic-9")
+						.withKey("smt-key")
+						.withOrderingKey("smt-ordering-key".getBytes(StandardCharsets.UTF_8))
+						.withProperty("smt-property", "smt-value")
+						.withEventTime(1000L)
+						.send();
+				assertThat(msgId).isNotNull();
+
+				Message<String> msg = consumer.receiveAsync().get(3, TimeUnit.SECONDS);
+				assertThat(msg.getValue()).isEqualTo("smt-topic-9-msg");
+				assertThat(msg.getKey()).isEqualTo("smt-key");
+				assertThat(msg.getOrderingKey()).isEqualTo("smt-ordering-key".getBytes(StandardCharsets.UTF_8));
+				assertThat(msg.getProperty("smt-property")).isEqualTo("smt-value");
+				assertThat(msg.getEventTime()).isEqualTo(1000L);
+			}
+		}
+	}
+
+	@Test
+	void sendAndReceiveTest() throws Exception {
+		try (PulsarClient client = PulsarClient.builder().serviceUrl(getPulsarBrokerUrl()).build()) {
+			try (Producer<String> replyProducer = client.newProducer(Schema.STRING).topic("sar-reply-topic").create();
+					Consumer<String> responder = client.newConsumer(Schema.STRING).topic("sar-request-topic")
+							.subscriptionName("sar-request-topic-sub")
+							.messageListener((consumer, request) -> {
+								assertThat(request.getProperty(PulsarHeaders.REPLY_TOPIC)).isEqualTo("sar-reply-topic");
+								replyProducer.newMessage()
+										.value(request.getValue().toUpperCase())
+										.property(PulsarHeaders.CORRELATION_ID, request.getProperty(PulsarHeaders.CORRELATION_ID))
+										.sendAsync();
+								consumer.acknowledgeAsync(request);
+							})
+							.subscribe()) {
+				PulsarProducerFactory<String> producerFactory = new DefaultPulsarProducerFactory<>(client, Collections.emptyMap());
+				PulsarTemplate<String> pulsarTemplate = new PulsarTemplate<>(producerFactory);
+				pulsarTemplate.setReplyConsumerFactory(new DefaultPulsarConsumerFactory<>(client, Collections.emptyMap()));
+				pulsarTemplate.setReplySchema(Schema.STRING);
+				pulsarTemplate.setReplyTopic("sar-reply-topic");
+
+				List<CompletableFuture<String>> replies = new ArrayList<>();
+				for (int i = 0; i < 20; i++) {
+					replies.add(pulsarTemplate.sendAndReceive("sar-request-topic", "request-" + i, Duration.ofSeconds(10)));
+				}
+				for (int i = 0; i < 20; i++) {
+					assertThat(replies.get(i).get(10, TimeUnit.SECONDS)).isEqualTo("REQUEST-" + i);
+				}
+
+				CompletableFuture<String> unanswered = pulsarTemplate.sendAndReceive("sar-unanswered-topic", "hello",
+						Duration.ofMillis(500));
+				assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> unanswered.get(5, TimeUnit.SECONDS))
+						.withCauseInstanceOf(TimeoutException.class);
+				pulsarTemplate.destroy();
+			}
+		}
+	}
+
 	private static MessageRouter mockRouter() {
 		MessageRouter router = mock(MessageRouter.class);
 		when(router.choosePartition(any(Message.class), any(TopicMetadata.class))).thenReturn(0);